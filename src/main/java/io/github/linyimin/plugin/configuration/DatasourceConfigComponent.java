@@ -6,6 +6,7 @@ import com.intellij.openapi.components.Storage;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import io.github.linyimin.plugin.configuration.model.DatasourceConfig4Save;
 import io.github.linyimin.plugin.configuration.model.DatasourceConfiguration;
+import io.github.linyimin.plugin.constant.Constant;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -41,8 +42,19 @@ public class DatasourceConfigComponent implements PersistentStateComponent<Datas
             getState();
         }
 
+        return getConfig(this.config.getCurrent());
+    }
+
+    /**
+     * @return the configuration of the profile, null if there is none of that name
+     */
+    public DatasourceConfiguration getConfig(String name) {
+        if (this.config == null || this.config.getConfigurations() == null) {
+            getState();
+        }
+
         return this.config.getConfigurations().stream()
-                .filter(temp -> StringUtils.equals(this.config.getCurrent(), temp.getName()))
+                .filter(temp -> StringUtils.equals(name, temp.getName()))
                 .findFirst()
                 .orElse(null);
     }
@@ -107,18 +119,57 @@ public class DatasourceConfigComponent implements PersistentStateComponent<Datas
     }
 
     public String getType() {
-        if (this.getConfig() == null) {
+        return getType(this.getName());
+    }
+
+    public String getType(String name) {
+        DatasourceConfiguration configuration = this.getConfig(name);
+        if (configuration == null) {
             return "mysql";
         }
-        System.out.println(this.getConfig().toString());
-        String type = this.getConfig().getType();
+        String type = configuration.getType();
         return StringUtils.isEmpty(type) ? "mysql" : type;
     }
 
+    public int getMaxActive() {
+        return getMaxActive(this.getName());
+    }
+
+    public int getMaxActive(String name) {
+        DatasourceConfiguration configuration = this.getConfig(name);
+        return Math.max(parse(configuration == null ? null : configuration.getMaxActive(), Constant.DEFAULT_MAX_ACTIVE), 1);
+    }
+
+    /**
+     * @return idle connections kept by the pool of the profile, no more than its max active
+     */
+    public int getMinIdle(String name) {
+        DatasourceConfiguration configuration = this.getConfig(name);
+        return Math.min(parse(configuration == null ? null : configuration.getMinIdle(), Constant.DEFAULT_MIN_IDLE), getMaxActive(name));
+    }
+
+    /**
+     * @return milliseconds to wait for a connection of the pool of the profile
+     */
+    public int getMaxWait(String name) {
+        DatasourceConfiguration configuration = this.getConfig(name);
+        return parse(configuration == null ? null : configuration.getMaxWait(), Constant.DEFAULT_MAX_WAIT);
+    }
+
     public List<String> getAllDatasourceNames() {
+        if (this.config == null || this.config.getConfigurations() == null) {
+            getState();
+        }
         return this.config.getConfigurations().stream().map(DatasourceConfiguration::getName).collect(Collectors.toList());
     }
 
+    private static int parse(String value, int defaultValue) {
+        if (StringUtils.isBlank(value) || !StringUtils.isNumeric(value.trim())) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
     public void remove() {
         Optional<DatasourceConfiguration> optional = this.config.getConfigurations().stream()
                 .filter(temp -> StringUtils.equals(this.config.getCurrent(), temp.getName()))
@@ -14,6 +14,12 @@ public class DatasourceConfiguration {
     private String database;
     // Database type in lowercase (oracle or mysql)
     private String type;
+    // Max active connections of the pool, blank means Constant.DEFAULT_MAX_ACTIVE
+    private String maxActive;
+    // Idle connections kept open by the pool, blank means Constant.DEFAULT_MIN_IDLE
+    private String minIdle;
+    // Milliseconds to wait for a connection of the pool, blank means Constant.DEFAULT_MAX_WAIT
+    private String maxWait;
 
     public DatasourceConfiguration name(String name) {
         this.name = name;
@@ -50,6 +56,21 @@ public class DatasourceConfiguration {
         return this;
     }
 
+    public DatasourceConfiguration maxActive(String maxActive) {
+        this.maxActive = maxActive;
+        return this;
+    }
+
+    public DatasourceConfiguration minIdle(String minIdle) {
+        this.minIdle = minIdle;
+        return this;
+    }
+
+    public DatasourceConfiguration maxWait(String maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
     public String getHost() {
         return host;
     }
@@ -106,6 +127,30 @@ public class DatasourceConfiguration {
         this.type = type;
     }
 
+    public String getMaxActive() {
+        return maxActive;
+    }
+
+    public void setMaxActive(String maxActive) {
+        this.maxActive = maxActive;
+    }
+
+    public String getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(String minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public String getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(String maxWait) {
+        this.maxWait = maxWait;
+    }
+
     public String toString() {
         return "DatasourceConfiguration{" +
                 "name='" + name + '\'' +
@@ -115,6 +160,9 @@ public class DatasourceConfiguration {
                 ", password='" + password + '\'' +
                 ", database='" + database + '\'' +
                 ", type='" + type + '\'' +
+                ", maxActive='" + maxActive + '\'' +
+                ", minIdle='" + minIdle + '\'' +
+                ", maxWait='" + maxWait + '\'' +
                 '}';
     }
 }
@@ -42,19 +42,11 @@ public class Constant {
 
     public static final int TABLE_ROW_HEIGHT = 20;
 
-    public static final String TABLE_META_SQL_TEMPLATE = "SELECT `column_name` AS Name, \n" +
-            "`column_type` AS Type, \n" +
-            "CASE WHEN `IS_NULLABLE` = 'NO' THEN 'FALSE' ELSE 'TRUE' END AS Nullable,\n" +
-            "`column_default` AS 'Default', \n" +
-            "`column_key` AS 'Key', \n" +
-            "`EXTRA` AS Extra,\n" +
-            "`column_comment` AS 'Comment' \n" +
-            "FROM `information_schema`.`COLUMNS` \n" +
-            "WHERE `table_name` = '${table}';";
-
-    public static final String TABLE_INDEX_SQL_TEMPLATE = "SHOW INDEX FROM `${table}`;";
-
-    public static int INSERT_ROWS = 10000;
+    public static final int DEFAULT_MAX_ACTIVE = 10;
+
+    public static final int DEFAULT_MIN_IDLE = 5;
+
+    public static final int DEFAULT_MAX_WAIT = 5000;
 
     public static String SQL_STATEMENT_LOADING_PROMPT = "Loading SQL Statement...";
 
@@ -5,6 +5,7 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import io.github.linyimin.plugin.stress.Percentiles;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,6 +20,12 @@ public class SqlViewerSettingsState implements PersistentStateComponent<SqlViewe
 
     public int maxRowsReturnedField = 100;
 
+    public String stressPercentiles = Percentiles.DEFAULT_PERCENTILES;
+
+    public int mockBatchSize = 1000;
+
+    public int mockCommitRows = 10000;
+
     @Override
     public @Nullable SqlViewerSettingsState getState() {
         return this;
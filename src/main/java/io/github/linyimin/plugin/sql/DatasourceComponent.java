@@ -4,94 +4,388 @@ import com.alibaba.druid.pool.DruidDataSource;
 import com.alibaba.druid.pool.DruidDataSourceFactory;
 import com.intellij.openapi.application.ApplicationManager;
 import io.github.linyimin.plugin.configuration.DatasourceConfigComponent;
+import io.github.linyimin.plugin.configuration.model.DatasourceConfiguration;
 import io.github.linyimin.plugin.constant.Constant;
+import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
-import java.util.Properties;
+import java.sql.DriverManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Connection pools of the datasource profiles, one per profile used so far. Switching between profiles keeps
+ * the pools of the others open, a pool not used for a while is closed the next time any pool is asked for.
+ * <p>
+ * The statement and result panes use the current profile, the stress and scanner panes may target a profile of
+ * their own. A profile becoming active is warmed up in the background, see {@link DatasourceHealthMonitor}.
+ *
  * @author banzhe
  * @date 2022/11/26 21:48
  **/
 public class DatasourceComponent {
-    private DruidDataSource dataSource;
 
-    public Connection getConnection() throws Exception {
-        if (dataSource == null || dataSource.isClosed()) {
-            dataSource = createDatasource();
+    private static final long IDLE_EVICT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * panes choosing the profile they run against
+     */
+    public enum Target {
+        stress,
+        scanner
+    }
+
+    private static class Pool {
+
+        private final DruidDataSource dataSource;
+
+        /**
+         * the settings the pool was created with, a different one means the profile was edited
+         */
+        private final String settings;
+
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        private Pool(DruidDataSource dataSource, String settings) {
+            this.dataSource = dataSource;
+            this.settings = settings;
         }
+    }
+
+    private final Map<String, Pool> pools = new HashMap<>();
+
+    private final Map<String, RowCountProvider> rowCounts = new ConcurrentHashMap<>();
+
+    private final Map<String, TableMetadataCache> metadata = new ConcurrentHashMap<>();
+
+    private final Map<Target, String> targets = new ConcurrentHashMap<>();
+
+    private final DatasourceHealthMonitor healthMonitor = new DatasourceHealthMonitor(this);
 
-        return dataSource.getConnection(3000);
+    public Connection getConnection() throws Exception {
+        return getConnection(getCurrentProfile());
     }
 
-    public void updateDatasource() {
-        this.close();
+    public Connection getConnection(String profile) throws Exception {
         try {
-            dataSource = createDatasource();
-        } catch (Exception ignored) {
-            if (dataSource != null) {
-                dataSource.close();
+            Connection connection = getDataSource(profile).getConnection(getMaxWait(profile));
+            healthMonitor.succeeded(profile);
+            return connection;
+        } catch (Exception e) {
+            healthMonitor.failed(profile, e);
+            throw e;
+        }
+    }
+
+    public DruidDataSource getDataSource() throws Exception {
+        return getDataSource(getCurrentProfile());
+    }
+
+    /**
+     * @return the open pool of the profile, created on first use or after the profile was edited
+     */
+    public synchronized DruidDataSource getDataSource(String profile) throws Exception {
+
+        evictIdle(profile);
+
+        String settings = settings(profile);
+
+        Pool pool = pools.get(profile);
+        if (pool == null || pool.dataSource.isClosed() || !StringUtils.equals(pool.settings, settings)) {
+            if (pool != null) {
+                pool.dataSource.close();
+                getRowCounts(profile).clear();
+                getMetadata(profile).clear();
+                healthMonitor.forget(profile);
             }
+            pool = new Pool(createDatasource(profile), settings);
+            pools.put(profile, pool);
         }
+
+        pool.lastUsedMillis = System.currentTimeMillis();
+
+        return pool.dataSource;
     }
 
-    public void close() {
+    /**
+     * @return the pool of the profile if it is open, without counting as a use of it
+     */
+    public synchronized DruidDataSource getOpenDataSource(String profile) {
+        Pool pool = pools.get(profile);
+        return pool == null || pool.dataSource.isClosed() ? null : pool.dataSource;
+    }
+
+    public synchronized List<String> getOpenProfiles() {
+        return new ArrayList<>(pools.keySet());
+    }
+
+    /**
+     * Warm up the pool of the current profile in the background.
+     */
+    public void warmUp() {
+        warmUp(getCurrentProfile());
+    }
+
+    public void warmUp(String profile) {
+        healthMonitor.warmUp(profile);
+    }
+
+    /**
+     * @return whether the profile could be connected when it was probed last, probes now only if it never was
+     */
+    public boolean isConnected(String profile) {
+        DatasourceHealthMonitor.Health health = healthMonitor.getHealth(profile);
+        if (health == null) {
+            health = healthMonitor.probe(profile);
+        }
+        return health.isConnected();
+    }
+
+    public DatasourceHealthMonitor getHealthMonitor() {
+        return healthMonitor;
+    }
+
+    /**
+     * @return the profile the pane runs against, the current profile unless the pane chose an existing one
+     */
+    public String getProfile(Target target) {
+        String profile = targets.get(target);
+        if (profile == null || getConfigComponent().getConfig(profile) == null) {
+            return getCurrentProfile();
+        }
+        return profile;
+    }
+
+    public void setProfile(Target target, String profile) {
+        if (StringUtils.isBlank(profile)) {
+            targets.remove(target);
+        } else {
+            targets.put(target, profile);
+        }
+        warmUp(getProfile(target));
+    }
+
+    public String getCurrentProfile() {
+        return getConfigComponent().getName();
+    }
+
+    /**
+     * A pool only used by one stress run, so it neither competes with the UI for connections nor is
+     * limited by Max Active. All connections are created before it is returned, the caller closes it.
+     */
+    public DruidDataSource createStressDatasource(int size) throws Exception {
+        return createStressDatasource(getCurrentProfile(), size);
+    }
+
+    public DruidDataSource createStressDatasource(String profile, int size) throws Exception {
+
+        DruidDataSource stressDataSource = createDatasource(profile, size, size, size, getMaxWait(profile));
+        stressDataSource.setName("sql-stress");
+        // lives for one run only, fail it at once if the database can't be reached
+        stressDataSource.setBreakAfterAcquireFailure(true);
+
         try {
-            if (dataSource != null) {
-                dataSource.close();
-            }
-        } catch (Exception ignored) {
-            if (dataSource != null) {
-                dataSource.close();
+            stressDataSource.init();
+        } catch (Exception e) {
+            stressDataSource.close();
+            throw e;
+        }
+
+        return stressDataSource;
+    }
+
+    /**
+     * A connection outside of any pool, so that e.g. sampling the server during a stress neither takes a
+     * connection of the stress nor of the UI. The caller closes it.
+     */
+    public Connection createConnection() throws Exception {
+        return createConnection(getCurrentProfile());
+    }
+
+    public Connection createConnection(String profile) throws Exception {
+        DatasourceConfiguration configuration = getConfiguration(profile);
+
+        Class.forName(driverClassName(profile));
+
+        return DriverManager.getConnection(url(profile, configuration), configuration.getUser(), configuration.getPassword());
+    }
+
+    public String getDatabaseType() {
+        return getDatabaseType(getCurrentProfile());
+    }
+
+    public String getDatabaseType(String profile) {
+        return getConfigComponent().getType(profile);
+    }
+
+    /**
+     * @return max active connections of the current datasource, requests beyond it queue in the pool
+     */
+    public int getMaxActive() {
+        return getMaxActive(getCurrentProfile());
+    }
+
+    public int getMaxActive(String profile) {
+        return getConfigComponent().getMaxActive(profile);
+    }
+
+    public int getMaxWait(String profile) {
+        return getConfigComponent().getMaxWait(profile);
+    }
+
+    /**
+     * @return the cheapest statement the database of the profile answers
+     */
+    public String getValidationQuery(String profile) {
+        return "oracle".equals(getDatabaseType(profile)) ? "SELECT 1 FROM DUAL" : "SELECT 1";
+    }
+
+    /**
+     * @return total rows of tables of the current datasource
+     */
+    public RowCountProvider getRowCounts() {
+        return getRowCounts(getCurrentProfile());
+    }
+
+    public RowCountProvider getRowCounts(String profile) {
+        return rowCounts.computeIfAbsent(StringUtils.defaultString(profile), name -> new RowCountProvider(this, name));
+    }
+
+    /**
+     * @return columns, indexes and primary keys of tables of the current datasource
+     */
+    public TableMetadataCache getMetadata() {
+        return getMetadata(getCurrentProfile());
+    }
+
+    public TableMetadataCache getMetadata(String profile) {
+        return metadata.computeIfAbsent(StringUtils.defaultString(profile), name -> new TableMetadataCache(this, name));
+    }
+
+    /**
+     * Close the pools of profiles which were removed or edited, the pools of the others stay open.
+     */
+    public synchronized void updateDatasource() {
+
+        Iterator<Map.Entry<String, Pool>> iterator = pools.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, Pool> entry = iterator.next();
+            String profile = entry.getKey();
+            boolean exists = getConfigComponent().getConfig(profile) != null;
+            if (!exists || !StringUtils.equals(entry.getValue().settings, settings(profile))) {
+                entry.getValue().dataSource.close();
+                getRowCounts(profile).clear();
+                getMetadata(profile).clear();
+                healthMonitor.forget(profile);
+                iterator.remove();
             }
         }
     }
 
-    private DruidDataSource createDatasource() throws Exception {
-        DatasourceConfigComponent component = ApplicationManager.getApplication()
-                .getComponent(DatasourceConfigComponent.class);
+    public synchronized void close() {
+        healthMonitor.close();
+        for (Pool pool : pools.values()) {
+            pool.dataSource.close();
+        }
+        pools.clear();
+    }
 
-        String type = component.getType();
-        if ("oracle".equals(type)) {
-            return createOracleDatasource(component);
-        } else {
-            return createMysqlDatasource(component);
+    /**
+     * Close the pools not used for a while, except the one asked for. A pool with connections checked out, e.g.
+     * by a long stress, is in use however long ago it was asked for.
+     */
+    private void evictIdle(String profile) {
+
+        long now = System.currentTimeMillis();
+
+        Iterator<Map.Entry<String, Pool>> iterator = pools.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, Pool> entry = iterator.next();
+            Pool pool = entry.getValue();
+            if (StringUtils.equals(entry.getKey(), profile) || pool.dataSource.getActiveCount() > 0) {
+                continue;
+            }
+            if (now - pool.lastUsedMillis > IDLE_EVICT_MILLIS) {
+                entry.getValue().dataSource.close();
+                healthMonitor.forget(entry.getKey());
+                iterator.remove();
+            }
         }
     }
 
-    private DruidDataSource createMysqlDatasource(DatasourceConfigComponent component) throws Exception {
-        String url = String.format(
-                Constant.MYSQL_DATABASE_URL_TEMPLATE, component.getHost(), component.getPort(), component.getDatabase()
-        );
-        Properties properties = new Properties();
-        properties.put(DruidDataSourceFactory.PROP_URL, url);
-        properties.put(DruidDataSourceFactory.PROP_USERNAME, component.getUser());
-        properties.put(DruidDataSourceFactory.PROP_PASSWORD, component.getPassword());
-        properties.put(DruidDataSourceFactory.PROP_DRIVERCLASSNAME, "com.mysql.cj.jdbc.Driver");
-        properties.put(DruidDataSourceFactory.PROP_MINIDLE, "5");
-        properties.put(DruidDataSourceFactory.PROP_MAXACTIVE, "10");
-        properties.put(DruidDataSourceFactory.PROP_MAXWAIT, "5000");
+    /**
+     * The pool opens Min Idle connections on its own thread once initialized and keeps them alive, so the first
+     * statement after switching to the profile doesn't wait for a handshake. It keeps retrying to connect after a
+     * failure, a profile unreachable when first used (VPN down, database restarting) recovers on its own.
+     */
+    private DruidDataSource createDatasource(String profile) throws Exception {
+        DatasourceConfigComponent component = getConfigComponent();
 
-        DruidDataSource dataSource = (DruidDataSource) DruidDataSourceFactory.createDataSource(properties);
-        dataSource.setBreakAfterAcquireFailure(true);
-        return (DruidDataSource) DruidDataSourceFactory.createDataSource(properties);
+        int minIdle = component.getMinIdle(profile);
+
+        DruidDataSource dataSource = createDatasource(profile, minIdle, minIdle, component.getMaxActive(profile), component.getMaxWait(profile));
+        dataSource.setAsyncInit(true);
+        dataSource.setKeepAlive(true);
+        dataSource.setValidationQuery(getValidationQuery(profile));
+        dataSource.setTestWhileIdle(true);
+        return dataSource;
     }
 
-    private DruidDataSource createOracleDatasource(DatasourceConfigComponent component) throws Exception {
-        String url = String.format(
-                Constant.ORACLE_DATABASE_URL_TEMPLATE, component.getHost(), component.getPort(), component.getDatabase()
-        );
+    private DruidDataSource createDatasource(String profile, int initialSize, int minIdle, int maxActive, int maxWait) throws Exception {
+        DatasourceConfiguration configuration = getConfiguration(profile);
+
         Properties properties = new Properties();
-        properties.put(DruidDataSourceFactory.PROP_URL, url);
-        properties.put(DruidDataSourceFactory.PROP_USERNAME, component.getUser());
-        properties.put(DruidDataSourceFactory.PROP_PASSWORD, component.getPassword());
-        properties.put(DruidDataSourceFactory.PROP_DRIVERCLASSNAME, "oracle.jdbc.driver.OracleDriver");
-        properties.put(DruidDataSourceFactory.PROP_MINIDLE, "5");
-        properties.put(DruidDataSourceFactory.PROP_MAXACTIVE, "10");
-        properties.put(DruidDataSourceFactory.PROP_MAXWAIT, "5000");
+        properties.put(DruidDataSourceFactory.PROP_URL, url(profile, configuration));
+        properties.put(DruidDataSourceFactory.PROP_USERNAME, StringUtils.defaultString(configuration.getUser()));
+        properties.put(DruidDataSourceFactory.PROP_PASSWORD, StringUtils.defaultString(configuration.getPassword()));
+        properties.put(DruidDataSourceFactory.PROP_DRIVERCLASSNAME, driverClassName(profile));
+        properties.put(DruidDataSourceFactory.PROP_INITIALSIZE, String.valueOf(initialSize));
+        properties.put(DruidDataSourceFactory.PROP_MINIDLE, String.valueOf(minIdle));
+        properties.put(DruidDataSourceFactory.PROP_MAXACTIVE, String.valueOf(maxActive));
+        properties.put(DruidDataSourceFactory.PROP_MAXWAIT, String.valueOf(maxWait));
+        if (!"oracle".equals(getDatabaseType(profile))) {
+            // let a JDBC batch of inserts, e.g. of mock data, go out as multi-row inserts
+            properties.put(DruidDataSourceFactory.PROP_CONNECTIONPROPERTIES, "rewriteBatchedStatements=true");
+        }
 
         DruidDataSource dataSource = (DruidDataSource) DruidDataSourceFactory.createDataSource(properties);
-        dataSource.setBreakAfterAcquireFailure(true);
+        dataSource.setName(String.format("sql-viewer-%s", profile));
         return dataSource;
     }
+
+    private String driverClassName(String profile) {
+        return "oracle".equals(getDatabaseType(profile)) ? "oracle.jdbc.driver.OracleDriver" : "com.mysql.cj.jdbc.Driver";
+    }
+
+    private String url(String profile, DatasourceConfiguration configuration) {
+        String template = "oracle".equals(getDatabaseType(profile)) ? Constant.ORACLE_DATABASE_URL_TEMPLATE : Constant.MYSQL_DATABASE_URL_TEMPLATE;
+        return String.format(template, configuration.getHost(), configuration.getPort(), configuration.getDatabase());
+    }
+
+    private String settings(String profile) {
+        DatasourceConfigComponent component = getConfigComponent();
+        DatasourceConfiguration configuration = component.getConfig(profile);
+        if (configuration == null) {
+            return null;
+        }
+        return String.join("|", component.getType(profile), configuration.getHost(), configuration.getPort(),
+                configuration.getDatabase(), configuration.getUser(), configuration.getPassword(),
+                String.valueOf(component.getMaxActive(profile)), String.valueOf(component.getMinIdle(profile)),
+                String.valueOf(component.getMaxWait(profile)));
+    }
+
+    private DatasourceConfiguration getConfiguration(String profile) {
+        DatasourceConfiguration configuration = getConfigComponent().getConfig(profile);
+        if (configuration == null) {
+            throw new IllegalStateException(String.format("Datasource %s is not configured.", StringUtils.defaultIfBlank(profile, "")));
+        }
+        return configuration;
+    }
+
+    private static DatasourceConfigComponent getConfigComponent() {
+        return ApplicationManager.getApplication().getComponent(DatasourceConfigComponent.class);
+    }
 }
@@ -0,0 +1,189 @@
+package io.github.linyimin.plugin.sql;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import io.github.linyimin.plugin.constant.Constant;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connectivity of the datasource profiles, known before anyone asks. A profile becoming active is warmed up on a
+ * pooled thread: its pool is created and fills up to Min Idle in the background. The open pools are probed with
+ * a validation query on a schedule, so callers like the scanner read the last state instead of connecting first.
+ * <p>
+ * The probe takes a connection of the pool without counting as a use of it, a pool nobody uses is still evicted.
+ *
+ * @author banzhe
+ * @date 2026/10/19 09:00
+ **/
+public class DatasourceHealthMonitor {
+
+    private static final long PROBE_INTERVAL_SECONDS = 30;
+
+    private static final int PROBE_TIMEOUT_SECONDS = 5;
+
+    public static class Health {
+
+        private final boolean connected;
+
+        /**
+         * Constant.DATASOURCE_CONNECTED or why the datasource can not be connected
+         */
+        private final String message;
+
+        private final long probedMillis;
+
+        private Health(boolean connected, String message) {
+            this.connected = connected;
+            this.message = message;
+            this.probedMillis = System.currentTimeMillis();
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getProbedMillis() {
+            return probedMillis;
+        }
+    }
+
+    private static final Health CONNECTED = new Health(true, Constant.DATASOURCE_CONNECTED);
+
+    private final DatasourceComponent datasourceComponent;
+
+    private final Map<String, Health> states = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> schedule;
+
+    public DatasourceHealthMonitor(DatasourceComponent datasourceComponent) {
+        this.datasourceComponent = datasourceComponent;
+    }
+
+    /**
+     * Create the pool of the profile and probe it on a pooled thread, returns at once.
+     */
+    public void warmUp(String profile) {
+
+        if (StringUtils.isBlank(profile)) {
+            return;
+        }
+
+        startProbing();
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                datasourceComponent.getDataSource(profile).init();
+                probe(profile, datasourceComponent.getOpenDataSource(profile));
+            } catch (Exception e) {
+                failed(profile, e);
+            }
+        });
+    }
+
+    /**
+     * @return the state of the last probe, null if the profile was not probed since its pool was opened
+     */
+    public Health getHealth(String profile) {
+        return states.get(StringUtils.defaultString(profile));
+    }
+
+    /**
+     * Probe the profile now, opening its pool if needed.
+     */
+    public Health probe(String profile) {
+
+        startProbing();
+
+        try {
+            return probe(profile, datasourceComponent.getDataSource(profile));
+        } catch (Exception e) {
+            return failed(profile, e);
+        }
+    }
+
+    /**
+     * Record a connection of the profile which could not be acquired, e.g. while executing a statement.
+     */
+    public Health failed(String profile, Exception e) {
+
+        StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+
+        Health health = new Health(false, String.format("Server can't Connect!\n%s", sw));
+        states.put(StringUtils.defaultString(profile), health);
+
+        return health;
+    }
+
+    /**
+     * Record a connection of the profile which was acquired.
+     */
+    public void succeeded(String profile) {
+        Health health = states.get(StringUtils.defaultString(profile));
+        if (health == null || !health.isConnected()) {
+            states.put(StringUtils.defaultString(profile), CONNECTED);
+        }
+    }
+
+    /**
+     * Forget the state of a profile whose pool was closed.
+     */
+    public void forget(String profile) {
+        states.remove(StringUtils.defaultString(profile));
+    }
+
+    public synchronized void close() {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+        states.clear();
+    }
+
+    private synchronized void startProbing() {
+        if (schedule == null) {
+            schedule = AppExecutorUtil.getAppScheduledExecutorService()
+                    .scheduleWithFixedDelay(this::probeOpenPools, PROBE_INTERVAL_SECONDS, PROBE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void probeOpenPools() {
+        for (String profile : datasourceComponent.getOpenProfiles()) {
+            DruidDataSource dataSource = datasourceComponent.getOpenDataSource(profile);
+            if (dataSource != null) {
+                probe(profile, dataSource);
+            }
+        }
+    }
+
+    private Health probe(String profile, DruidDataSource dataSource) {
+
+        if (dataSource == null) {
+            return getHealth(profile);
+        }
+
+        try (Connection connection = dataSource.getConnection(datasourceComponent.getMaxWait(profile));
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(PROBE_TIMEOUT_SECONDS);
+            statement.execute(datasourceComponent.getValidationQuery(profile));
+            states.put(StringUtils.defaultString(profile), CONNECTED);
+            return CONNECTED;
+        } catch (Exception e) {
+            return failed(profile, e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.linyimin.plugin.sql;
+
+import com.intellij.openapi.application.ApplicationManager;
+import io.github.linyimin.plugin.sql.result.RowCount;
+import io.github.linyimin.plugin.stress.ErrorClassifier;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total rows of the tables of a statement without counting them while the user waits: a COUNT on a table of
+ * millions of rows takes longer than most statements. A table counted before is answered from the cache, any
+ * other from the statistics of the database ({@code information_schema.TABLES.TABLE_ROWS} for MySQL,
+ * {@code ALL_TABLES.NUM_ROWS} for Oracle) while an exact count runs on a pooled thread for the next time.
+ * <p>
+ * Writes issued through the plugin invalidate the count of their tables, a count started before the write is
+ * dropped. Counts expire anyway since other clients write as well. A table whose count timed out is answered from
+ * the statistics only for a while, so a huge table is not scanned again by every statement on it.
+ *
+ * @author banzhe
+ * @date 2026/10/19 07:00
+ **/
+public class RowCountProvider {
+
+    private static final int COUNT_TIMEOUT_SECONDS = 30;
+
+    private static final long EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * a table whose count timed out is not counted again before
+     */
+    private static final long TIMED_OUT_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final String MYSQL_ESTIMATE_SQL = "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = COALESCE(?, DATABASE()) AND TABLE_NAME = ?";
+
+    private static final String ORACLE_ESTIMATE_SQL = "SELECT NUM_ROWS FROM ALL_TABLES " +
+            "WHERE OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) AND TABLE_NAME = ?";
+
+    private static class Count {
+
+        private final long rows;
+        private final long countedMillis;
+
+        /**
+         * the count did not finish within COUNT_TIMEOUT_SECONDS, rows is unknown
+         */
+        private final boolean timedOut;
+
+        private Count(long rows, long countedMillis, boolean timedOut) {
+            this.rows = rows;
+            this.countedMillis = countedMillis;
+            this.timedOut = timedOut;
+        }
+
+        private boolean isValid() {
+            return System.currentTimeMillis() - countedMillis < (timedOut ? TIMED_OUT_RETRY_MILLIS : EXPIRE_MILLIS);
+        }
+    }
+
+    private final DatasourceComponent datasourceComponent;
+    private final String profile;
+
+    private final Map<String, Count> counts = new ConcurrentHashMap<>();
+
+    /**
+     * table -> number of writes, a count only stores its result if no write happened while counting
+     */
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    private final Set<String> counting = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param profile datasource profile whose tables are counted
+     */
+    public RowCountProvider(DatasourceComponent datasourceComponent, String profile) {
+        this.datasourceComponent = datasourceComponent;
+        this.profile = profile;
+    }
+
+    /**
+     * @param connection connection of the caller to read the statistics with, not closed
+     */
+    public List<RowCount> acquire(Connection connection, List<String> tables) {
+
+        List<RowCount> rowCounts = new ArrayList<>();
+
+        for (String table : tables) {
+            String key = key(table);
+            Count count = counts.get(key);
+            if (count != null && count.isValid()) {
+                rowCounts.add(count.timedOut ? new RowCount(table, estimate(connection, table), false) : new RowCount(table, count.rows, true));
+                continue;
+            }
+
+            rowCounts.add(new RowCount(table, estimate(connection, table), false));
+            countLater(table);
+        }
+
+        return rowCounts;
+    }
+
+    /**
+     * Forget the counts of tables just written to. A timed out count is kept, a write doesn't make the table
+     * faster to count.
+     */
+    public void invalidate(List<String> tables) {
+        for (String table : tables) {
+            String key = key(table);
+            generations.merge(key, 1L, Long::sum);
+            counts.computeIfPresent(key, (name, count) -> count.timedOut ? count : null);
+        }
+    }
+
+    public void clear() {
+        for (String key : counting) {
+            generations.merge(key, 1L, Long::sum);
+        }
+        for (String key : counts.keySet()) {
+            generations.merge(key, 1L, Long::sum);
+        }
+        counts.clear();
+    }
+
+    private long estimate(Connection connection, String table) {
+
+        boolean isOracle = StringUtils.equals(datasourceComponent.getDatabaseType(profile), "oracle");
+
+        String[] name = splitName(table);
+
+        try (PreparedStatement statement = connection.prepareStatement(isOracle ? ORACLE_ESTIMATE_SQL : MYSQL_ESTIMATE_SQL)) {
+            statement.setString(1, name[0] == null ? null : identifier(name[0], isOracle));
+            statement.setString(2, identifier(name[1], isOracle));
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return RowCount.UNKNOWN;
+                }
+                long rows = rs.getLong(1);
+                // tables never analyzed have no statistics
+                return rs.wasNull() ? RowCount.UNKNOWN : rows;
+            }
+        } catch (SQLException e) {
+            return RowCount.UNKNOWN;
+        }
+    }
+
+    private void countLater(String table) {
+
+        String key = key(table);
+        if (!counting.add(key)) {
+            return;
+        }
+
+        long generation = generations.getOrDefault(key, 0L);
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try (Connection connection = datasourceComponent.getConnection(profile); Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(COUNT_TIMEOUT_SECONDS);
+                try (ResultSet rs = statement.executeQuery(String.format("SELECT COUNT(1) FROM %s", table))) {
+                    rs.next();
+                    Count count = new Count(rs.getLong(1), System.currentTimeMillis(), false);
+                    counts.put(key, count);
+                    // checked after storing, so a write invalidating concurrently either removes it or is seen here
+                    if (generations.getOrDefault(key, 0L) != generation) {
+                        counts.remove(key, count);
+                    }
+                }
+            } catch (Exception e) {
+                // a timed out count leaves the estimate for a while, other failures are tried again next time
+                if (StringUtils.equals(ErrorClassifier.classify(e), ErrorClassifier.QUERY_TIMEOUT)) {
+                    counts.put(key, new Count(RowCount.UNKNOWN, System.currentTimeMillis(), true));
+                }
+            } finally {
+                counting.remove(key);
+            }
+        });
+    }
+
+    /**
+     * @return schema, null if the name is not qualified, and table of a name like {@code `db`.`user`}
+     */
+    private static String[] splitName(String table) {
+        int dot = table.lastIndexOf('.');
+        return dot < 0 ? new String[]{null, table} : new String[]{table.substring(0, dot), table.substring(dot + 1)};
+    }
+
+    /**
+     * @return the identifier as stored in the dictionary, unquoted oracle identifiers are stored in upper case
+     */
+    private static String identifier(String name, boolean isOracle) {
+        if (isOracle && !name.startsWith("\"")) {
+            return name.toUpperCase();
+        }
+        return StringUtils.strip(name, "`\"");
+    }
+
+    private static String key(String table) {
+        return StringUtils.remove(StringUtils.remove(table, '`'), '"').toLowerCase();
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.linyimin.plugin.sql;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
+import io.github.linyimin.plugin.stress.ErrorClassifier;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Connections of one stress run.
+ * <p>
+ * The shared mode checks a connection out of the datasource pool for every request, as the UI does. The pinned
+ * mode creates a separate pool sized to the number of workers, each worker checks a connection out once and keeps
+ * it until the run ends, so SQL RT contains no pool overhead and the UI keeps its own connections.
+ *
+ * @author banzhe
+ * @date 2026/10/18 18:40
+ **/
+public class StressConnectionPool implements AutoCloseable {
+
+    private static final long CHECKOUT_TIMEOUT_MILLIS = 3000;
+
+    private final DruidDataSource dataSource;
+    private final boolean pinned;
+    private final LongConsumer checkoutListener;
+
+    private final ThreadLocal<Connection> pinnedConnection = new ThreadLocal<>();
+    private final Queue<Connection> pinnedConnections = new ConcurrentLinkedQueue<>();
+
+    /**
+     * the shared pool lives longer than the run, only the wait after the run started counts
+     */
+    private final long baseWaitNanos;
+
+    private StressConnectionPool(DruidDataSource dataSource, boolean pinned, LongConsumer checkoutListener) {
+        this.dataSource = dataSource;
+        this.pinned = pinned;
+        this.checkoutListener = checkoutListener;
+        this.baseWaitNanos = dataSource.getNotEmptyWaitNanos();
+    }
+
+    /**
+     * @param profile datasource profile under stress
+     * @param checkoutListener receives the checkout latency in microseconds
+     */
+    public static StressConnectionPool shared(DatasourceComponent datasourceComponent, String profile, LongConsumer checkoutListener) throws Exception {
+        return new StressConnectionPool(datasourceComponent.getDataSource(profile), false, checkoutListener);
+    }
+
+    /**
+     * @param profile datasource profile under stress
+     * @param size the number of workers of the run
+     * @param checkoutListener receives the checkout latency in microseconds
+     */
+    public static StressConnectionPool pinned(DatasourceComponent datasourceComponent, String profile, int size, LongConsumer checkoutListener) throws Exception {
+        return new StressConnectionPool(datasourceComponent.createStressDatasource(profile, size), true, checkoutListener);
+    }
+
+    /**
+     * Check a connection out of the pool, the caller closes it.
+     */
+    public Connection checkout(ExecutionTiming timing) throws SQLException {
+        long start = System.nanoTime();
+
+        Connection connection = dataSource.getConnection(CHECKOUT_TIMEOUT_MILLIS);
+
+        long cost = System.nanoTime() - start;
+        timing.setAcquireNanos(cost);
+        checkoutListener.accept(TimeUnit.NANOSECONDS.toMicros(cost));
+
+        return connection;
+    }
+
+    /**
+     * @return the connection pinned to the calling worker in the pinned mode, a fresh checkout otherwise.
+     * Hand it back with {@link #release(Connection, boolean)}.
+     */
+    public Connection acquire(ExecutionTiming timing) throws SQLException {
+        if (!pinned) {
+            return checkout(timing);
+        }
+
+        Connection connection = pinnedConnection.get();
+        if (connection == null) {
+            connection = checkout(timing);
+            pinnedConnection.set(connection);
+            pinnedConnections.add(connection);
+        }
+
+        return connection;
+    }
+
+    /**
+     * @param broken the request failed with a connection error, see {@link ErrorClassifier#isConnectionError(Throwable, Connection)}.
+     *               A broken pinned connection is replaced on the next acquire, after other errors it is kept.
+     */
+    public void release(Connection connection, boolean broken) {
+        if (pinned && !broken) {
+            return;
+        }
+
+        if (pinned) {
+            pinnedConnection.remove();
+            pinnedConnections.remove(connection);
+        }
+
+        closeQuietly(connection);
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    public int getActiveCount() {
+        return dataSource.getActiveCount();
+    }
+
+    public int getIdleCount() {
+        return dataSource.getPoolingCount();
+    }
+
+    /**
+     * @return threads blocked waiting for a connection right now
+     */
+    public int getWaitThreadCount() {
+        return dataSource.getWaitThreadCount();
+    }
+
+    /**
+     * @return total time threads spent waiting for a connection since the run started
+     */
+    public long getWaitNanos() {
+        return Math.max(dataSource.getNotEmptyWaitNanos() - baseWaitNanos, 0);
+    }
+
+    /**
+     * Return the pinned connections and close the pool of the pinned mode. Call it after the workers stopped.
+     */
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = pinnedConnections.poll()) != null) {
+            closeQuietly(connection);
+        }
+
+        if (pinned) {
+            dataSource.close();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
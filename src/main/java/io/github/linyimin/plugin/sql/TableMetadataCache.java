@@ -0,0 +1,277 @@
+package io.github.linyimin.plugin.sql;
+
+import io.github.linyimin.plugin.sql.converter.ResultConverter;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
+import io.github.linyimin.plugin.sql.result.TableMetadata;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Columns, indexes and primary keys of the tables of a datasource profile, shared by the table, stress and scanner
+ * panes, the checkers and the mock data inserts. A table is read from the database the first time it is asked
+ * for and again once its metadata expired.
+ * <p>
+ * Tables are read in bulk: the tables missing from the cache are read with one query on the columns and one on
+ * the indexes of the dictionary ({@code information_schema} for MySQL, {@code ALL_TAB_COLUMNS} and
+ * {@code ALL_IND_COLUMNS} for Oracle), whatever their number. {@link #prefetch()} reads the whole schema the same
+ * way.
+ * <p>
+ * DDL issued through the plugin invalidates the metadata of its tables, DDL of other clients is picked up once the
+ * metadata expired.
+ *
+ * @author banzhe
+ * @date 2026/10/19 10:00
+ **/
+public class TableMetadataCache {
+
+    private static final long EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * replaced by the tables asked for, or nothing to read the whole schema
+     */
+    private static final String TABLES = "${tables}";
+
+    private static final String MYSQL_COLUMNS_SQL = "SELECT `table_name` AS 'Table', \n" +
+            "`column_name` AS Name, \n" +
+            "`column_type` AS Type, \n" +
+            "CASE WHEN `IS_NULLABLE` = 'NO' THEN 'FALSE' ELSE 'TRUE' END AS Nullable,\n" +
+            "`column_default` AS 'Default', \n" +
+            "`column_key` AS 'Key', \n" +
+            "`EXTRA` AS Extra,\n" +
+            "`column_comment` AS 'Comment' \n" +
+            "FROM `information_schema`.`COLUMNS` \n" +
+            "WHERE `table_schema` = DATABASE()" + TABLES + " \n" +
+            "ORDER BY `table_name`, `ordinal_position`";
+
+    /**
+     * columns named as those of SHOW INDEX
+     */
+    private static final String MYSQL_INDEXES_SQL = "SELECT `table_name` AS 'Table', \n" +
+            "`non_unique` AS Non_unique, \n" +
+            "`index_name` AS Key_name, \n" +
+            "`seq_in_index` AS Seq_in_index, \n" +
+            "`column_name` AS Column_name, \n" +
+            "`collation` AS Collation, \n" +
+            "`cardinality` AS Cardinality, \n" +
+            "`sub_part` AS Sub_part, \n" +
+            "`packed` AS Packed, \n" +
+            "`nullable` AS 'Null', \n" +
+            "`index_type` AS Index_type, \n" +
+            "`comment` AS 'Comment', \n" +
+            "`index_comment` AS Index_comment \n" +
+            "FROM `information_schema`.`STATISTICS` \n" +
+            "WHERE `table_schema` = DATABASE()" + TABLES + " \n" +
+            "ORDER BY `table_name`, `index_name`, `seq_in_index`";
+
+    private static final String ORACLE_COLUMNS_SQL = "SELECT c.TABLE_NAME AS \"Table\", \n" +
+            "c.COLUMN_NAME AS \"Name\", \n" +
+            "c.DATA_TYPE || CASE WHEN c.CHAR_LENGTH > 0 THEN '(' || c.CHAR_LENGTH || ')' \n" +
+            "  WHEN c.DATA_PRECISION IS NOT NULL THEN '(' || c.DATA_PRECISION || ',' || c.DATA_SCALE || ')' END AS \"Type\", \n" +
+            "CASE WHEN c.NULLABLE = 'N' THEN 'FALSE' ELSE 'TRUE' END AS \"Nullable\", \n" +
+            "c.DATA_DEFAULT AS \"Default\", \n" +
+            "CASE WHEN pk.COLUMN_NAME IS NOT NULL THEN 'PRI' END AS \"Key\", \n" +
+            "CASE WHEN c.IDENTITY_COLUMN = 'YES' THEN 'auto_increment' END AS \"Extra\", \n" +
+            "cc.COMMENTS AS \"Comment\" \n" +
+            "FROM ALL_TAB_COLUMNS c \n" +
+            "LEFT JOIN ALL_COL_COMMENTS cc ON cc.OWNER = c.OWNER AND cc.TABLE_NAME = c.TABLE_NAME AND cc.COLUMN_NAME = c.COLUMN_NAME \n" +
+            "LEFT JOIN (SELECT acc.OWNER, acc.TABLE_NAME, acc.COLUMN_NAME FROM ALL_CONSTRAINTS ac \n" +
+            "  JOIN ALL_CONS_COLUMNS acc ON acc.OWNER = ac.OWNER AND acc.CONSTRAINT_NAME = ac.CONSTRAINT_NAME \n" +
+            "  WHERE ac.CONSTRAINT_TYPE = 'P') pk ON pk.OWNER = c.OWNER AND pk.TABLE_NAME = c.TABLE_NAME AND pk.COLUMN_NAME = c.COLUMN_NAME \n" +
+            "WHERE c.OWNER = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')" + TABLES + " \n" +
+            "ORDER BY c.TABLE_NAME, c.COLUMN_ID";
+
+    private static final String ORACLE_INDEXES_SQL = "SELECT ic.TABLE_NAME AS \"Table\", \n" +
+            "CASE WHEN i.UNIQUENESS = 'UNIQUE' THEN 0 ELSE 1 END AS \"Non_unique\", \n" +
+            "ic.INDEX_NAME AS \"Key_name\", \n" +
+            "ic.COLUMN_POSITION AS \"Seq_in_index\", \n" +
+            "ic.COLUMN_NAME AS \"Column_name\", \n" +
+            "ic.DESCEND AS \"Collation\", \n" +
+            "i.DISTINCT_KEYS AS \"Cardinality\", \n" +
+            "CASE WHEN c.NULLABLE = 'Y' THEN 'YES' END AS \"Null\", \n" +
+            "i.INDEX_TYPE AS \"Index_type\" \n" +
+            "FROM ALL_IND_COLUMNS ic \n" +
+            "JOIN ALL_INDEXES i ON i.OWNER = ic.INDEX_OWNER AND i.INDEX_NAME = ic.INDEX_NAME \n" +
+            "LEFT JOIN ALL_TAB_COLUMNS c ON c.OWNER = ic.TABLE_OWNER AND c.TABLE_NAME = ic.TABLE_NAME AND c.COLUMN_NAME = ic.COLUMN_NAME \n" +
+            "WHERE ic.TABLE_OWNER = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')" + TABLES + " \n" +
+            "ORDER BY ic.TABLE_NAME, ic.INDEX_NAME, ic.COLUMN_POSITION";
+
+    private final DatasourceComponent datasourceComponent;
+    private final String profile;
+
+    private final Map<String, TableMetadata> tables = new ConcurrentHashMap<>();
+
+    /**
+     * table -> number of invalidations, metadata read while the table was invalidated is not stored
+     */
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * @param profile datasource profile whose tables are described
+     */
+    public TableMetadataCache(DatasourceComponent datasourceComponent, String profile) {
+        this.datasourceComponent = datasourceComponent;
+        this.profile = profile;
+    }
+
+    public TableMetadata get(String table) throws Exception {
+        return get(Collections.singletonList(table)).get(0);
+    }
+
+    /**
+     * @return metadata of the tables in the order asked for, the missing ones are read with one round trip for
+     * their columns and one for their indexes
+     */
+    public List<TableMetadata> get(List<String> tables) throws Exception {
+
+        List<String> missing = tables.stream().filter(table -> getCached(table) == null).distinct().collect(Collectors.toList());
+
+        Map<String, TableMetadata> loaded = Collections.emptyMap();
+        if (!missing.isEmpty()) {
+            try (Connection connection = datasourceComponent.getConnection(profile)) {
+                loaded = load(connection, missing);
+            }
+        }
+
+        List<TableMetadata> metadata = new ArrayList<>();
+        for (String table : tables) {
+            TableMetadata cached = getCached(table);
+            metadata.add(cached != null ? cached : loaded.get(key(table)));
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Read the metadata of every table of the schema, e.g. before scanning all statements of the project.
+     */
+    public void prefetch() throws Exception {
+        try (Connection connection = datasourceComponent.getConnection(profile)) {
+            load(connection, null);
+        }
+    }
+
+    /**
+     * @return the first column of the primary key of the table, null if it has none
+     */
+    public String getPrimaryKey(String table) throws Exception {
+        return get(table).getPrimaryKey();
+    }
+
+    /**
+     * Forget the metadata of tables just altered.
+     */
+    public void invalidate(List<String> tables) {
+        for (String table : tables) {
+            String key = key(table);
+            generations.merge(key, 1L, Long::sum);
+            this.tables.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (String key : tables.keySet()) {
+            generations.merge(key, 1L, Long::sum);
+        }
+        tables.clear();
+    }
+
+    private TableMetadata getCached(String table) {
+        TableMetadata cached = this.tables.get(key(table));
+        if (cached != null && System.currentTimeMillis() - cached.getLoadedMillis() < EXPIRE_MILLIS) {
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * @param tables null for all tables of the schema
+     * @return key of the table -> metadata, also for tables asked for which do not exist
+     */
+    private Map<String, TableMetadata> load(Connection connection, List<String> tables) throws SQLException {
+
+        Map<String, Long> before = new HashMap<>(generations);
+
+        boolean isOracle = StringUtils.equals(datasourceComponent.getDatabaseType(profile), "oracle");
+
+        DefaultTableModel columns = isOracle ? query(connection, ORACLE_COLUMNS_SQL, "c.TABLE_NAME", tables, true)
+                : query(connection, MYSQL_COLUMNS_SQL, "`table_name`", tables, false);
+        DefaultTableModel indexes = isOracle ? query(connection, ORACLE_INDEXES_SQL, "ic.TABLE_NAME", tables, true)
+                : query(connection, MYSQL_INDEXES_SQL, "`table_name`", tables, false);
+
+        // the columns of a table are shown without the table, its indexes keep it as SHOW INDEX does
+        Map<String, DefaultTableModel> columnsByTable = TableMetadata.groupByTable(columns, false);
+        Map<String, DefaultTableModel> indexesByTable = TableMetadata.groupByTable(indexes, true);
+
+        Map<String, TableMetadata> loaded = new HashMap<>();
+
+        for (Map.Entry<String, DefaultTableModel> entry : columnsByTable.entrySet()) {
+
+            String table = entry.getKey();
+            String key = key(table);
+            DefaultTableModel tableIndexes = indexesByTable.getOrDefault(table, TableMetadata.emptyLike(indexes, true));
+            TableMetadata metadata = new TableMetadata(table, entry.getValue(), tableIndexes);
+
+            this.tables.put(key, metadata);
+            // checked after storing, so an invalidation concurrently either removes it or is seen here
+            if (!Objects.equals(generations.get(key), before.get(key))) {
+                this.tables.remove(key, metadata);
+            }
+
+            loaded.put(key, metadata);
+        }
+
+        // a table which does not exist is not cached, it may be created any time
+        if (tables != null) {
+            for (String table : tables) {
+                loaded.computeIfAbsent(key(table), key -> new TableMetadata(table, TableMetadata.emptyLike(columns, false), TableMetadata.emptyLike(indexes, true)));
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * @param tableColumn column of the dictionary the tables are compared with
+     */
+    private static DefaultTableModel query(Connection connection, String sql, String tableColumn, List<String> tables, boolean isOracle) throws SQLException {
+
+        String condition = "";
+        if (tables != null) {
+            condition = String.format(" AND %s IN (%s)", tableColumn, tables.stream().map(table -> "?").collect(Collectors.joining(", ")));
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.replace(TABLES, condition))) {
+            if (tables != null) {
+                for (int i = 0; i < tables.size(); i++) {
+                    statement.setString(i + 1, identifier(tables.get(i), isOracle));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return ResultConverter.convert2TableModel(rs, new ExecutionTiming(), Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * @return the name of the table as stored in the dictionary, unquoted oracle identifiers are upper case
+     */
+    private static String identifier(String table, boolean isOracle) {
+        if (isOracle) {
+            return table.startsWith("\"") ? StringUtils.strip(table, "\"") : table.toUpperCase();
+        }
+        return StringUtils.strip(table, "`");
+    }
+
+    private static String key(String table) {
+        return StringUtils.strip(table, "`\"").toLowerCase();
+    }
+}
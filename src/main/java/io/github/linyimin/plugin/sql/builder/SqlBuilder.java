@@ -31,20 +31,16 @@ public class SqlBuilder {
     }
 
 
-    public static String buildInsertSqlBatch(Project project, String table, List<TableField> fields, int rows) throws Exception {
+    /**
+     * @return INSERT of one row with a placeholder per field, to be bound with {@link #mockData(Project, List)}
+     */
+    public static String buildInsertPreparedSql(String table, List<TableField> fields) {
 
         String columns = fields.stream().map(TableField::getName).collect(Collectors.joining(", "));
 
-        List<List<Object>> subMockData = new ArrayList<>();
-        for (int i = 0; i < rows; i++) {
-            subMockData.add(mockData(project, fields));
-        }
-        List<String> values = new ArrayList<>();
-        for (List<Object> rowValues : subMockData) {
-            values.add(encapsulateValue(rowValues));
-        }
+        String placeholders = fields.stream().map(field -> "?").collect(Collectors.joining(", ", "(", ")"));
 
-        return String.format(INSERT_TEMPLATE, table, columns, String.join(", ", values));
+        return String.format(INSERT_TEMPLATE, table, columns, placeholders);
     }
 
     private static List<String> encapsulateValueSingle(String table, List<List<Object>> mockData, List<TableField> fields, int rows) {
@@ -6,12 +6,13 @@ import io.github.linyimin.plugin.sql.checker.Report;
 import io.github.linyimin.plugin.sql.checker.enums.CheckScopeEnum;
 import io.github.linyimin.plugin.sql.checker.enums.LevelEnum;
 import io.github.linyimin.plugin.sql.result.BaseResult;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
 import io.github.linyimin.plugin.sql.result.InsertResult;
+import io.github.linyimin.plugin.sql.result.RowCount;
 import io.github.linyimin.plugin.sql.result.SelectResult;
 import io.github.linyimin.plugin.sql.result.UpdateResult;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import javax.swing.table.DefaultTableModel;
 import java.sql.ResultSet;
@@ -30,11 +31,22 @@ import java.util.stream.Collectors;
 public class ResultConverter {
 
     public static DefaultTableModel convert2TableModel(ResultSet rs) throws SQLException {
+        return convert2TableModel(rs, new ExecutionTiming());
+    }
 
-        ResultSetMetaData metaData = rs.getMetaData();
-
+    public static DefaultTableModel convert2TableModel(ResultSet rs, ExecutionTiming timing) throws SQLException {
         SqlViewerSettingsState state = SqlViewerSettingsState.getInstance();
-        int maxRowsReturned = state.maxRowsReturnedField;
+        return convert2TableModel(rs, timing, state.maxRowsReturnedField);
+    }
+
+    /**
+     * @param maxRowsReturned rows read at most, the rest of the result set is not read
+     */
+    public static DefaultTableModel convert2TableModel(ResultSet rs, ExecutionTiming timing, int maxRowsReturned) throws SQLException {
+
+        long start = System.nanoTime();
+
+        ResultSetMetaData metaData = rs.getMetaData();
 
         // names of columns
         Vector<String> columnNames = new Vector<>();
@@ -47,6 +59,9 @@ public class ResultConverter {
         Vector<Vector<Object>> data = new Vector<>();
         int count = 0;
         while (rs.next()) {
+            if (count == 0) {
+                timing.setFirstRowNanos(System.nanoTime() - start);
+            }
             Vector<Object> vector = new Vector<>();
             for (int columnIndex = 1; columnIndex <= columnCount; columnIndex++) {
                 vector.add(rs.getObject(columnIndex));
@@ -59,6 +74,8 @@ public class ResultConverter {
 
         rs.close();
 
+        timing.setFetchNanos(System.nanoTime() - start);
+
         return new DefaultTableModel(data, columnNames);
     }
 
@@ -69,19 +86,36 @@ public class ResultConverter {
             sb.append("[statement]: ").append(result.getSql()).append("\n");
         }
 
-        sb.append("[cost]: ").append(result.getCost()).append("(ms)").append("\n");
+        ExecutionTiming timing = result.getTiming();
+        sb.append("[cost]: ").append(ExecutionTiming.formatMillis(timing.getStatementNanos())).append("(ms)").append("\n");
+        sb.append("  [connection acquire]: ").append(ExecutionTiming.formatMillis(timing.getAcquireNanos())).append("(ms)").append("\n");
+        sb.append("  [execute]: ").append(ExecutionTiming.formatMillis(timing.getExecuteNanos())).append("(ms)").append("\n");
+        if (result instanceof SelectResult) {
+            sb.append("  [first row]: ").append(ExecutionTiming.formatMillis(timing.getFirstRowNanos())).append("(ms)").append("\n");
+            sb.append("  [fetch]: ").append(ExecutionTiming.formatMillis(timing.getFetchNanos())).append("(ms)").append("\n");
+        }
+        if (timing.hasServerNanos()) {
+            sb.append("  [server]: ").append(ExecutionTiming.formatMillis(timing.getServerNanos())).append("(ms)").append("\n");
+        }
         if (result instanceof UpdateResult) {
             sb.append("[Rows Affected]: ").append(((UpdateResult) result).getAffectedCount()).append("\n");
         } else {
-            sb.append("[Return Rows]: ").append(((SelectResult)result).getModel().getRowCount()).append("\n");
+            SelectResult selectResult = (SelectResult) result;
+            sb.append("[Return Rows]: ").append(selectResult.getTableModel().getRowCount());
+            if (selectResult.isTruncated() && selectResult.getPagedModel() != null) {
+                sb.append(" (more rows are fetched in the background)");
+            } else if (selectResult.isTruncated()) {
+                sb.append(" (truncated by Max Rows Returned)");
+            }
+            sb.append("\n");
         }
 
         if (result.getTotalRows().size() == 1) {
-            sb.append("[Total Rows]: ").append(result.getTotalRows().get(0).getValue()).append("\n");
+            sb.append("[Total Rows]: ").append(result.getTotalRows().get(0)).append("\n");
         } else {
-            for (Pair<String, Long> pair : result.getTotalRows()) {
-                String table = pair.getKey().replaceAll("`", "");
-                sb.append("[Total Rows(").append(table).append(")]: ").append(pair.getValue()).append("\n");
+            for (RowCount rowCount : result.getTotalRows()) {
+                String table = rowCount.getTable().replaceAll("`", "");
+                sb.append("[Total Rows(").append(table).append(")]: ").append(rowCount).append("\n");
             }
         }
 
@@ -91,9 +125,9 @@ public class ResultConverter {
     public static String convert2InsertInfo(InsertResult result) {
 
         return "------[Insertion Succeeded]------\n"
-                + "[Cost]: " + result.getCost() + "(ms)\n"
+                + "[Cost]: " + ExecutionTiming.formatMillis(result.getTiming().getStatementNanos()) + "(ms)\n"
                 + "[Rows Affected]: " + result.getAffectedCount() + "\n"
-                + "[Total Rows]: " + result.getTotalRows().get(0).getValue() + "\n";
+                + "[Total Rows]: " + result.getTotalRows().get(0) + "\n";
     }
 
     public static String convert2RuleInfo(CheckScopeEnum scope, List<Report> reports) {
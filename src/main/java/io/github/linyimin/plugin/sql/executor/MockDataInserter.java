@@ -0,0 +1,131 @@
+package io.github.linyimin.plugin.sql.executor;
+
+import com.intellij.openapi.project.Project;
+import io.github.linyimin.plugin.mock.schema.TableField;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
+import io.github.linyimin.plugin.sql.builder.SqlBuilder;
+import io.github.linyimin.plugin.sql.result.InsertResult;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.*;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts mock rows with one prepared INSERT: each row is generated, bound with the type the generator produced
+ * and added to a JDBC batch, so no SQL text is built and at most one batch of rows is held in memory. The MySQL
+ * pool rewrites a batch into multi-row inserts (rewriteBatchedStatements), the Oracle driver sends it as one
+ * array-bound execution.
+ * <p>
+ * Rows are committed every commit interval, so a failure keeps the rows of the intervals committed before.
+ *
+ * @author banzhe
+ * @date 2026/10/19 11:00
+ **/
+public class MockDataInserter {
+
+    private final Project project;
+    private final String profile;
+    private final String table;
+    private final List<TableField> fields;
+
+    private final int batchSize;
+    private final int commitRows;
+
+    /**
+     * @param batchSize rows sent per executeBatch
+     * @param commitRows rows per transaction
+     */
+    public MockDataInserter(Project project, String profile, String table, List<TableField> fields, int batchSize, int commitRows) {
+        this.project = project;
+        this.profile = profile;
+        this.table = table;
+        this.fields = fields;
+        this.batchSize = Math.max(batchSize, 1);
+        this.commitRows = Math.max(commitRows, 1);
+    }
+
+    /**
+     * @return affected rows, cost and the max primary key after the insert as last insert id
+     */
+    public InsertResult insert(int rows) throws Exception {
+
+        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+        String primaryKey = StringUtils.defaultIfBlank(datasourceComponent.getMetadata(profile).getPrimaryKey(table), "ID");
+
+        InsertResult result = new InsertResult();
+        long start = System.currentTimeMillis();
+
+        try (Connection connection = datasourceComponent.getConnection(profile)) {
+
+            connection.setAutoCommit(false);
+
+            int affectedCount = 0;
+
+            try (PreparedStatement statement = connection.prepareStatement(SqlBuilder.buildInsertPreparedSql(table, fields))) {
+
+                int pending = 0;
+
+                for (int row = 1; row <= rows; row++) {
+
+                    bind(statement, SqlBuilder.mockData(project, fields));
+                    statement.addBatch();
+                    pending++;
+
+                    boolean commit = row % commitRows == 0 || row == rows;
+                    if (pending == batchSize || commit) {
+                        affectedCount += affected(statement.executeBatch());
+                        pending = 0;
+                    }
+                    if (commit) {
+                        connection.commit();
+                    }
+                }
+
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+                datasourceComponent.getRowCounts(profile).invalidate(Collections.singletonList(table));
+            }
+
+            result.setLastInsertId(acquireMaxId(connection, primaryKey));
+            result.setAffectedCount(affectedCount);
+            result.setCost(System.currentTimeMillis() - start);
+            result.setTotalRows(datasourceComponent.getRowCounts(profile).acquire(connection, Collections.singletonList(table)));
+        }
+
+        return result;
+    }
+
+    private void bind(PreparedStatement statement, List<Object> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                statement.setNull(i + 1, Types.VARCHAR);
+            } else {
+                statement.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * @return rows affected by a batch, a rewritten batch may only report that it succeeded
+     */
+    private static int affected(int[] counts) {
+        int affected = 0;
+        for (int count : counts) {
+            affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return affected;
+    }
+
+    private long acquireMaxId(Connection connection, String primaryKey) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(String.format("SELECT MAX(%s) FROM %s", primaryKey, table))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
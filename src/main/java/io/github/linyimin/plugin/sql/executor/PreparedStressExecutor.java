@@ -0,0 +1,167 @@
+package io.github.linyimin.plugin.sql.executor;
+
+import io.github.linyimin.plugin.sql.StressConnectionPool;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
+import io.github.linyimin.plugin.stress.ErrorClassifier;
+import io.github.linyimin.plugin.stress.PreparedTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Executes a {@link PreparedTemplate} for a stress run. Each worker thread prepares the statement once on a
+ * connection it keeps until {@link #close()}, later requests only bind fresh parameters, so neither the client
+ * re-renders sql text nor the server hard parses it per request.
+ *
+ * @author banzhe
+ * @date 2026/10/18 18:05
+ **/
+public class PreparedStressExecutor implements AutoCloseable {
+
+    private final StressConnectionPool connectionPool;
+    private final PreparedTemplate template;
+    private final ParameterSource parameterSource;
+
+    private final ThreadLocal<WorkerStatement> workerStatement = new ThreadLocal<>();
+    private final Queue<WorkerStatement> workerStatements = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed = false;
+
+    public PreparedStressExecutor(StressConnectionPool connectionPool, PreparedTemplate template, ParameterSource parameterSource) {
+        this.connectionPool = connectionPool;
+        this.template = template;
+        this.parameterSource = parameterSource;
+    }
+
+    /**
+     * Bind parameters, execute and drain the result set on the statement of the calling thread.
+     */
+    public ExecutionTiming execute() throws Exception {
+
+        ExecutionTiming timing = new ExecutionTiming();
+
+        WorkerStatement worker = acquireWorkerStatement(timing);
+        PreparedStatement statement = worker.statement;
+
+        Object[] parameters = parameterSource.values();
+
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+
+            long start = System.nanoTime();
+            boolean isResultSet = statement.execute();
+            timing.setExecuteNanos(System.nanoTime() - start);
+
+            if (isResultSet) {
+                drain(statement, timing);
+            }
+        } catch (SQLException e) {
+            // statement errors like lock waits keep the prepared statement, a broken connection is prepared again
+            // on a fresh one next time
+            if (ErrorClassifier.isConnectionError(e, worker.connection)) {
+                discard(worker);
+            }
+            throw e;
+        }
+
+        return timing;
+    }
+
+    private void drain(PreparedStatement statement, ExecutionTiming timing) throws SQLException {
+
+        long start = System.nanoTime();
+
+        try (ResultSet rs = statement.getResultSet()) {
+            boolean hasNext = rs.next();
+            timing.setFirstRowNanos(System.nanoTime() - start);
+            while (hasNext) {
+                hasNext = rs.next();
+            }
+        }
+
+        timing.setFetchNanos(System.nanoTime() - start);
+    }
+
+    private WorkerStatement acquireWorkerStatement(ExecutionTiming timing) throws Exception {
+
+        if (closed) {
+            throw new IllegalStateException("prepared stress executor has been closed.");
+        }
+
+        WorkerStatement worker = workerStatement.get();
+        if (worker != null) {
+            return worker;
+        }
+
+        Connection connection = connectionPool.checkout(timing);
+
+        try {
+            worker = new WorkerStatement(connection, connection.prepareStatement(template.getSql()));
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        workerStatement.set(worker);
+        workerStatements.add(worker);
+
+        return worker;
+    }
+
+    private void discard(WorkerStatement worker) {
+        workerStatement.remove();
+        workerStatements.remove(worker);
+        worker.close();
+    }
+
+    /**
+     * Close the statements and return the connections of all workers, call it after the workers stopped.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+
+        WorkerStatement worker;
+        while ((worker = workerStatements.poll()) != null) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Supplies the parameters of a request, called once per request.
+     */
+    public interface ParameterSource {
+        /**
+         * @return a value per positional parameter, in the order of {@link PreparedTemplate#getParameterKeys()}
+         */
+        Object[] values() throws Exception;
+    }
+
+    private static class WorkerStatement {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+
+        private WorkerStatement(Connection connection, PreparedStatement statement) {
+            this.connection = connection;
+            this.statement = statement;
+        }
+
+        private void close() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+            }
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
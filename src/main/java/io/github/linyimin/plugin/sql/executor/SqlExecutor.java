@@ -2,25 +2,24 @@ package io.github.linyimin.plugin.sql.executor;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.util.containers.ContainerUtil;
-import io.github.linyimin.plugin.constant.Constant;
+import io.github.linyimin.plugin.settings.SqlViewerSettingsState;
 import io.github.linyimin.plugin.sql.DatasourceComponent;
 import io.github.linyimin.plugin.sql.converter.ResultConverter;
 import io.github.linyimin.plugin.sql.parser.SqlParser;
 import io.github.linyimin.plugin.sql.parser.SqlType;
 import io.github.linyimin.plugin.sql.result.BaseResult;
-import io.github.linyimin.plugin.sql.result.InsertResult;
+import io.github.linyimin.plugin.sql.result.ColumnarTableModel;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
+import io.github.linyimin.plugin.sql.result.ResultCursor;
 import io.github.linyimin.plugin.sql.result.SelectResult;
 import io.github.linyimin.plugin.sql.result.UpdateResult;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import javax.swing.table.DefaultTableModel;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author yiminlin
@@ -28,217 +27,346 @@ import java.util.Map;
  **/
 public class SqlExecutor {
 
+    /**
+     * Connector/J resets the max rows of a streamed select with SET SQL_SELECT_LIMIT before the next statement.
+     */
+    private static final String MYSQL_LAST_STATEMENT_TIMING_SQL = "SELECT TIMER_WAIT FROM performance_schema.events_statements_history " +
+            "WHERE THREAD_ID = (SELECT THREAD_ID FROM performance_schema.threads WHERE PROCESSLIST_ID = CONNECTION_ID()) " +
+            "AND SQL_TEXT NOT LIKE 'SET SQL_SELECT_LIMIT%' ORDER BY EVENT_ID DESC LIMIT 1";
+
+    /**
+     * v$sql only keeps cumulative statistics, so this is the average elapsed time of the cursor.
+     */
+    private static final String ORACLE_LAST_STATEMENT_TIMING_SQL = "SELECT s.ELAPSED_TIME / GREATEST(s.EXECUTIONS, 1) " +
+            "FROM V$SQL s, V$SESSION se WHERE se.SID = SYS_CONTEXT('USERENV', 'SID') " +
+            "AND s.SQL_ID = se.PREV_SQL_ID AND s.CHILD_NUMBER = se.PREV_CHILD_NUMBER";
+
     private static final Map<SqlType, Executor> SQL_EXECUTOR_MAP = new ContainerUtil.ImmutableMapBuilder<SqlType, Executor>()
             .put(SqlType.select, new SelectExecutor())
             .put(SqlType.update, new UpdateExecutor())
             .build();
 
+    /**
+     * rows per round trip of a driver which can not stream row by row
+     */
+    private static final int FETCH_SIZE = 500;
+
     public static String testConnected(Project project) {
+        return testConnected(project, project.getService(DatasourceComponent.class).getCurrentProfile());
+    }
+
+    /**
+     * Probe the datasource now, callers which can live with the state of the last scheduled probe use
+     * {@link DatasourceComponent#isConnected(String)} instead.
+     */
+    public static String testConnected(Project project, String profile) {
 
         DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
 
-        try (Connection ignored = datasourceComponent.getConnection()) {
-            return Constant.DATASOURCE_CONNECTED;
-        } catch (Exception e) {
-            StringWriter sw = new StringWriter();
-            e.printStackTrace(new PrintWriter(sw));
-            return String.format("Server can't Connect!\n%s", sw);
-        }
+        return datasourceComponent.getHealthMonitor().probe(profile).getMessage();
     }
 
     public static String acquirePrimaryKey(Project project, String table) throws Exception {
 
         DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
 
-        String sql = String.format("DESC %s;", table);
+        return StringUtils.defaultIfBlank(datasourceComponent.getMetadata().getPrimaryKey(table), "ID");
+    }
 
-        try (Connection connection = datasourceComponent.getConnection(); Statement statement = connection.createStatement()) {
-            statement.execute(sql);
-            ResultSet rs = statement.getResultSet();
+    public static BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception {
+        return executeSql(project, sql, needTotalRows, false);
+    }
 
-            while (rs.next()) {
-                if (StringUtils.equals(rs.getString("Key"), "PRI")) {
-                    return rs.getString("Field");
-                }
-            }
-        }
+    /**
+     * @param needServerTiming also ask the database session how long the statement took, costs an extra round trip
+     */
+    public static BaseResult executeSql(Project project, String sql, boolean needTotalRows, boolean needServerTiming) throws Exception {
+        String profile = project.getService(DatasourceComponent.class).getCurrentProfile();
+        return executeSql(project, profile, sql, needTotalRows, needServerTiming);
+    }
 
-        return "ID";
+    /**
+     * @param profile datasource profile to execute on, see {@link DatasourceComponent#getProfile}
+     */
+    public static BaseResult executeSql(Project project, String profile, String sql, boolean needTotalRows) throws Exception {
+        return executeSql(project, profile, sql, needTotalRows, false);
     }
 
-    public static BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception {
+    public static BaseResult executeSql(Project project, String profile, String sql, boolean needTotalRows, boolean needServerTiming) throws Exception {
 
         SqlType sqlType = SqlParser.getExecuteSqlType(sql);
 
-        return SQL_EXECUTOR_MAP.get(sqlType).executeSql(project, sql, needTotalRows);
+        return SQL_EXECUTOR_MAP.get(sqlType).executeSql(project, profile, sql, needTotalRows, needServerTiming);
+
+    }
+
+    /**
+     * Execute a statement for display with server timing and total rows. A select returns once the first Max Rows
+     * Returned rows are fetched, the rest are read in the background and appended to the result table, see
+     * {@link ColumnarTableModel}.
+     */
+    public static BaseResult executeSqlForDisplay(Project project, String sql) throws Exception {
 
+        if (SqlParser.getExecuteSqlType(sql) == SqlType.select) {
+            String profile = project.getService(DatasourceComponent.class).getCurrentProfile();
+            return new SelectExecutor().executePaged(project, profile, sql);
+        }
+
+        return executeSql(project, sql, true, true);
     }
 
-    public static InsertResult saveMockData(Project project, String sql, boolean needTotalRows) throws Exception {
-        return (InsertResult) new InsertExecutor().executeSql(project, sql, needTotalRows);
+    /**
+     * Execute on a connection owned by the caller, which also closes it. Select results are fully fetched.
+     */
+    public static BaseResult executeSql(Connection connection, String sql, ExecutionTiming timing) throws Exception {
+
+        SqlType sqlType = SqlParser.getExecuteSqlType(sql);
+
+        return SQL_EXECUTOR_MAP.get(sqlType).executeSql(connection, sql, timing);
     }
 
-    private static class InsertExecutor implements Executor {
+    private static class SelectExecutor implements Executor {
 
         @Override
-        public BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception {
+        public BaseResult executeSql(Project project, String profile, String sql, boolean needTotalRows, boolean needServerTiming) throws Exception {
+
             DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
-            InsertResult result = new InsertResult();
-            Connection connection = null;
+            ExecutionTiming timing = new ExecutionTiming();
 
-            try {
+            try (Connection connection = acquireConnection(datasourceComponent, profile, timing)) {
 
-                connection = datasourceComponent.getConnection();
-                connection.setAutoCommit(false);
+                SelectResult result = executeStreaming(connection, datasourceComponent.getDatabaseType(profile), sql, timing);
 
-                try (Statement statement = connection.createStatement()) {
-                    long cost = executeAndReturnCost(statement, sql);
-                    result.setCost(cost);
-                    result.setAffectedCount(statement.getUpdateCount());
+                if (needServerTiming) {
+                    timing.setServerNanos(acquireServerNanos(connection, datasourceComponent.getDatabaseType(profile)));
                 }
 
-                List<String> tables = SqlParser.getTableNames(sql);
-
                 if (needTotalRows) {
-                    try (Statement stmt = connection.createStatement()) {
-                        result.setTotalRows(acquireTotalRows(stmt, tables));
-                    }
-                }
-
-                try (Statement statement = connection.createStatement()) {
-                    result.setLastInsertId(acquireLastInsertId(statement, tables.get(0)));
+                    result.setTotalRows(datasourceComponent.getRowCounts(profile).acquire(connection, SqlParser.getTableNames(sql)));
                 }
 
-                connection.commit();
-
                 return result;
 
-            } catch (Exception e) {
-                if (connection != null) {
-                    connection.rollback();
-                }
-                throw e;
-            } finally {
-                if (connection != null) {
-                    connection.close();
-                }
             }
         }
-    }
-
-    private static class SelectExecutor implements Executor {
 
         @Override
-        public BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception {
+        public SelectResult executeSql(Connection connection, String sql, ExecutionTiming timing) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                long cost = executeAndReturnCost(stmt, sql, timing);
+
+                DefaultTableModel model = ResultConverter.convert2TableModel(stmt.getResultSet(), timing);
+
+                SelectResult result = new SelectResult(sql, cost, model);
+                result.setTiming(timing);
+
+                return result;
+            }
+        }
+
+        /**
+         * Fetch the first page of Max Rows Returned rows and leave the cursor to the model, which reads the rest in
+         * the background. While it is read the session is busy streaming and the server has not finished the
+         * statement, so the total rows are counted on another connection and there is no server timing.
+         */
+        private SelectResult executePaged(Project project, String profile, String sql) throws Exception {
 
             DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+            String databaseType = datasourceComponent.getDatabaseType(profile);
+            ExecutionTiming timing = new ExecutionTiming();
+
+            int pageSize = Math.min(SqlViewerSettingsState.getInstance().maxRowsReturnedField, ColumnarTableModel.MAX_ROWS);
 
-            try (Connection connection = datasourceComponent.getConnection()) {
+            Connection connection = acquireConnection(datasourceComponent, profile, timing);
+            ResultCursor cursor = null;
 
-                SelectResult result;
+            try {
 
-                try (Statement stmt = connection.createStatement()) {
-                    long cost = executeAndReturnCost(stmt, sql);
+                Statement stmt = createStreamingStatement(connection, databaseType, ColumnarTableModel.MAX_ROWS);
+                cursor = new ResultCursor(connection, stmt);
 
-                    DefaultTableModel model = ResultConverter.convert2TableModel(stmt.getResultSet());
+                long cost = executeAndReturnCost(stmt, sql, timing);
 
-                    result = new SelectResult(sql, cost, model);
-                }
+                ColumnarTableModel model = new ColumnarTableModel(cursor, pageSize, timing);
 
-                if (!needTotalRows) {
+                SelectResult result = new SelectResult(sql, cost, null);
+                result.setPagedModel(model);
+                result.setTiming(timing);
+
+                List<String> tables = SqlParser.getTableNames(sql);
+
+                if (model.isComplete()) {
+                    cursor.closeStatement();
+                    timing.setServerNanos(acquireServerNanos(connection, databaseType));
+                    result.setTotalRows(datasourceComponent.getRowCounts(profile).acquire(connection, tables));
+                    cursor.close();
                     return result;
                 }
 
-                try (Statement stmt = connection.createStatement()) {
-                    result.setTotalRows(acquireTotalRows(stmt, SqlParser.getTableNames(sql)));
+                result.setTruncated(true);
+
+                try (Connection other = datasourceComponent.getConnection(profile)) {
+                    result.setTotalRows(datasourceComponent.getRowCounts(profile).acquire(other, tables));
                 }
 
                 return result;
 
+            } catch (Exception e) {
+                if (cursor != null) {
+                    cursor.close();
+                } else {
+                    connection.close();
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Fetch no more than Max Rows Returned, a select on a huge table must not buffer the whole
+         * result in the IDE.
+         */
+        private SelectResult executeStreaming(Connection connection, String databaseType, String sql, ExecutionTiming timing) throws SQLException {
+
+            int maxRows = SqlViewerSettingsState.getInstance().maxRowsReturnedField;
+            // the row beyond the limit only tells whether the result was truncated
+            int limit = maxRows == Integer.MAX_VALUE ? maxRows : maxRows + 1;
+
+            try (Statement stmt = createStreamingStatement(connection, databaseType, limit)) {
+                long cost = executeAndReturnCost(stmt, sql, timing);
+
+                DefaultTableModel model = ResultConverter.convert2TableModel(stmt.getResultSet(), timing, limit);
+                boolean truncated = model.getRowCount() > maxRows;
+                if (truncated) {
+                    model.removeRow(maxRows);
+                }
+
+                SelectResult result = new SelectResult(sql, cost, model);
+                result.setTruncated(truncated);
+                result.setTiming(timing);
+
+                return result;
             }
         }
+
+        /**
+         * A forward only statement whose rows are streamed instead of buffered by the driver as a whole, so that a
+         * select on a huge table holds no more than the displayed rows in memory. The database stops producing
+         * rows at the limit: MySQL applies max rows as SQL_SELECT_LIMIT on the server, Oracle stops
+         * fetching. Closing an unfinished statement therefore discards a bounded number of rows and it is never
+         * cancelled, which would cost Connector/J a second connection for KILL QUERY.
+         */
+        private Statement createStreamingStatement(Connection connection, String databaseType, int limit) throws SQLException {
+
+            Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setMaxRows(limit);
+
+            if (StringUtils.equals(databaseType, "oracle")) {
+                statement.setFetchSize(Math.max(Math.min(limit, FETCH_SIZE), 1));
+            } else {
+                // Connector/J only streams with this fetch size, otherwise it reads the whole result on execute
+                statement.setFetchSize(Integer.MIN_VALUE);
+            }
+
+            return statement;
+        }
     }
 
     private static class UpdateExecutor implements Executor {
 
         @Override
-        public BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception {
+        public BaseResult executeSql(Project project, String profile, String sql, boolean needTotalRows, boolean needServerTiming) throws Exception {
 
             DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+            ExecutionTiming timing = new ExecutionTiming();
+
+            try (Connection connection = acquireConnection(datasourceComponent, profile, timing)) {
+
+                UpdateResult result = executeSql(connection, sql, timing);
 
-            try (Connection connection = datasourceComponent.getConnection(); ) {
+                if (needServerTiming) {
+                    timing.setServerNanos(acquireServerNanos(connection, datasourceComponent.getDatabaseType(profile)));
+                }
 
-                UpdateResult result;
+                List<String> tables = SqlParser.getTableNames(sql);
+                datasourceComponent.getRowCounts(profile).invalidate(tables);
 
-                try (Statement stmt = connection.createStatement()) {
-                    long cost = executeAndReturnCost(stmt, sql);
-                    result = new UpdateResult(sql, cost, stmt.getUpdateCount());
+                if (SqlParser.isDdl(sql)) {
+                    datasourceComponent.getMetadata(profile).invalidate(tables);
                 }
 
                 if (!needTotalRows) {
                     return result;
                 }
 
-                try (Statement stmt = connection.createStatement()) {
-                    result.setTotalRows(acquireTotalRows(stmt, SqlParser.getTableNames(sql)));
-                }
+                result.setTotalRows(datasourceComponent.getRowCounts(profile).acquire(connection, tables));
 
                 return result;
             }
         }
-    }
-
-    private interface Executor {
-        BaseResult executeSql(Project project, String sql, boolean needTotalRows) throws Exception;
 
-        default long executeAndReturnCost(Statement statement, String sql) throws SQLException {
-            long start = System.currentTimeMillis();
+        @Override
+        public UpdateResult executeSql(Connection connection, String sql, ExecutionTiming timing) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                long cost = executeAndReturnCost(stmt, sql, timing);
 
-            statement.execute(sql);
+                UpdateResult result = new UpdateResult(sql, cost, stmt.getUpdateCount());
+                result.setTiming(timing);
 
-            return System.currentTimeMillis() - start;
+                return result;
+            }
         }
+    }
+
+    private interface Executor {
+        BaseResult executeSql(Project project, String profile, String sql, boolean needTotalRows, boolean needServerTiming) throws Exception;
 
-        default List<Pair<String /*table*/, Long /* number of record */>> acquireTotalRows(Statement statement, List<String> tables) throws SQLException {
+        /**
+         * Execute on a connection owned by the caller, neither closes nor commits it.
+         */
+        BaseResult executeSql(Connection connection, String sql, ExecutionTiming timing) throws SQLException;
 
-            List<Pair<String, Long>> pairs = new ArrayList<>();
+        default Connection acquireConnection(DatasourceComponent datasourceComponent, String profile, ExecutionTiming timing) throws Exception {
+            long start = System.nanoTime();
 
-            String sqlTemplate = "SELECT COUNT(1) AS total FROM %s";
+            Connection connection = datasourceComponent.getConnection(profile);
 
-            for (String table : tables) {
-                statement.execute(String.format(sqlTemplate, table));
-                ResultSet rs = statement.getResultSet();
-                rs.next();
-                Pair<String, Long> pair = Pair.of(table, statement.getResultSet().getLong("total"));
-                pairs.add(pair);
-            }
-            return pairs;
+            timing.setAcquireNanos(System.nanoTime() - start);
+
+            return connection;
         }
 
-        default long acquireLastInsertId(Statement statement, String table) throws SQLException {
+        /**
+         * @return cost in milliseconds, the nanosecond cost is kept in timing
+         */
+        default long executeAndReturnCost(Statement statement, String sql, ExecutionTiming timing) throws SQLException {
+            long start = System.nanoTime();
 
-            String maxIdStr = "max_id";
-            String primaryKey = acquirePrimaryKey(statement, table);
+            statement.execute(sql);
+
+            timing.setExecuteNanos(System.nanoTime() - start);
 
-            statement.execute(String.format("SELECT MAX(%s) AS %s FROM %s;", primaryKey, maxIdStr, table));
-            ResultSet rs = statement.getResultSet();
-            rs.next();
-            return rs.getLong(maxIdStr);
+            return TimeUnit.NANOSECONDS.toMillis(timing.getExecuteNanos());
         }
 
-        default String acquirePrimaryKey(Statement statement, String table) throws SQLException {
+        /**
+         * Duration of the last statement executed on this connection as seen by the database,
+         * {@link ExecutionTiming#UNAVAILABLE} if the session can't tell (e.g. missing privileges).
+         */
+        default long acquireServerNanos(Connection connection, String databaseType) {
 
-            String sql = String.format("DESC %s;", table);
-            statement.execute(sql);
-            ResultSet rs = statement.getResultSet();
+            boolean isOracle = StringUtils.equals(databaseType, "oracle");
 
-            while (rs.next()) {
-                if (StringUtils.equals(rs.getString("Key"), "PRI")) {
-                    return rs.getString("Field");
+            String sql = isOracle ? ORACLE_LAST_STATEMENT_TIMING_SQL : MYSQL_LAST_STATEMENT_TIMING_SQL;
+
+            try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+                if (!rs.next()) {
+                    return ExecutionTiming.UNAVAILABLE;
                 }
+                // oracle reports microseconds, mysql performance_schema reports picoseconds
+                return isOracle ? TimeUnit.MICROSECONDS.toNanos(rs.getLong(1)) : rs.getLong(1) / 1000;
+            } catch (SQLException e) {
+                return ExecutionTiming.UNAVAILABLE;
             }
-
-            return "ID";
         }
     }
 
@@ -4,6 +4,7 @@ import com.alibaba.druid.DbType;
 import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.ast.SQLName;
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.statement.SQLDDLStatement;
 import com.alibaba.druid.sql.ast.statement.SQLDeleteStatement;
 import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
 import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
@@ -46,9 +47,25 @@ public class SqlParser {
             return SqlType.update;
         }
 
+        // DDL returns no rows either
+        if (statement instanceof SQLDDLStatement) {
+            return SqlType.update;
+        }
+
         return SqlType.select;
     }
 
+    /**
+     * @return whether the statement changes the schema, e.g. ALTER TABLE
+     */
+    public static boolean isDdl(String sql) {
+        try {
+            return parseStatement(sql) instanceof SQLDDLStatement;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     public static CheckScopeEnum getCheckScope(String sql) {
         try {
             SQLStatement statement = parseStatement(sql);
@@ -1,7 +1,6 @@
 package io.github.linyimin.plugin.sql.result;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.List;
 
@@ -30,7 +29,9 @@ public class BaseResult {
 
     private String sql;
 
-    private List<Pair<String, Long>> totalRows;
+    private List<RowCount> totalRows;
+
+    private ExecutionTiming timing = new ExecutionTiming();
 
     public long getCost() {
         return cost;
@@ -48,11 +49,19 @@ public class BaseResult {
         this.sql = sql;
     }
 
-    public List<Pair<String, Long>> getTotalRows() {
+    public List<RowCount> getTotalRows() {
         return totalRows;
     }
 
-    public void setTotalRows(List<Pair<String, Long>> totalRows) {
+    public void setTotalRows(List<RowCount> totalRows) {
         this.totalRows = totalRows;
     }
+
+    public ExecutionTiming getTiming() {
+        return timing;
+    }
+
+    public void setTiming(ExecutionTiming timing) {
+        this.timing = timing;
+    }
 }
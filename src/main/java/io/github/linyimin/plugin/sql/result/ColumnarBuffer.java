@@ -0,0 +1,371 @@
+package io.github.linyimin.plugin.sql.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of a query result stored by column instead of as a {@code Vector} of boxed values per row: integers,
+ * longs and doubles in primitive arrays, strings as codes into a per column dictionary, and a bitmap of nulls.
+ * The type of a column is taken from its first non-null value, a column holding values of more than one class
+ * falls back to plain objects.
+ * <p>
+ * Not thread safe, rows are appended and read on the same thread.
+ *
+ * @author banzhe
+ * @date 2026/10/19 06:00
+ **/
+public class ColumnarBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * distinct strings of a column beyond which the dictionary costs more than it saves
+     */
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private final List<String> columnNames;
+    private final Column[] columns;
+
+    private int rowCount = 0;
+    private int capacity = INITIAL_CAPACITY;
+
+    public ColumnarBuffer(List<String> columnNames) {
+        this.columnNames = new ArrayList<>(columnNames);
+        this.columns = new Column[columnNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new NullColumn(capacity);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumnName(int column) {
+        return columnNames.get(column);
+    }
+
+    /**
+     * @param row values as returned by {@code ResultSet.getObject}, one per column
+     */
+    public void append(Object[] row) {
+
+        if (rowCount == capacity) {
+            capacity = capacity + (capacity >> 1);
+            for (Column column : columns) {
+                column.grow(capacity);
+            }
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            Object value = row[i];
+            Column column = columns[i];
+            if (value != null && !column.accepts(value)) {
+                column = column instanceof NullColumn ? typed(value, capacity) : new ObjectColumn(capacity);
+                column.copyFrom(columns[i], rowCount);
+                columns[i] = column;
+            }
+            column.set(rowCount, value);
+        }
+
+        rowCount++;
+
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] instanceof StringColumn && ((StringColumn) columns[i]).dictionary.size() > MAX_DICTIONARY_SIZE) {
+                Column column = new ObjectColumn(capacity);
+                column.copyFrom(columns[i], rowCount);
+                columns[i] = column;
+            }
+        }
+    }
+
+    public Object getValue(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    /**
+     * @return class of the values of the column, Object if it is mixed or only null
+     */
+    Class<?> getColumnClass(int column) {
+        return columns[column].type();
+    }
+
+    private static Column typed(Object value, int capacity) {
+        if (value instanceof Integer) {
+            return new IntColumn(capacity);
+        }
+        if (value instanceof Long) {
+            return new LongColumn(capacity);
+        }
+        if (value instanceof Double) {
+            return new DoubleColumn(capacity);
+        }
+        if (value instanceof String) {
+            return new StringColumn(capacity);
+        }
+        return new ObjectColumn(capacity);
+    }
+
+    private abstract static class Column {
+
+        private long[] nulls;
+
+        private Column(int capacity) {
+            this.nulls = new long[(capacity >> 6) + 1];
+        }
+
+        abstract boolean accepts(Object value);
+
+        abstract Class<?> type();
+
+        abstract void setValue(int row, Object value);
+
+        abstract Object getValue(int row);
+
+        abstract void growValues(int capacity);
+
+        void set(int row, Object value) {
+            if (value == null) {
+                nulls[row >> 6] |= 1L << row;
+            } else {
+                setValue(row, value);
+            }
+        }
+
+        Object get(int row) {
+            return (nulls[row >> 6] & (1L << row)) != 0 ? null : getValue(row);
+        }
+
+        void grow(int capacity) {
+            nulls = Arrays.copyOf(nulls, (capacity >> 6) + 1);
+            growValues(capacity);
+        }
+
+        void copyFrom(Column other, int rows) {
+            for (int row = 0; row < rows; row++) {
+                set(row, other.get(row));
+            }
+        }
+    }
+
+    /**
+     * a column without a non-null value so far
+     */
+    private static class NullColumn extends Column {
+
+        private NullColumn(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return false;
+        }
+
+        @Override
+        Class<?> type() {
+            return Object.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            throw new IllegalStateException("a null column only holds nulls");
+        }
+
+        @Override
+        Object getValue(int row) {
+            return null;
+        }
+
+        @Override
+        void growValues(int capacity) {
+        }
+    }
+
+    private static class IntColumn extends Column {
+
+        private int[] values;
+
+        private IntColumn(int capacity) {
+            super(capacity);
+            this.values = new int[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        Class<?> type() {
+            return Integer.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Integer) value;
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void growValues(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class LongColumn extends Column {
+
+        private long[] values;
+
+        private LongColumn(int capacity) {
+            super(capacity);
+            this.values = new long[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        Class<?> type() {
+            return Long.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Long) value;
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void growValues(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+
+        private double[] values;
+
+        private DoubleColumn(int capacity) {
+            super(capacity);
+            this.values = new double[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        Class<?> type() {
+            return Double.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Double) value;
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void growValues(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class StringColumn extends Column {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private int[] codes;
+
+        private StringColumn(int capacity) {
+            super(capacity);
+            this.codes = new int[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof String;
+        }
+
+        @Override
+        Class<?> type() {
+            return String.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            codes[row] = dictionary.computeIfAbsent((String) value, word -> {
+                words.add(word);
+                return words.size() - 1;
+            });
+        }
+
+        @Override
+        Object getValue(int row) {
+            return words.get(codes[row]);
+        }
+
+        @Override
+        void growValues(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+
+        private Object[] values;
+
+        private ObjectColumn(int capacity) {
+            super(capacity);
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        Class<?> type() {
+            return Object.class;
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = value;
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void growValues(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
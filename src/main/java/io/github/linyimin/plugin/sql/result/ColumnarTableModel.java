@@ -0,0 +1,123 @@
+package io.github.linyimin.plugin.sql.result;
+
+import com.intellij.openapi.application.ApplicationManager;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Table model of a select shown to the user: the first page is read before the result is displayed, the rest of
+ * the result, at most {@link #MAX_ROWS} rows, is read page by page on a pooled thread right away and appended as it
+ * arrives. Rows are kept in a {@link ColumnarBuffer}: the first page is written by the constructor, later pages are
+ * appended on the event dispatch thread, so once the model is handed to a table it is only used on that thread.
+ * {@link #close()} may be called from any thread.
+ * <p>
+ * The cursor holds a connection of the pool and keeps the statement unfinished on the server, which holds the
+ * metadata lock of its tables, until it is read to the end. Reading does not wait for the table to be scrolled, so
+ * the statement finishes as fast as the rows can be transferred and the reading thread closes the cursor.
+ *
+ * @author banzhe
+ * @date 2026/10/19 06:00
+ **/
+public class ColumnarTableModel extends AbstractTableModel implements AutoCloseable {
+
+    /**
+     * rows read at most, the database stops producing rows beyond
+     */
+    public static final int MAX_ROWS = 100_000;
+
+    private final ResultCursor cursor;
+    private final int pageSize;
+    private final ColumnarBuffer buffer;
+
+    /**
+     * the first page read the result to the end
+     */
+    private final boolean complete;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Reads the first page on the calling thread and starts reading the rest on a pooled thread, which owns the
+     * cursor from then on. A cursor read to the end by the first page stays with the caller.
+     *
+     * @param timing receives first row and fetch time of the first page
+     */
+    public ColumnarTableModel(ResultCursor cursor, int pageSize, ExecutionTiming timing) throws SQLException {
+
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+
+        List<Object[]> rows = cursor.fetch(pageSize, timing);
+
+        this.buffer = new ColumnarBuffer(cursor.getColumnNames());
+        rows.forEach(buffer::append);
+
+        this.complete = cursor.isExhausted();
+        if (!complete) {
+            ApplicationManager.getApplication().executeOnPooledThread(this::readRemainingRows);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return buffer.getRowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return buffer.getColumnCount();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return buffer.getColumnName(column);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return buffer.getValue(rowIndex, columnIndex);
+    }
+
+    /**
+     * @return the whole result was read with the first page, the cursor is not read on another thread
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Stop reading, the reading thread closes the cursor after the page it is reading. The rows of the result not
+     * read yet are discarded by the driver there, not on the calling thread.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+
+    private void readRemainingRows() {
+        try {
+            while (!closed && !cursor.isExhausted() && !cursor.isClosed()) {
+                List<Object[]> page = cursor.fetch(pageSize, null);
+                ApplicationManager.getApplication().invokeLater(() -> append(page));
+            }
+        } catch (SQLException e) {
+            // a broken cursor stops reading, the rows read so far stay
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private void append(List<Object[]> rows) {
+
+        if (closed || rows.isEmpty()) {
+            return;
+        }
+
+        int first = buffer.getRowCount();
+        rows.forEach(buffer::append);
+
+        fireTableRowsInserted(first, buffer.getRowCount() - 1);
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.linyimin.plugin.sql.result;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phases of one statement execution, measured with {@link System#nanoTime()}.
+ *
+ * @author banzhe
+ * @date 2026/10/18 14:35
+ **/
+public class ExecutionTiming {
+
+    public static final long UNAVAILABLE = -1;
+
+    /**
+     * time to check a connection out of the pool
+     */
+    private long acquireNanos;
+
+    /**
+     * time spent in Statement.execute
+     */
+    private long executeNanos;
+
+    /**
+     * time from the end of execute until the first row is available, only for select
+     */
+    private long firstRowNanos;
+
+    /**
+     * time from the end of execute until all returned rows are materialized, includes firstRowNanos
+     */
+    private long fetchNanos;
+
+    /**
+     * statement duration reported by the database session, UNAVAILABLE if not collected
+     */
+    private long serverNanos = UNAVAILABLE;
+
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    public void setAcquireNanos(long acquireNanos) {
+        this.acquireNanos = acquireNanos;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public void setExecuteNanos(long executeNanos) {
+        this.executeNanos = executeNanos;
+    }
+
+    public long getFirstRowNanos() {
+        return firstRowNanos;
+    }
+
+    public void setFirstRowNanos(long firstRowNanos) {
+        this.firstRowNanos = firstRowNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public void setFetchNanos(long fetchNanos) {
+        this.fetchNanos = fetchNanos;
+    }
+
+    public long getServerNanos() {
+        return serverNanos;
+    }
+
+    public void setServerNanos(long serverNanos) {
+        this.serverNanos = serverNanos;
+    }
+
+    public boolean hasServerNanos() {
+        return serverNanos != UNAVAILABLE;
+    }
+
+    /**
+     * @return execute and fetch, the response time of the statement itself
+     */
+    public long getStatementNanos() {
+        return executeNanos + fetchNanos;
+    }
+
+    /**
+     * @return connection acquire, execute and fetch
+     */
+    public long getTotalNanos() {
+        return acquireNanos + getStatementNanos();
+    }
+
+    public static String formatMillis(long nanos) {
+        return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.linyimin.plugin.sql.result;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An executed select whose rows are read page by page, holding its statement and connection until it is read to
+ * the end or closed. Reading and closing are synchronized. Closing an unfinished cursor does not cancel the
+ * statement, which would cost Connector/J a second connection for KILL QUERY: MySQL streams the remaining rows to
+ * the client first, bounded by the max rows of the statement, so close it off the event dispatch thread.
+ *
+ * @author banzhe
+ * @date 2026/10/19 06:00
+ **/
+public class ResultCursor implements AutoCloseable {
+
+    private final Connection connection;
+    private final Statement statement;
+
+    private ResultSet resultSet;
+    private List<String> columnNames;
+
+    private volatile boolean exhausted = false;
+    private volatile boolean closed = false;
+
+    /**
+     * @param connection owned by the cursor from now on, closed by {@link #close()}
+     * @param statement executed statement of the connection
+     */
+    public ResultCursor(Connection connection, Statement statement) {
+        this.connection = connection;
+        this.statement = statement;
+    }
+
+    /**
+     * @param timing receives first row and fetch time of the page, null to not measure
+     * @return up to rows rows, fewer at the end of the result
+     */
+    public synchronized List<Object[]> fetch(int rows, ExecutionTiming timing) throws SQLException {
+
+        List<Object[]> page = new ArrayList<>();
+        if (closed || exhausted) {
+            return page;
+        }
+
+        long start = System.nanoTime();
+
+        ResultSet rs = resultSet();
+        int columnCount = columnNames.size();
+
+        while (page.size() < rows) {
+            if (!rs.next()) {
+                exhausted = true;
+                break;
+            }
+            if (page.isEmpty() && timing != null) {
+                timing.setFirstRowNanos(System.nanoTime() - start);
+            }
+            Object[] row = new Object[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                row[column] = rs.getObject(column + 1);
+            }
+            page.add(row);
+        }
+
+        if (timing != null) {
+            timing.setFetchNanos(System.nanoTime() - start);
+        }
+
+        return page;
+    }
+
+    public synchronized List<String> getColumnNames() throws SQLException {
+        resultSet();
+        return columnNames;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close the statement but keep the connection, e.g. to ask the session about the finished statement.
+     */
+    public synchronized void closeStatement() {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+        exhausted = true;
+    }
+
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+
+        closeStatement();
+
+        synchronized (this) {
+            closed = true;
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private ResultSet resultSet() throws SQLException {
+
+        if (resultSet != null) {
+            return resultSet;
+        }
+
+        resultSet = statement.getResultSet();
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        columnNames = new ArrayList<>();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            columnNames.add(metaData.getColumnLabel(column));
+        }
+
+        return resultSet;
+    }
+}
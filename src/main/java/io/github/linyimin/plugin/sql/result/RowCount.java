@@ -0,0 +1,47 @@
+package io.github.linyimin.plugin.sql.result;
+
+/**
+ * Rows of a table, either counted or estimated from the statistics of the database.
+ *
+ * @author banzhe
+ * @date 2026/10/19 07:00
+ **/
+public class RowCount {
+
+    public static final long UNKNOWN = -1;
+
+    private final String table;
+
+    /**
+     * UNKNOWN if the table has neither a count nor statistics, e.g. a view
+     */
+    private final long rows;
+
+    private final boolean exact;
+
+    public RowCount(String table, long rows, boolean exact) {
+        this.table = table;
+        this.rows = rows;
+        this.exact = exact;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public String toString() {
+        if (rows == UNKNOWN) {
+            return "unknown (counting)";
+        }
+        return exact ? String.valueOf(rows) : String.format("~%s (estimated, counting)", rows);
+    }
+}
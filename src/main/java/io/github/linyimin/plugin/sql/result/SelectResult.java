@@ -1,6 +1,7 @@
 package io.github.linyimin.plugin.sql.result;
 
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 
 /**
  * @author yiminlin
@@ -24,6 +25,17 @@ public class SelectResult extends BaseResult {
 
     private DefaultTableModel model;
 
+    /**
+     * rows of a select shown to the user, read from the open cursor in the background instead of fetched into {@link #model}
+     */
+    private ColumnarTableModel pagedModel;
+
+    /**
+     * the result had more rows than Max Rows Returned, they were not fetched; for a paged result they are fetched
+     * in the background
+     */
+    private boolean truncated;
+
     public DefaultTableModel getModel() {
         return model;
     }
@@ -31,4 +43,27 @@ public class SelectResult extends BaseResult {
     public void setModel(DefaultTableModel model) {
         this.model = model;
     }
+
+    public ColumnarTableModel getPagedModel() {
+        return pagedModel;
+    }
+
+    public void setPagedModel(ColumnarTableModel pagedModel) {
+        this.pagedModel = pagedModel;
+    }
+
+    /**
+     * @return the paged model if there is one, the fetched model otherwise
+     */
+    public TableModel getTableModel() {
+        return pagedModel != null ? pagedModel : model;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
 }
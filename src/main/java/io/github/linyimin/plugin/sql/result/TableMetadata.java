@@ -0,0 +1,139 @@
+package io.github.linyimin.plugin.sql.result;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * Columns and indexes of a table as shown in the table panes, the indexes are named as those of {@code SHOW INDEX}.
+ * Shared between panes, so the models are copied before they are handed out.
+ *
+ * @author banzhe
+ * @date 2026/10/19 10:00
+ **/
+public class TableMetadata {
+
+    /**
+     * column of the table name in rows read for several tables
+     */
+    public static final String TABLE_COLUMN = "Table";
+
+    private final String table;
+
+    private final DefaultTableModel columns;
+
+    private final DefaultTableModel indexes;
+
+    private final long loadedMillis;
+
+    public TableMetadata(String table, DefaultTableModel columns, DefaultTableModel indexes) {
+        this.table = table;
+        this.columns = columns;
+        this.indexes = indexes;
+        this.loadedMillis = System.currentTimeMillis();
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public DefaultTableModel getColumns() {
+        return copy(columns);
+    }
+
+    public DefaultTableModel getIndexes() {
+        return copy(indexes);
+    }
+
+    /**
+     * @return false if the table has no columns, i.e. it does not exist in the database of the datasource
+     */
+    public boolean exists() {
+        return columns.getRowCount() > 0;
+    }
+
+    /**
+     * @return the first column of the primary key, null if the table has none
+     */
+    public String getPrimaryKey() {
+
+        int name = columns.findColumn("Name");
+        int key = columns.findColumn("Key");
+        if (name < 0 || key < 0) {
+            return null;
+        }
+
+        for (int row = 0; row < columns.getRowCount(); row++) {
+            if ("PRI".equals(String.valueOf(columns.getValueAt(row, key)))) {
+                return String.valueOf(columns.getValueAt(row, name));
+            }
+        }
+
+        return null;
+    }
+
+    public long getLoadedMillis() {
+        return loadedMillis;
+    }
+
+    /**
+     * Split rows read for several tables at once.
+     *
+     * @param keepTableColumn false to drop the {@link #TABLE_COLUMN} from the rows of each table
+     * @return table -> its rows, in the order the tables first appear
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, DefaultTableModel> groupByTable(DefaultTableModel rows, boolean keepTableColumn) {
+
+        int tableColumn = rows.findColumn(TABLE_COLUMN);
+
+        Map<String, DefaultTableModel> models = new LinkedHashMap<>();
+
+        for (Object row : rows.getDataVector()) {
+            Vector<Object> values = (Vector<Object>) row;
+            String table = String.valueOf(values.get(tableColumn));
+
+            Vector<Object> tableRow = new Vector<>(values);
+            if (!keepTableColumn) {
+                tableRow.remove(tableColumn);
+            }
+
+            models.computeIfAbsent(table, key -> emptyLike(rows, keepTableColumn)).addRow(tableRow);
+        }
+
+        return models;
+    }
+
+    /**
+     * @return a model without rows with the columns of the rows of one table
+     */
+    public static DefaultTableModel emptyLike(DefaultTableModel rows, boolean keepTableColumn) {
+
+        Vector<String> columnNames = new Vector<>();
+        for (int column = 0; column < rows.getColumnCount(); column++) {
+            String name = rows.getColumnName(column);
+            if (keepTableColumn || !TABLE_COLUMN.equals(name)) {
+                columnNames.add(name);
+            }
+        }
+
+        return new DefaultTableModel(columnNames, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DefaultTableModel copy(DefaultTableModel model) {
+
+        Vector<Vector<Object>> data = new Vector<>();
+        for (Object row : model.getDataVector()) {
+            data.add(new Vector<>((Vector<Object>) row));
+        }
+
+        Vector<String> columnNames = new Vector<>();
+        for (int column = 0; column < model.getColumnCount(); column++) {
+            columnNames.add(model.getColumnName(column));
+        }
+
+        return new DefaultTableModel(data, columnNames);
+    }
+}
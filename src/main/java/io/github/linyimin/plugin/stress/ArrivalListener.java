@@ -0,0 +1,22 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Callbacks of {@link ArrivalRateGenerator} for requests that could not be sent on schedule.
+ *
+ * @author banzhe
+ * @date 2026/10/18 16:30
+ **/
+public interface ArrivalListener {
+
+    /**
+     * the request was never sent because the backlog was full
+     */
+    default void onDropped(long intendedNanos) {
+    }
+
+    /**
+     * the request started later than {@link ArrivalRateGenerator#LATE_THRESHOLD_NANOS} after its intended send time
+     */
+    default void onLate(long lagNanos) {
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Target arrival rate over time, used by {@link ArrivalRateGenerator} to derive the intended send time of
+ * every request.
+ *
+ * @author banzhe
+ * @date 2026/10/18 16:30
+ **/
+public class ArrivalRate {
+
+    private final RateProfileEnum profile;
+    private final double startQps;
+    private final double targetQps;
+    private final long durationNanos;
+
+    /**
+     * @param startQps ignored by {@link RateProfileEnum#constant}
+     * @param durationSeconds ramp duration of {@link RateProfileEnum#ramp}, step duration of {@link RateProfileEnum#step}
+     */
+    public ArrivalRate(RateProfileEnum profile, double startQps, double targetQps, long durationSeconds) {
+        if (targetQps <= 0) {
+            throw new IllegalArgumentException("target QPS should be greater than 0.");
+        }
+        if (profile != RateProfileEnum.constant && (startQps <= 0 || startQps > targetQps)) {
+            throw new IllegalArgumentException("start QPS should be in range (0, target QPS].");
+        }
+
+        this.profile = profile;
+        this.startQps = startQps;
+        this.targetQps = targetQps;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Math.max(durationSeconds, 1));
+    }
+
+    public static ArrivalRate constant(double qps) {
+        return new ArrivalRate(RateProfileEnum.constant, qps, qps, 1);
+    }
+
+    /**
+     * @param elapsedNanos time since the run started
+     * @return requests per second at that moment
+     */
+    public double rateAt(long elapsedNanos) {
+        switch (profile) {
+            case step:
+                long steps = elapsedNanos / durationNanos;
+                return Math.min(startQps * (steps + 1), targetQps);
+            case ramp:
+                if (elapsedNanos >= durationNanos) {
+                    return targetQps;
+                }
+                return startQps + (targetQps - startQps) * elapsedNanos / durationNanos;
+            case constant:
+            default:
+                return targetQps;
+        }
+    }
+
+    /**
+     * @return nanos between the request sent at {@code elapsedNanos} and the next one
+     */
+    public long intervalAt(long elapsedNanos) {
+        return Math.max((long) (TimeUnit.SECONDS.toNanos(1) / rateAt(elapsedNanos)), 1);
+    }
+
+    public RateProfileEnum getProfile() {
+        return profile;
+    }
+
+    public double getTargetQps() {
+        return targetQps;
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-model load generator: a scheduler thread issues requests at the intended send times derived from an
+ * {@link ArrivalRate}, whether or not earlier requests have completed, so a slow database does not throttle
+ * the offered load. Requests wait in a bounded backlog for a free worker and are dropped when it is full.
+ * <p>
+ * The request receives its intended send time ({@link System#nanoTime()} based), response time should be
+ * measured from it rather than from the moment a worker picked the request up.
+ *
+ * @author banzhe
+ * @date 2026/10/18 16:30
+ **/
+public class ArrivalRateGenerator {
+
+    public static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * backlog capacity per worker, requests beyond it are dropped
+     */
+    public static final int BACKLOG_PER_WORKER = 10;
+
+    private final ArrivalRate arrivalRate;
+    private final ArrivalListener listener;
+    private final ThreadPoolExecutor executor;
+    private final int workers;
+
+    private final AtomicLong scheduled = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong late = new AtomicLong(0);
+
+    private volatile boolean stopped = false;
+    private Thread scheduler;
+
+    /**
+     * @param workers requests executing at the same time at most, keep it within the max active connections
+     */
+    public ArrivalRateGenerator(ThreadModeEnum threadMode, int workers, ArrivalRate arrivalRate, ArrivalListener listener) {
+
+        if (!threadMode.isSupported()) {
+            throw new IllegalArgumentException(String.format("thread mode %s is not supported by the running JDK.", threadMode));
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("the number of workers should be greater than 0.");
+        }
+
+        this.arrivalRate = arrivalRate;
+        this.listener = listener;
+        this.workers = workers;
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * BACKLOG_PER_WORKER),
+                LoadGenerator.createThreadFactory(threadMode),
+                (runnable, executor) -> drop((Arrival) runnable)
+        );
+    }
+
+    /**
+     * Start the scheduler, it runs until {@link #stop()}.
+     *
+     * @param request receives the intended send time of the request
+     */
+    public synchronized void start(LongConsumer request) {
+        if (stopped || scheduler != null) {
+            throw new IllegalStateException("arrival rate generator can only be started once.");
+        }
+
+        this.executor.prestartAllCoreThreads();
+
+        this.scheduler = new Thread(() -> schedule(request), "sql-stress-scheduler");
+        this.scheduler.setDaemon(true);
+        this.scheduler.start();
+    }
+
+    private void schedule(LongConsumer request) {
+
+        long start = System.nanoTime();
+        long intended = start;
+
+        while (!stopped) {
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                if (stopped || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+
+            // when the scheduler falls behind it sends immediately but keeps the intended time
+            scheduled.incrementAndGet();
+            executor.execute(new Arrival(request, intended));
+
+            intended += arrivalRate.intervalAt(intended - start);
+        }
+    }
+
+    private void drop(Arrival arrival) {
+        if (stopped) {
+            return;
+        }
+        dropped.incrementAndGet();
+        listener.onDropped(arrival.intendedNanos);
+    }
+
+    public void stop() {
+        this.stopped = true;
+        if (this.scheduler != null) {
+            this.scheduler.interrupt();
+        }
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * {@link #stop()} and wait for the workers to exit.
+     *
+     * @return false if some worker is still running after the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        stop();
+        try {
+            return this.executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getBacklog() {
+        return executor.getQueue().size();
+    }
+
+    public long getScheduled() {
+        return scheduled.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getLate() {
+        return late.get();
+    }
+
+    public ArrivalRate getArrivalRate() {
+        return arrivalRate;
+    }
+
+    private class Arrival implements Runnable {
+
+        private final LongConsumer request;
+        private final long intendedNanos;
+
+        private Arrival(LongConsumer request, long intendedNanos) {
+            this.request = request;
+            this.intendedNanos = intendedNanos;
+        }
+
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+            long lag = System.nanoTime() - intendedNanos;
+            if (lag > LATE_THRESHOLD_NANOS) {
+                late.incrementAndGet();
+                listener.onLate(lag);
+            }
+            request.accept(intendedNanos);
+        }
+    }
+}
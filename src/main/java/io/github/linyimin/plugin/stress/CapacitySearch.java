@@ -0,0 +1,115 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the highest concurrency at which the statement still meets its latency and error rate SLO. The
+ * concurrency is doubled from 1 until a step breaks the SLO or the upper bound is reached, then the range between
+ * the last passing and the first failing step is bisected until it is narrower than {@link #RESOLUTION} of the
+ * passing concurrency. The passing step with the highest concurrency is the knee of the capacity curve, beyond it
+ * the SLO breaks.
+ * <p>
+ * Not thread safe, driven by the thread which runs the {@link StressEngine}.
+ *
+ * @author banzhe
+ * @date 2026/10/19 03:00
+ **/
+public class CapacitySearch {
+
+    /**
+     * bisection stops when failing - passing concurrency is at most this fraction of the passing one
+     */
+    static final double RESOLUTION = 0.05;
+
+    private final int maxConcurrency;
+    private final long sloP99Micros;
+    private final double sloErrorRate;
+
+    private final List<CapacityStep> steps = new ArrayList<>();
+
+    /**
+     * highest passing and lowest failing concurrency measured so far, 0 if none
+     */
+    private int passing = 0;
+    private int failing = 0;
+
+    /**
+     * @param sloP99Micros TP99 response time a step may not exceed
+     * @param sloErrorRate error rate in percent a step may not exceed
+     */
+    public CapacitySearch(int maxConcurrency, long sloP99Micros, double sloErrorRate) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("the max concurrency of the capacity search should be greater than 0.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.sloP99Micros = sloP99Micros;
+        this.sloErrorRate = sloErrorRate;
+    }
+
+    public int first() {
+        return 1;
+    }
+
+    public boolean meetsSlo(long success, long failed, LatencyHistogram histogram) {
+        double errorRate = success + failed == 0 ? 0 : 100.0 * failed / (success + failed);
+        return success > 0 && histogram.getValueAtPercentile(99) <= sloP99Micros && errorRate <= sloErrorRate;
+    }
+
+    /**
+     * @param step measurement of the concurrency returned by the previous call, or by {@link #first()}
+     * @return the next concurrency to measure, 0 when the search is finished
+     */
+    public int next(CapacityStep step) {
+
+        steps.add(step);
+
+        if (step.isPassed()) {
+            passing = Math.max(passing, step.getConcurrency());
+        } else {
+            failing = failing == 0 ? step.getConcurrency() : Math.min(failing, step.getConcurrency());
+        }
+
+        if (failing == 0) {
+            // still probing, nothing broke the SLO yet
+            return passing >= maxConcurrency ? 0 : (int) Math.min((long) passing * 2, maxConcurrency);
+        }
+
+        if (passing == 0) {
+            // 1 already breaks the SLO
+            return 0;
+        }
+
+        int gap = failing - passing;
+        if (gap <= Math.max(1, (int) (passing * RESOLUTION))) {
+            return 0;
+        }
+
+        return passing + gap / 2;
+    }
+
+    /**
+     * @return steps in the order they were measured
+     */
+    public List<CapacityStep> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @return the passing step with the highest concurrency, null if no step passed
+     */
+    public CapacityStep getKnee() {
+        return knee(steps);
+    }
+
+    public static CapacityStep knee(List<CapacityStep> steps) {
+        CapacityStep knee = null;
+        for (CapacityStep step : steps) {
+            if (step.isPassed() && (knee == null || step.getConcurrency() > knee.getConcurrency())) {
+                knee = step;
+            }
+        }
+        return knee;
+    }
+}
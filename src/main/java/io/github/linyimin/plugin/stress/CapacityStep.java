@@ -0,0 +1,79 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Throughput and latency measured at one concurrency of a capacity search, a point of the capacity curve.
+ *
+ * @author banzhe
+ * @date 2026/10/19 03:00
+ **/
+public class CapacityStep {
+
+    private final int concurrency;
+    private final long seconds;
+    private final long success;
+    private final long failed;
+    private final LatencyHistogram histogram;
+    private final boolean passed;
+
+    /**
+     * @param seconds seconds measured, without the first second of the step in which the concurrency changed
+     * @param histogram response times of the measured seconds
+     * @param passed whether the step met the SLO
+     */
+    public CapacityStep(int concurrency, long seconds, long success, long failed, LatencyHistogram histogram, boolean passed) {
+        this.concurrency = concurrency;
+        this.seconds = seconds;
+        this.success = success;
+        this.failed = failed;
+        this.histogram = histogram;
+        this.passed = passed;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long getSuccess() {
+        return success;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return successful requests per second
+     */
+    public double getTps() {
+        return seconds == 0 ? 0 : (double) success / seconds;
+    }
+
+    /**
+     * @return failed requests in percent, 0 without requests
+     */
+    public double getErrorRate() {
+        return success + failed == 0 ? 0 : 100.0 * failed / (success + failed);
+    }
+
+    /**
+     * @return response time in microseconds
+     */
+    public double getAverageRt() {
+        return histogram.getMean();
+    }
+
+    /**
+     * @return TP99 response time in microseconds
+     */
+    public long getP99() {
+        return histogram.getValueAtPercentile(99);
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+}
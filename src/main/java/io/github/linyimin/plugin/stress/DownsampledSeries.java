@@ -0,0 +1,165 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Time ordered points of a chart series in a fixed size buffer. The newest half of the buffer keeps every point,
+ * when the buffer is full the older points are reduced with Largest-Triangle-Three-Buckets, which keeps the peaks
+ * and the overall shape. The longer a run is, the coarser its beginning gets, the number of points stays bounded.
+ *
+ * @author banzhe
+ * @date 2026/10/18 23:30
+ **/
+public class DownsampledSeries {
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] values;
+
+    private int size;
+
+    public DownsampledSeries(int capacity) {
+        if (capacity < 8) {
+            throw new IllegalArgumentException("capacity should be at least 8.");
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * A point of the latest timestamp replaces it, points older than the latest one are ignored.
+     *
+     * @return true if older points were downsampled, so the series has to be redrawn from {@link #timestamp(int)}
+     * and {@link #value(int)} instead of only adding the new point
+     */
+    public boolean append(long timestamp, double value) {
+
+        if (size > 0 && timestamp <= timestamps[size - 1]) {
+            if (timestamp == timestamps[size - 1]) {
+                values[size - 1] = value;
+            }
+            return false;
+        }
+
+        boolean compacted = false;
+        if (size == capacity) {
+            compact();
+            compacted = true;
+        }
+
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+
+        return compacted;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return Long.MIN_VALUE if empty
+     */
+    public long lastTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[size - 1];
+    }
+
+    /**
+     * Reduce all points but the newest capacity / 2 to capacity / 4 points.
+     */
+    private void compact() {
+
+        int recent = capacity / 2;
+        int older = size - recent;
+
+        int[] kept = downsample(timestamps, values, older, capacity / 4);
+
+        // kept indexes are ascending and kept[i] >= i, moving them to the front never overwrites a point still needed
+        int n = 0;
+        for (int index : kept) {
+            timestamps[n] = timestamps[index];
+            values[n] = values[index];
+            n++;
+        }
+
+        System.arraycopy(timestamps, older, timestamps, n, recent);
+        System.arraycopy(values, older, values, n, recent);
+
+        size = n + recent;
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets: the first and the last point are kept, every bucket in between keeps the
+     * point forming the largest triangle with the point kept before it and the average of the next bucket.
+     *
+     * @return ascending indexes of the kept points
+     */
+    static int[] downsample(long[] x, double[] y, int length, int threshold) {
+
+        if (threshold >= length || threshold < 3) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (length - 2) / (threshold - 2);
+
+        int a = 0;
+        int n = 0;
+        sampled[n++] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+
+            int averageStart = (int) Math.floor((i + 1) * every) + 1;
+            int averageEnd = Math.min((int) Math.floor((i + 2) * every) + 1, length);
+
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += x[j] - x[0];
+                averageY += y[j];
+            }
+            int count = Math.max(averageEnd - averageStart, 1);
+            averageX /= count;
+            averageY /= count;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = Math.min((int) Math.floor((i + 1) * every) + 1, length - 1);
+
+            double pointAX = x[a] - x[0];
+            double pointAY = y[a];
+
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - averageX) * (y[j] - pointAY) - (pointAX - (x[j] - x[0])) * (averageY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampled[n++] = next;
+            a = next;
+        }
+
+        sampled[n] = length - 1;
+
+        return sampled;
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.linyimin.plugin.stress;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+
+/**
+ * Maps a failed request to an error class by the SQLState and vendor code of the first {@link SQLException} in its
+ * cause chain, so lock waits, deadlocks and an exhausted pool can be told apart in the report.
+ *
+ * @author banzhe
+ * @date 2026/10/19 00:40
+ **/
+public class ErrorClassifier {
+
+    public static final String LOCK_WAIT_TIMEOUT = "锁等待超时";
+    public static final String DEADLOCK = "死锁";
+    public static final String QUERY_TIMEOUT = "查询超时";
+    public static final String CONNECTION_EXHAUSTED = "连接耗尽";
+    public static final String CONNECTION = "连接异常";
+    public static final String CONSTRAINT = "约束冲突";
+    public static final String SYNTAX_OR_ACCESS = "语法/权限错误";
+    public static final String DATA = "数据异常";
+    public static final String UNKNOWN = "未知异常";
+
+    /**
+     * MySQL: Lock wait timeout exceeded
+     */
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    /**
+     * MySQL: Deadlock found when trying to get lock
+     */
+    private static final int MYSQL_DEADLOCK = 1213;
+    /**
+     * MySQL: Too many connections
+     */
+    private static final int MYSQL_TOO_MANY_CONNECTIONS = 1040;
+    /**
+     * Oracle: ORA-00060 deadlock detected while waiting for resource
+     */
+    private static final int ORACLE_DEADLOCK = 60;
+    /**
+     * Oracle: ORA-00054 resource busy, ORA-30006 resource busy with WAIT timeout expired
+     */
+    private static final int ORACLE_RESOURCE_BUSY = 54;
+    private static final int ORACLE_WAIT_TIMEOUT = 30006;
+    /**
+     * Oracle: ORA-01013 user requested cancel of current operation, raised by a query timeout
+     */
+    private static final int ORACLE_CANCELLED = 1013;
+
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    private ErrorClassifier() {
+    }
+
+    public static String classify(Throwable error) {
+
+        SQLException sqlException = null;
+        Throwable cause = error;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+            // druid reports an exhausted pool with GetConnectionTimeoutException, matched by name to stay independent of druid
+            if (cause.getClass().getSimpleName().equals("GetConnectionTimeoutException")) {
+                return CONNECTION_EXHAUSTED;
+            }
+            if (sqlException == null && cause instanceof SQLException) {
+                sqlException = (SQLException) cause;
+            }
+        }
+
+        if (sqlException == null) {
+            return error == null ? UNKNOWN : error.getClass().getSimpleName();
+        }
+
+        return classify(sqlException instanceof SQLTimeoutException, sqlException.getSQLState(), sqlException.getErrorCode());
+    }
+
+    /**
+     * Whether the connection a request failed on has to be given up. Lock waits, deadlocks, constraint violations
+     * and the like leave it usable: they become more frequent under contention, and preparing again on a fresh
+     * connection then would add the very overhead a kept statement avoids.
+     *
+     * @param connection the connection of the request, closed by the driver after some failures
+     */
+    public static boolean isConnectionError(Throwable error, Connection connection) {
+        if (isConnectionError(error)) {
+            return true;
+        }
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @return the cause chain holds a failure of the connection rather than of the statement, i.e. SQLState class 08
+     */
+    public static boolean isConnectionError(Throwable error) {
+        Throwable cause = error;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+            if (cause instanceof SQLNonTransientConnectionException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static String classify(boolean timeout, String sqlState, int vendorCode) {
+
+        if (vendorCode == MYSQL_LOCK_WAIT_TIMEOUT || vendorCode == ORACLE_RESOURCE_BUSY || vendorCode == ORACLE_WAIT_TIMEOUT) {
+            return LOCK_WAIT_TIMEOUT;
+        }
+        if (vendorCode == MYSQL_DEADLOCK || vendorCode == ORACLE_DEADLOCK || "40001".equals(sqlState) || "40P01".equals(sqlState)) {
+            return DEADLOCK;
+        }
+        if (timeout || vendorCode == ORACLE_CANCELLED || "HYT00".equals(sqlState) || "HYT01".equals(sqlState) || "57014".equals(sqlState)) {
+            return QUERY_TIMEOUT;
+        }
+        if (vendorCode == MYSQL_TOO_MANY_CONNECTIONS) {
+            return CONNECTION_EXHAUSTED;
+        }
+
+        String sqlStateClass = sqlState == null || sqlState.length() < 2 ? "" : sqlState.substring(0, 2);
+        switch (sqlStateClass) {
+            case "08":
+                return CONNECTION;
+            case "23":
+                return CONSTRAINT;
+            case "42":
+            case "28":
+                return SYNTAX_OR_ACCESS;
+            case "22":
+                return DATA;
+            default:
+                break;
+        }
+
+        if (sqlState != null && !sqlState.isEmpty()) {
+            return String.format("SQLState %s(%s)", sqlState, vendorCode);
+        }
+
+        return vendorCode == 0 ? UNKNOWN : String.format("错误码 %s", vendorCode);
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Failed requests counted per error class of {@link ErrorClassifier}, with the first few distinct messages of each
+ * class as samples. Stress threads record, {@link #drain()} reads the counts once per second.
+ *
+ * @author banzhe
+ * @date 2026/10/19 00:50
+ **/
+public class ErrorStats {
+
+    /**
+     * distinct messages kept per error class
+     */
+    public static final int MAX_SAMPLES = 5;
+
+    /**
+     * longer messages are truncated, some drivers append the whole statement
+     */
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final Map<String, ErrorClass> classes = new ConcurrentHashMap<>();
+
+    /**
+     * keeps the order in which the classes first occurred
+     */
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    public void record(Throwable error) {
+
+        String name = ErrorClassifier.classify(error);
+
+        ErrorClass errorClass = classes.get(name);
+        if (errorClass == null) {
+            errorClass = classes.computeIfAbsent(name, key -> {
+                order.add(key);
+                return new ErrorClass();
+            });
+        }
+
+        errorClass.count.incrementAndGet();
+        errorClass.sample(error);
+    }
+
+    /**
+     * @return errors per class recorded since the previous call, classes without new errors are left out
+     */
+    public Map<String, Long> drain() {
+
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        for (String name : names()) {
+            ErrorClass errorClass = classes.get(name);
+            if (errorClass == null) {
+                continue;
+            }
+            long count = errorClass.count.get();
+            long delta = count - errorClass.drained;
+            errorClass.drained = count;
+            if (delta > 0) {
+                result.put(name, delta);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return total errors per class, in the order the classes first occurred
+     */
+    public Map<String, Long> totals() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String name : names()) {
+            ErrorClass errorClass = classes.get(name);
+            if (errorClass != null) {
+                result.put(name, errorClass.count.get());
+            }
+        }
+        return result;
+    }
+
+    public List<String> samples(String name) {
+        ErrorClass errorClass = classes.get(name);
+        if (errorClass == null) {
+            return Collections.emptyList();
+        }
+        synchronized (errorClass.samples) {
+            return new ArrayList<>(errorClass.samples);
+        }
+    }
+
+    private List<String> names() {
+        synchronized (order) {
+            return new ArrayList<>(order);
+        }
+    }
+
+    private static class ErrorClass {
+
+        private final AtomicLong count = new AtomicLong();
+        private final List<String> samples = new ArrayList<>(MAX_SAMPLES);
+
+        /**
+         * only accessed by the thread calling drain
+         */
+        private long drained = 0;
+
+        /**
+         * A full sample list is checked without the lock, errors of a failing run do not contend on it.
+         */
+        private volatile boolean full = false;
+
+        private void sample(Throwable error) {
+
+            if (full) {
+                return;
+            }
+
+            String message = error == null ? "" : String.valueOf(error.getMessage());
+            if (message.length() > MAX_MESSAGE_LENGTH) {
+                message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+            }
+
+            synchronized (samples) {
+                if (samples.size() < MAX_SAMPLES && !samples.contains(message)) {
+                    samples.add(message);
+                }
+                full = samples.size() >= MAX_SAMPLES;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable aggregate of the requests completed in one second of a stress run. All per-second figures of the
+ * report are derived from these, the counters written by the stress threads are read only once per second.
+ *
+ * @author banzhe
+ * @date 2026/10/19 00:10
+ **/
+public class IntervalSnapshot {
+
+    private final long second;
+    private final long success;
+    private final long failed;
+    private final long costSum;
+    private final long serviceCostSum;
+    private final LatencyHistogram histogram;
+    private final Map<String, Long> errors;
+
+    /**
+     * @param second epoch millis truncated to second
+     * @param costSum total response time of the successful requests in microseconds
+     * @param serviceCostSum total service time of the successful requests in microseconds
+     * @param histogram response times recorded since the previous snapshot, kept in its compact form
+     * @param errors errors per class recorded since the previous snapshot
+     */
+    public IntervalSnapshot(long second, long success, long failed, long costSum, long serviceCostSum, LatencyHistogram histogram, Map<String, Long> errors) {
+        this.second = second;
+        this.success = success;
+        this.failed = failed;
+        this.costSum = costSum;
+        this.serviceCostSum = serviceCostSum;
+        this.histogram = histogram.compact();
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public long getSecond() {
+        return second;
+    }
+
+    public long getSuccess() {
+        return success;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getTotal() {
+        return success + failed;
+    }
+
+    /**
+     * @return success rate in percent, 0 without requests
+     */
+    public double getSuccessRate() {
+        return getTotal() == 0 ? 0 : 100.0 * success / getTotal();
+    }
+
+    /**
+     * @return average response time in microseconds, 0 without successful requests
+     */
+    public double getAverageRt() {
+        return success == 0 ? 0 : (double) costSum / success;
+    }
+
+    /**
+     * @return average service time in microseconds, 0 without successful requests
+     */
+    public double getAverageServiceRt() {
+        return success == 0 ? 0 : (double) serviceCostSum / success;
+    }
+
+    /**
+     * @return total service time of the successful requests in microseconds
+     */
+    public long getServiceCostSum() {
+        return serviceCostSum;
+    }
+
+    public long getMinRt() {
+        return histogram.getMin();
+    }
+
+    public long getMaxRt() {
+        return histogram.getMax();
+    }
+
+    /**
+     * @return the histogram of the snapshot, callers must not modify it
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return errors per class of {@link ErrorClassifier}
+     */
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,349 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Log-linear bucketed latency histogram in the spirit of HdrHistogram. Values are microseconds.
+ * Values below {@link #SUB_BUCKET_COUNT} are recorded exactly, larger values share a bucket with
+ * neighbours whose distance is at most 1/{@link #SUB_BUCKET_HALF} of the value, so memory is fixed
+ * no matter how many samples are recorded.
+ * <p>
+ * A histogram is dense, holding a count for every bucket, or compact, holding the non-empty buckets only. Compact
+ * histograms are immutable and a few hundred bytes, they back the per-second snapshots of a run, while the dense
+ * ones are about 30 KB and only kept for the running totals.
+ * <p>
+ * Not thread safe, use {@link LatencyRecorder} for concurrent recording.
+ *
+ * @author banzhe
+ * @date 2026/10/18 10:12
+ **/
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 8;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * 2^36 microseconds, about 19 hours. Larger values are clamped.
+     */
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << 36) - 1;
+
+    static final int BUCKET_COUNT = indexOf(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    /**
+     * shared by the snapshots without requests
+     */
+    public static final LatencyHistogram EMPTY = new LatencyHistogram(new int[0], new long[0]);
+
+    /**
+     * bucket of each slot in ascending order, null for a dense histogram whose slot is its bucket
+     */
+    private final int[] indexes;
+
+    /**
+     * count of each slot
+     */
+    private final long[] counts;
+
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public LatencyHistogram() {
+        this.indexes = null;
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    private LatencyHistogram(int[] indexes, long[] counts) {
+        this.indexes = indexes;
+        this.counts = counts;
+    }
+
+    public void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    public void recordValue(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        checkDense();
+        value = clamp(value);
+
+        counts[indexOf(value)] += count;
+        totalCount += count;
+        sum += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void add(LatencyHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        checkDense();
+        for (int slot = 0; slot < other.slots(); slot++) {
+            counts[other.bucketAt(slot)] += other.counts[slot];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Turn this cumulative histogram into the delta since {@code previous}, an earlier snapshot of the
+     * same recorder. Min and max of the delta are bucket bounds rather than exact values.
+     *
+     * @return a compact histogram
+     */
+    public LatencyHistogram subtract(LatencyHistogram previous) {
+        int buckets = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (countAt(i) > previous.countAt(i)) {
+                buckets++;
+            }
+        }
+        if (buckets == 0) {
+            return EMPTY;
+        }
+
+        LatencyHistogram delta = new LatencyHistogram(new int[buckets], new long[buckets]);
+        int slot = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = countAt(i) - previous.countAt(i);
+            if (count > 0) {
+                delta.indexes[slot] = i;
+                delta.counts[slot++] = count;
+                delta.totalCount += count;
+            }
+        }
+        delta.sum = sum - previous.sum;
+        delta.min = Math.max(lowestEquivalentValue(delta.indexes[0]), getMin());
+        delta.max = Math.min(highestEquivalentValue(delta.indexes[buckets - 1]), max);
+        return delta;
+    }
+
+    /**
+     * @return an immutable copy holding the non-empty buckets only, this if it is compact already
+     */
+    public LatencyHistogram compact() {
+        if (indexes != null) {
+            return this;
+        }
+        if (totalCount == 0) {
+            return EMPTY;
+        }
+
+        int buckets = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                buckets++;
+            }
+        }
+
+        LatencyHistogram compact = new LatencyHistogram(new int[buckets], new long[buckets]);
+        int slot = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) {
+                compact.indexes[slot] = i;
+                compact.counts[slot++] = counts[i];
+            }
+        }
+        compact.totalCount = totalCount;
+        compact.sum = sum;
+        compact.min = min;
+        compact.max = max;
+        return compact;
+    }
+
+    public boolean isCompact() {
+        return indexes != null;
+    }
+
+    long countAt(int index) {
+        if (indexes == null) {
+            return counts[index];
+        }
+        int slot = Arrays.binarySearch(indexes, index);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * @return number of slots, every bucket for a dense histogram and the non-empty ones for a compact one
+     */
+    int slots() {
+        return counts.length;
+    }
+
+    int bucketAt(int slot) {
+        return indexes == null ? slot : indexes[slot];
+    }
+
+    long countInSlot(int slot) {
+        return counts[slot];
+    }
+
+    void addToBucket(int index, long count) {
+        checkDense();
+        counts[index] += count;
+        totalCount += count;
+    }
+
+    void mergeStats(long sum, long min, long max) {
+        this.sum += sum;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    public void reset() {
+        checkDense();
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : 1.0 * sum / totalCount;
+    }
+
+    /**
+     * @param percentile in range [0, 100]
+     * @return the highest value equivalent to the bucket the percentile falls in, never larger than the recorded max
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Percentiles.countAtPercentile(requested, totalCount);
+
+        long total = 0;
+        for (int slot = 0; slot < slots(); slot++) {
+            total += counts[slot];
+            if (total >= countAtPercentile) {
+                return Math.max(Math.min(highestEquivalentValue(bucketAt(slot)), max), getMin());
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Write the non-empty buckets only, a histogram of a stress run is a few KB.
+     */
+    public void write(DataOutput out) throws IOException {
+        int buckets = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                buckets++;
+            }
+        }
+
+        out.writeLong(sum);
+        out.writeLong(getMin());
+        out.writeLong(max);
+        out.writeInt(buckets);
+
+        for (int slot = 0; slot < slots(); slot++) {
+            if (counts[slot] > 0) {
+                out.writeInt(bucketAt(slot));
+                out.writeLong(counts[slot]);
+            }
+        }
+    }
+
+    public static LatencyHistogram read(DataInput in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        long sum = in.readLong();
+        long min = in.readLong();
+        long max = in.readLong();
+        int buckets = in.readInt();
+
+        for (int i = 0; i < buckets; i++) {
+            int index = in.readInt();
+            long count = in.readLong();
+            if (index < 0 || index >= BUCKET_COUNT || count <= 0) {
+                throw new IOException("corrupted latency histogram.");
+            }
+            histogram.addToBucket(index, count);
+        }
+
+        if (histogram.totalCount > 0) {
+            histogram.mergeStats(sum, min, max);
+        }
+
+        return histogram;
+    }
+
+    private void checkDense() {
+        if (indexes != null) {
+            throw new UnsupportedOperationException("a compact latency histogram is immutable.");
+        }
+    }
+
+    static long clamp(long value) {
+        if (value < 0) {
+            return 0;
+        }
+        return Math.min(value, HIGHEST_TRACKABLE_VALUE);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // value >>> shift always falls in [SUB_BUCKET_HALF, SUB_BUCKET_COUNT)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (int) ((value >>> shift) - SUB_BUCKET_HALF);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF + 1;
+        long subBucket = offset % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return subBucket << shift;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+
+}
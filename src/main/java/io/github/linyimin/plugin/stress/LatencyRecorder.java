@@ -0,0 +1,79 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency recorder. Every thread records into one of a fixed number of striped primitive
+ * histograms, stripes are merged into a {@link LatencyHistogram} on read.
+ *
+ * @author banzhe
+ * @date 2026/10/18 10:40
+ **/
+public class LatencyRecorder {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public LatencyRecorder() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public LatencyRecorder(int concurrency) {
+        int size = Integer.highestOneBit(Math.min(Math.max(concurrency, 1), 64) * 2 - 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    public void record(long micros) {
+        stripes[(int) Thread.currentThread().getId() & mask].record(LatencyHistogram.clamp(micros));
+    }
+
+    public LatencyHistogram snapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (Stripe stripe : stripes) {
+            stripe.mergeInto(histogram);
+        }
+        return histogram;
+    }
+
+    private static class Stripe {
+
+        private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long value) {
+            counts.incrementAndGet(LatencyHistogram.indexOf(value));
+            sum.addAndGet(value);
+
+            long current;
+            while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+                Thread.onSpinWait();
+            }
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                Thread.onSpinWait();
+            }
+
+            count.incrementAndGet();
+        }
+
+        private void mergeInto(LatencyHistogram histogram) {
+            if (count.get() == 0) {
+                return;
+            }
+            for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+                long value = counts.get(i);
+                if (value > 0) {
+                    histogram.addToBucket(i, value);
+                }
+            }
+            histogram.mergeStats(sum.get(), min.get(), max.get());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-model load generator: every worker runs the request in a loop until {@link #stop()}.
+ * <p>
+ * The number of workers and the number of requests executing at the same time are independent, a worker
+ * has to take a permit from the in-flight limit before each request. Keep the limit at or below the max
+ * active connections of the datasource, otherwise the excess only waits in the pool and inflates RT.
+ *
+ * @author banzhe
+ * @date 2026/10/18 15:40
+ **/
+public class LoadGenerator {
+
+    public static final String WORKER_NAME_PREFIX = "sql-stress-worker-";
+
+    /**
+     * upper bound of workers, platform threads are about 1MB of stack each
+     */
+    public static final int MAX_WORKERS = 2000;
+
+    private final ThreadModeEnum threadMode;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int inFlightLimit;
+
+    private final AtomicInteger workerCount = new AtomicInteger(0);
+
+    private volatile boolean stopped = false;
+
+    public LoadGenerator(ThreadModeEnum threadMode, int inFlightLimit) {
+
+        if (!threadMode.isSupported()) {
+            throw new IllegalArgumentException(String.format("thread mode %s is not supported by the running JDK.", threadMode));
+        }
+        if (inFlightLimit <= 0) {
+            throw new IllegalArgumentException("in-flight limit should be greater than 0.");
+        }
+
+        this.threadMode = threadMode;
+        this.inFlightLimit = inFlightLimit;
+        this.inFlight = new Semaphore(inFlightLimit);
+        this.executor = Executors.newCachedThreadPool(createThreadFactory(threadMode));
+    }
+
+    /**
+     * Start one more worker which runs {@code request} repeatedly. The request is expected to handle its own
+     * exceptions, an uncaught exception ends the worker.
+     */
+    public void addWorker(Runnable request) {
+        if (stopped) {
+            throw new IllegalStateException("load generator has been stopped.");
+        }
+        if (workerCount.get() >= MAX_WORKERS) {
+            throw new IllegalStateException(String.format("the number of workers should be less than or equal to %s.", MAX_WORKERS));
+        }
+
+        workerCount.incrementAndGet();
+        try {
+            executor.execute(() -> work(request));
+        } catch (RejectedExecutionException e) {
+            workerCount.decrementAndGet();
+            throw new IllegalStateException("load generator has been stopped.", e);
+        }
+    }
+
+    private void work(Runnable request) {
+        try {
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                inFlight.acquire();
+                try {
+                    if (stopped) {
+                        return;
+                    }
+                    request.run();
+                } finally {
+                    inFlight.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workerCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stop accepting workers and interrupt the running ones. Requests blocked in the driver finish on their own.
+     */
+    public void stop() {
+        this.stopped = true;
+        this.executor.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * {@link #stop()} and wait for the workers to exit.
+     *
+     * @return false if some worker is still running after the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        stop();
+        try {
+            return awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public ThreadModeEnum getThreadMode() {
+        return threadMode;
+    }
+
+    public int getInFlightLimit() {
+        return inFlightLimit;
+    }
+
+    /**
+     * @return requests executing right now
+     */
+    public int getInFlight() {
+        return inFlightLimit - inFlight.availablePermits();
+    }
+
+    public int getWorkerCount() {
+        return workerCount.get();
+    }
+
+    static ThreadFactory createThreadFactory(ThreadModeEnum threadMode) {
+
+        if (threadMode == ThreadModeEnum.virtual) {
+            return threadMode.virtualThreadFactory();
+        }
+
+        AtomicInteger index = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, WORKER_NAME_PREFIX + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,385 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parameter values generated before a stress run, so that workers do not run the mock generators on the hot path.
+ * <p>
+ * Values are stored per column in primitive arrays: integral values as long[], decimal values as double[] and
+ * everything else as int[] codes into a dictionary of distinct strings. A request takes one row with a shared
+ * atomic cursor which wraps around after {@link #size()} rows, so its parameters come from the same row and the
+ * values bound in a run don't depend on the number of parameters. Further values of the same column in a request,
+ * like the ends of a between, are read from the rows following it.
+ *
+ * @author banzhe
+ * @date 2026/10/18 20:10
+ **/
+public class ParameterCorpus {
+
+    public static final int MAX_SIZE = 1_000_000;
+
+    private static final int MAGIC = 0x53435043;
+    private static final int VERSION = 1;
+
+    private static final byte LONG_COLUMN = 1;
+    private static final byte DOUBLE_COLUMN = 2;
+    private static final byte STRING_COLUMN = 3;
+
+    private final List<String> keys;
+    private final Column[] columns;
+    private final int size;
+
+    private final AtomicLong cursor = new AtomicLong(0);
+
+    private ParameterCorpus(List<String> keys, Column[] columns, int size) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Generate {@code size} values for every key.
+     *
+     * @param keys column keys, e.g. table.field
+     */
+    public static ParameterCorpus generate(List<String> keys, int size, ValueSource source) throws Exception {
+
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException(String.format("corpus size should be in range [1, %s].", MAX_SIZE));
+        }
+
+        Column[] columns = new Column[keys.size()];
+        Object[] values = new Object[size];
+
+        for (int column = 0; column < keys.size(); column++) {
+            for (int row = 0; row < size; row++) {
+                values[row] = source.value(column);
+            }
+            columns[column] = encode(values);
+        }
+
+        return new ParameterCorpus(new ArrayList<>(keys), columns, size);
+    }
+
+    private static Column encode(Object[] values) {
+
+        boolean integral = true;
+        boolean decimal = true;
+
+        for (Object value : values) {
+            integral = integral && (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte);
+            decimal = decimal && (value instanceof Double || value instanceof Float);
+        }
+
+        if (integral) {
+            long[] longs = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                longs[i] = ((Number) values[i]).longValue();
+            }
+            return new LongColumn(longs);
+        }
+
+        if (decimal) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                doubles[i] = ((Number) values[i]).doubleValue();
+            }
+            return new DoubleColumn(doubles);
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] codes = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                codes[i] = -1;
+                continue;
+            }
+            String value = values[i].toString();
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = strings.size();
+                dictionary.put(value, code);
+                strings.add(value);
+            }
+            codes[i] = code;
+        }
+
+        return new StringColumn(codes, strings.toArray(new String[0]));
+    }
+
+    /**
+     * @return the index of the column or -1, keys are case insensitive
+     */
+    public int indexOf(String key) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i).equalsIgnoreCase(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Take the next row for one request, safe to call from any number of threads.
+     *
+     * @param columns column of each parameter of the request
+     * @param offsets occurrence of each parameter's column in the request, see {@link #occurrences(int[])}
+     * @return the values of the parameters, occurrence k of a column, e.g. the end of a between or the second
+     * element of an in, is read from the k-th row after the request's row
+     */
+    public Object[] nextValues(int[] columns, int[] offsets) {
+        int row = nextRow();
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = value(columns[i], (row + offsets[i]) % size);
+        }
+        return values;
+    }
+
+    /**
+     * @param columns column of each parameter of the request
+     * @return how many parameters before each one read the same column
+     */
+    public static int[] occurrences(int[] columns) {
+        int[] occurrences = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (columns[j] == columns[i]) {
+                    occurrences[i]++;
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * @return the next row, to be taken once per request
+     */
+    public int nextRow() {
+        return (int) Math.floorMod(cursor.getAndIncrement(), (long) size);
+    }
+
+    public Object value(int column, int row) {
+        return columns[column].get(row);
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void save(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    public static ParameterCorpus load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(size);
+        out.writeInt(keys.size());
+
+        for (int i = 0; i < keys.size(); i++) {
+            writeString(out, keys.get(i));
+            columns[i].write(out);
+        }
+
+        out.flush();
+    }
+
+    public static ParameterCorpus read(InputStream stream) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a parameter corpus or written by an incompatible version.");
+        }
+
+        int size = in.readInt();
+        int count = in.readInt();
+        if (size <= 0 || size > MAX_SIZE || count < 0) {
+            throw new IOException("corrupted parameter corpus.");
+        }
+
+        List<String> keys = new ArrayList<>(count);
+        Column[] columns = new Column[count];
+
+        for (int i = 0; i < count; i++) {
+            keys.add(readString(in));
+            columns[i] = readColumn(in, size);
+        }
+
+        return new ParameterCorpus(keys, columns, size);
+    }
+
+    private static Column readColumn(DataInputStream in, int size) throws IOException {
+
+        byte type = in.readByte();
+
+        if (type == LONG_COLUMN) {
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = in.readLong();
+            }
+            return new LongColumn(values);
+        }
+
+        if (type == DOUBLE_COLUMN) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = in.readDouble();
+            }
+            return new DoubleColumn(values);
+        }
+
+        if (type == STRING_COLUMN) {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(in);
+            }
+            int[] codes = new int[size];
+            for (int i = 0; i < size; i++) {
+                codes[i] = in.readInt();
+                if (codes[i] < -1 || codes[i] >= dictionary.length) {
+                    throw new IOException("corrupted parameter corpus.");
+                }
+            }
+            return new StringColumn(codes, dictionary);
+        }
+
+        throw new IOException("unknown column type " + type);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("corrupted parameter corpus.");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Supplies one generated value of a column, called {@link #size()} times per column.
+     */
+    public interface ValueSource {
+        Object value(int column) throws Exception;
+    }
+
+    private interface Column {
+        Object get(int row);
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static class LongColumn implements Column {
+
+        private final long[] values;
+
+        private LongColumn(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeByte(LONG_COLUMN);
+            for (long value : values) {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    private static class DoubleColumn implements Column {
+
+        private final double[] values;
+
+        private DoubleColumn(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeByte(DOUBLE_COLUMN);
+            for (double value : values) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    private static class StringColumn implements Column {
+
+        private final int[] codes;
+        private final String[] dictionary;
+
+        private StringColumn(int[] codes, String[] dictionary) {
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public Object get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeByte(STRING_COLUMN);
+            out.writeInt(dictionary.length);
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+            for (int code : codes) {
+                out.writeInt(code);
+            }
+        }
+    }
+}
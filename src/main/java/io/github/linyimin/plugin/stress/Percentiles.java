@@ -0,0 +1,102 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.Arrays;
+
+/**
+ * Configurable set of percentiles evaluated against a {@link LatencyHistogram} in a single pass.
+ * The relative error of every reported value is bounded by {@link #RELATIVE_ERROR}.
+ *
+ * @author banzhe
+ * @date 2026/10/18 13:20
+ **/
+public class Percentiles {
+
+    public static final double RELATIVE_ERROR = 1.0 / LatencyHistogram.SUB_BUCKET_HALF;
+
+    public static final String DEFAULT_PERCENTILES = "50,90,95,99,99.9";
+
+    private final double[] percentiles;
+
+    public Percentiles(double... percentiles) {
+        if (percentiles.length == 0) {
+            throw new IllegalArgumentException("at least one percentile is required.");
+        }
+
+        double[] sorted = Arrays.stream(percentiles).sorted().distinct().toArray();
+        if (sorted[0] <= 0 || sorted[sorted.length - 1] > 100) {
+            throw new IllegalArgumentException("percentile should be in range (0, 100].");
+        }
+
+        this.percentiles = sorted;
+    }
+
+    /**
+     * @param text comma separated percentiles, e.g. "50,90,99.9"
+     */
+    public static Percentiles parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            text = DEFAULT_PERCENTILES;
+        }
+
+        double[] values = Arrays.stream(text.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+
+        return new Percentiles(values);
+    }
+
+    public double[] getPercentiles() {
+        return percentiles.clone();
+    }
+
+    public int size() {
+        return percentiles.length;
+    }
+
+    public String label(int index) {
+        double percentile = percentiles[index];
+        if (percentile == Math.rint(percentile)) {
+            return String.format("TP%d", (long) percentile);
+        }
+        String value = String.format("%.3f", percentile);
+        int end = value.length();
+        while (value.charAt(end - 1) == '0') {
+            end--;
+        }
+        return "TP" + value.substring(0, end);
+    }
+
+    /**
+     * @return value of each configured percentile, in the same order as {@link #getPercentiles()}
+     */
+    public long[] valuesOf(LatencyHistogram histogram) {
+
+        long[] values = new long[percentiles.length];
+        long totalCount = histogram.getTotalCount();
+
+        if (totalCount == 0) {
+            return values;
+        }
+
+        int next = 0;
+        long total = 0;
+        for (int slot = 0; slot < histogram.slots() && next < percentiles.length; slot++) {
+            total += histogram.countInSlot(slot);
+            while (next < percentiles.length && total >= countAtPercentile(percentiles[next], totalCount)) {
+                values[next++] = Math.max(Math.min(LatencyHistogram.highestEquivalentValue(histogram.bucketAt(slot)), histogram.getMax()), histogram.getMin());
+            }
+        }
+
+        while (next < percentiles.length) {
+            values[next++] = histogram.getMax();
+        }
+
+        return values;
+    }
+
+    static long countAtPercentile(double percentile, long totalCount) {
+        return Math.max((long) Math.ceil(percentile / 100 * totalCount), 1);
+    }
+}
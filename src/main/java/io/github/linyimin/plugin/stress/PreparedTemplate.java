@@ -0,0 +1,111 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stress sql template compiled into a statement with positional parameters. Every placeholder produced for
+ * the template, {@code ${table.column}}, {@code __in__${table.column}__0__} and
+ * {@code __between__${table.column}__start__}, quoted or not, becomes one {@code ?}. The template can also be
+ * rendered into plain sql with the values inlined, without scanning the text again per request.
+ *
+ * @author banzhe
+ * @date 2026/10/18 17:40
+ **/
+public class PreparedTemplate {
+
+    private static final String PLACEHOLDER = "(?:__in__|__between__)?\\$\\{([\\w.]+)}(?:__(?:\\d+|start|end)__)?";
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(String.format("'%s'|%s", PLACEHOLDER, PLACEHOLDER), Pattern.CASE_INSENSITIVE);
+
+    private final String sql;
+    private final List<String> parameterKeys;
+
+    /**
+     * the text before each parameter and after the last one
+     */
+    private final String[] fragments;
+    private final boolean[] quoted;
+
+    private PreparedTemplate(String sql, List<String> parameterKeys, String[] fragments, boolean[] quoted) {
+        this.sql = sql;
+        this.parameterKeys = Collections.unmodifiableList(parameterKeys);
+        this.fragments = fragments;
+        this.quoted = quoted;
+    }
+
+    public static PreparedTemplate compile(String templateSql) {
+
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(templateSql);
+
+        StringBuilder sql = new StringBuilder();
+        List<String> keys = new ArrayList<>();
+        List<String> fragments = new ArrayList<>();
+        List<Boolean> quoted = new ArrayList<>();
+
+        int end = 0;
+        while (matcher.find()) {
+            String key = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            keys.add(key.toLowerCase());
+            quoted.add(matcher.group(1) != null);
+            fragments.add(templateSql.substring(end, matcher.start()));
+            end = matcher.end();
+            matcher.appendReplacement(sql, "?");
+        }
+        matcher.appendTail(sql);
+        fragments.add(templateSql.substring(end));
+
+        boolean[] quotedArray = new boolean[quoted.size()];
+        for (int i = 0; i < quotedArray.length; i++) {
+            quotedArray[i] = quoted.get(i);
+        }
+
+        return new PreparedTemplate(sql.toString(), keys, fragments.toArray(new String[0]), quotedArray);
+    }
+
+    /**
+     * Inline the values into the template: numbers replace a quoted placeholder with its quotes, other values keep
+     * the quotes written around the placeholder.
+     *
+     * @param values a value per parameter, in the order of {@link #getParameterKeys()}
+     */
+    public String render(Object[] values) {
+
+        StringBuilder sql = new StringBuilder(fragments[0]);
+
+        for (int i = 0; i < quoted.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                sql.append("NULL");
+            } else if (quoted[i] && !(value instanceof Number)) {
+                sql.append('\'').append(value).append('\'');
+            } else {
+                sql.append(value);
+            }
+            sql.append(fragments[i + 1]);
+        }
+
+        return sql.toString();
+    }
+
+    /**
+     * @return sql with positional parameters
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return lower case {@code table.column} or {@code column} of every parameter, in parameter order
+     */
+    public List<String> getParameterKeys() {
+        return parameterKeys;
+    }
+
+    public int getParameterCount() {
+        return parameterKeys.size();
+    }
+}
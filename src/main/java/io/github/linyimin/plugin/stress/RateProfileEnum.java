@@ -0,0 +1,22 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Shape of the target arrival rate of an open-model stress run.
+ *
+ * @author banzhe
+ * @date 2026/10/18 16:30
+ **/
+public enum RateProfileEnum {
+    /**
+     * target QPS from the first second
+     */
+    constant,
+    /**
+     * start QPS, raised by start QPS after every step duration until target QPS
+     */
+    step,
+    /**
+     * linear from start QPS to target QPS within the ramp duration
+     */
+    ramp
+}
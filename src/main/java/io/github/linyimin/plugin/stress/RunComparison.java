@@ -0,0 +1,273 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compares a candidate stress run with a baseline run. Per-second samples of both runs are tested with the
+ * Mann-Whitney U test, which makes no assumption about the latency distribution. A metric is a regression only
+ * if the difference is significant and larger than {@link #MIN_CHANGE}, so noise and tiny shifts are not flagged.
+ *
+ * @author banzhe
+ * @date 2026/10/18 22:50
+ **/
+public class RunComparison {
+
+    public static final double SIGNIFICANCE = 0.05;
+
+    /**
+     * relative change below which a significant difference is still reported as unchanged
+     */
+    public static final double MIN_CHANGE = 0.05;
+
+    /**
+     * seconds of samples each run needs for the test
+     */
+    public static final int MIN_SAMPLES = 5;
+
+    private static final String P99 = StressRun.P99_RT;
+
+    private static final String PERCENTILE_PREFIX = "TP";
+
+    private RunComparison() {
+    }
+
+    /**
+     * Runs persisted before TP99 was always recorded may only hold the percentiles shown at the time, those fall
+     * back to the highest percentile persisted in both runs.
+     *
+     * @return the per-second percentile series to compare the runs by, null if they have none in common
+     */
+    public static String percentileSeries(StressRun baseline, StressRun candidate) {
+
+        if (baseline.getSeries().containsKey(P99) && candidate.getSeries().containsKey(P99)) {
+            return P99;
+        }
+
+        String highest = null;
+        for (String name : baseline.getSeries().keySet()) {
+            double percentile = percentileOf(name);
+            if (percentile > 0 && candidate.getSeries().containsKey(name) && (highest == null || percentile > percentileOf(highest))) {
+                highest = name;
+            }
+        }
+
+        return highest;
+    }
+
+    /**
+     * @return the percentile of a series named like TP99.9, 0 if it is not a percentile series
+     */
+    static double percentileOf(String series) {
+        if (!series.startsWith(PERCENTILE_PREFIX)) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(series.substring(PERCENTILE_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static List<Item> compare(StressRun baseline, StressRun candidate) {
+
+        List<Item> items = new ArrayList<>();
+
+        items.add(compare("平均RT(ms)",
+                baseline.getHistogram().getMean() / 1000, candidate.getHistogram().getMean() / 1000,
+                baseline.getSeries(StressRun.AVERAGE_RT).values(), candidate.getSeries(StressRun.AVERAGE_RT).values(), true));
+
+        String series = percentileSeries(baseline, candidate);
+        String percentileName = series == null ? P99 : series;
+        double percentile = percentileOf(percentileName);
+        String metric = percentileName.equals(P99) ? P99 + "(ms)" : String.format("%s(ms, 无%s数据)", percentileName, P99);
+        items.add(compare(metric,
+                baseline.getHistogram().getValueAtPercentile(percentile) / 1000.0, candidate.getHistogram().getValueAtPercentile(percentile) / 1000.0,
+                baseline.getSeries(percentileName).values(), candidate.getSeries(percentileName).values(), true));
+
+        Collection<Double> baselineTps = baseline.getSeries(StressRun.TPS).values();
+        Collection<Double> candidateTps = candidate.getSeries(StressRun.TPS).values();
+        items.add(compare(StressRun.TPS, mean(trim(baselineTps)), mean(trim(candidateTps)), baselineTps, candidateTps, false));
+
+        items.add(compare("请求成功率(%)",
+                successRate(baseline), successRate(candidate),
+                baseline.getSeries(StressRun.SUCCESS_RATE).values(), candidate.getSeries(StressRun.SUCCESS_RATE).values(), false));
+
+        return items;
+    }
+
+    /**
+     * @param higherIsWorse true for latencies, false for throughput
+     */
+    static Item compare(String metric, double baselineValue, double candidateValue,
+                        Collection<Double> baselineSamples, Collection<Double> candidateSamples, boolean higherIsWorse) {
+
+        double change = baselineValue == 0 ? (candidateValue == 0 ? 0 : Double.POSITIVE_INFINITY) : (candidateValue - baselineValue) / baselineValue;
+
+        double[] x = trim(baselineSamples);
+        double[] y = trim(candidateSamples);
+
+        if (x.length < MIN_SAMPLES || y.length < MIN_SAMPLES) {
+            return new Item(metric, baselineValue, candidateValue, change, Double.NaN, Verdict.insufficient);
+        }
+
+        double pValue = mannWhitneyPValue(x, y);
+
+        boolean worse = higherIsWorse ? change > MIN_CHANGE : change < -MIN_CHANGE;
+        boolean better = higherIsWorse ? change < -MIN_CHANGE : change > MIN_CHANGE;
+
+        Verdict verdict = Verdict.unchanged;
+        if (pValue < SIGNIFICANCE && worse) {
+            verdict = Verdict.regression;
+        } else if (pValue < SIGNIFICANCE && better) {
+            verdict = Verdict.improvement;
+        }
+
+        return new Item(metric, baselineValue, candidateValue, change, pValue, verdict);
+    }
+
+    /**
+     * Two-sided p-value of the Mann-Whitney U test with tie correction, normal approximation.
+     */
+    static double mannWhitneyPValue(double[] x, double[] y) {
+
+        int n1 = x.length;
+        int n2 = y.length;
+        int n = n1 + n2;
+
+        double[][] all = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            all[i] = new double[]{x[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            all[n1 + i] = new double[]{y[i], 1};
+        }
+        Arrays.sort(all, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSumX = 0;
+        double tieCorrection = 0;
+
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && all[j + 1][0] == all[i][0]) {
+                j++;
+            }
+            // ranks are 1 based, tied values share the average rank
+            double rank = (i + j + 2) / 2.0;
+            for (int k = i; k <= j; k++) {
+                if (all[k][1] == 0) {
+                    rankSumX += rank;
+                }
+            }
+            double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+
+        double u = rankSumX - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+
+        if (variance <= 0) {
+            return 1;
+        }
+
+        double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        if (z <= 0) {
+            return 1;
+        }
+
+        return Math.min(1, 2 * (1 - normalCdf(z)));
+    }
+
+    /**
+     * Abramowitz and Stegun 7.1.26, absolute error below 1.5e-7
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    /**
+     * The first and the last second of a run are partial, they would bias per-second samples.
+     */
+    private static double[] trim(Collection<Double> samples) {
+        double[] values = samples.stream().mapToDouble(Double::doubleValue).toArray();
+        if (values.length <= 2) {
+            return new double[0];
+        }
+        return Arrays.copyOfRange(values, 1, values.length - 1);
+    }
+
+    private static double mean(double[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    private static double successRate(StressRun run) {
+        long total = run.getSuccess() + run.getFailed();
+        return total == 0 ? 0 : 100.0 * run.getSuccess() / total;
+    }
+
+    public enum Verdict {
+        regression,
+        improvement,
+        unchanged,
+        /**
+         * not enough seconds of samples to test
+         */
+        insufficient
+    }
+
+    public static class Item {
+
+        private final String metric;
+        private final double baseline;
+        private final double candidate;
+        private final double change;
+        private final double pValue;
+        private final Verdict verdict;
+
+        private Item(String metric, double baseline, double candidate, double change, double pValue, Verdict verdict) {
+            this.metric = metric;
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.change = change;
+            this.pValue = pValue;
+            this.verdict = verdict;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public double getBaseline() {
+            return baseline;
+        }
+
+        public double getCandidate() {
+            return candidate;
+        }
+
+        /**
+         * @return (candidate - baseline) / baseline
+         */
+        public double getChange() {
+            return change;
+        }
+
+        /**
+         * @return NaN if not tested
+         */
+        public double getPValue() {
+            return pValue;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+    }
+}
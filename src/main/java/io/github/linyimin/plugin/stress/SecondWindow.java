@@ -0,0 +1,96 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size ring of per-second primitive counters (success count, total response time, total service time,
+ * failed count).
+ * A slot is claimed by the second (epoch millis truncated to second) it belongs to, a stale slot
+ * is reset the first time a newer second lands on it.
+ *
+ * @author banzhe
+ * @date 2026/10/18 11:05
+ **/
+public class SecondWindow {
+
+    /**
+     * Larger than the longest stress duration (1 hour), so a run never overwrites its own seconds.
+     */
+    private static final int CAPACITY = 4096;
+    private static final long RESETTING = -1;
+
+    private final AtomicLongArray seconds = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray success = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray cost = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray serviceCost = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray failed = new AtomicLongArray(CAPACITY);
+
+    public void addSuccess(long second, long costMicros) {
+        addSuccess(second, costMicros, costMicros);
+    }
+
+    /**
+     * @param costMicros response time, measured from the intended send time
+     * @param serviceMicros time the database spent on the request
+     */
+    public void addSuccess(long second, long costMicros, long serviceMicros) {
+        int slot = claim(second);
+        success.incrementAndGet(slot);
+        cost.addAndGet(slot, costMicros);
+        serviceCost.addAndGet(slot, serviceMicros);
+    }
+
+    public void addFailed(long second) {
+        failed.incrementAndGet(claim(second));
+    }
+
+    public long success(long second) {
+        int slot = slot(second);
+        return seconds.get(slot) == second ? success.get(slot) : 0;
+    }
+
+    public long cost(long second) {
+        int slot = slot(second);
+        return seconds.get(slot) == second ? cost.get(slot) : 0;
+    }
+
+    public long serviceCost(long second) {
+        int slot = slot(second);
+        return seconds.get(slot) == second ? serviceCost.get(slot) : 0;
+    }
+
+    public long failed(long second) {
+        int slot = slot(second);
+        return seconds.get(slot) == second ? failed.get(slot) : 0;
+    }
+
+    private int claim(long second) {
+        int slot = slot(second);
+        while (true) {
+            long current = seconds.get(slot);
+            if (current == second) {
+                return slot;
+            }
+            if (current == RESETTING) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (current > second) {
+                // a late sample for a second already evicted, account it to the newer second
+                return slot;
+            }
+            if (seconds.compareAndSet(slot, current, RESETTING)) {
+                success.set(slot, 0);
+                cost.set(slot, 0);
+                serviceCost.set(slot, 0);
+                failed.set(slot, 0);
+                seconds.set(slot, second);
+                return slot;
+            }
+        }
+    }
+
+    private int slot(long second) {
+        return (int) ((second / 1000) & (CAPACITY - 1));
+    }
+}
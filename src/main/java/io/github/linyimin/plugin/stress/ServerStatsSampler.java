@@ -0,0 +1,211 @@
+package io.github.linyimin.plugin.stress;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Polls counters of the database server once per second on a connection of its own while a stress runs, so that
+ * rows examined and lock contention can be read next to the client side response time. Counters are turned into
+ * rates per second, gauges are kept as sampled.
+ * <p>
+ * MySQL is read from {@code SHOW GLOBAL STATUS}, Oracle from {@code v$sysstat} and {@code v$session_wait}. The
+ * first failing query, usually a missing privilege, stops the sampling without affecting the stress.
+ *
+ * @author banzhe
+ * @date 2026/10/19 04:00
+ **/
+public class ServerStatsSampler implements AutoCloseable {
+
+    public enum Group {
+        /**
+         * rows and blocks read by the server
+         */
+        reads,
+        /**
+         * running threads and lock waits
+         */
+        waits
+    }
+
+    static class Stat {
+
+        private final String name;
+        private final String label;
+        private final boolean counter;
+        private final Group group;
+
+        Stat(String name, String label, boolean counter, Group group) {
+            this.name = name;
+            this.label = label;
+            this.counter = counter;
+            this.group = group;
+        }
+    }
+
+    private static final List<Stat> MYSQL_STATS = Arrays.asList(
+            new Stat("Innodb_rows_read", "InnoDB读取行/s", true, Group.reads),
+            new Stat("Handler_read_key", "索引查找/s", true, Group.reads),
+            new Stat("Handler_read_next", "索引顺序读/s", true, Group.reads),
+            new Stat("Handler_read_rnd_next", "全表扫描读/s", true, Group.reads),
+            new Stat("Threads_running", "运行线程", false, Group.waits),
+            new Stat("Innodb_row_lock_current_waits", "当前行锁等待", false, Group.waits),
+            new Stat("Innodb_row_lock_waits", "行锁等待/s", true, Group.waits)
+    );
+
+    private static final List<Stat> ORACLE_STATS = Arrays.asList(
+            new Stat("session logical reads", "逻辑读/s", true, Group.reads),
+            new Stat("physical reads", "物理读/s", true, Group.reads),
+            new Stat("table scan rows gotten", "全表扫描读行/s", true, Group.reads),
+            new Stat("execute count", "执行次数/s", true, Group.reads),
+            new Stat("non-idle waits", "等待会话", false, Group.waits),
+            new Stat("row lock waits", "行锁等待会话", false, Group.waits)
+    );
+
+    private final Connection connection;
+    private final List<Stat> stats;
+    private final List<String> queries;
+    private final Consumer<Map<String, Double>> consumer;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sql-stress-server-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Map<String, Long> previous;
+    private long previousNanos;
+
+    private volatile SQLException error;
+
+    /**
+     * @param connection owned by the sampler from now on, closed by {@link #close()}
+     * @param databaseType mysql or oracle
+     * @param consumer receives label -> value of every sample, on the sampler thread
+     */
+    public ServerStatsSampler(Connection connection, String databaseType, Consumer<Map<String, Double>> consumer) {
+        this.connection = connection;
+        this.stats = stats(databaseType);
+        this.queries = queries(databaseType, this.stats);
+        this.consumer = consumer;
+    }
+
+    /**
+     * @return labels of the group in display order
+     */
+    public static List<String> labels(String databaseType, Group group) {
+        List<String> labels = new ArrayList<>();
+        for (Stat stat : stats(databaseType)) {
+            if (stat.group == group) {
+                labels.add(stat.label);
+            }
+        }
+        return labels;
+    }
+
+    public void start() {
+        executor.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the error which stopped the sampling, null if it is still sampling
+     */
+    public SQLException getError() {
+        return error;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void sample() {
+
+        Map<String, Long> current = new HashMap<>();
+        long now = System.nanoTime();
+
+        try (Statement statement = connection.createStatement()) {
+            for (String query : queries) {
+                try (ResultSet rs = statement.executeQuery(query)) {
+                    while (rs.next()) {
+                        current.put(rs.getString(1), rs.getLong(2));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            this.error = e;
+            executor.shutdown();
+            return;
+        }
+
+        Map<String, Double> sample = rates(stats, previous, current, now - previousNanos);
+
+        this.previous = current;
+        this.previousNanos = now;
+
+        consumer.accept(sample);
+    }
+
+    /**
+     * Counters are only reported from the second sample on, since their rate needs a previous value. A counter
+     * smaller than before, e.g. after {@code FLUSH STATUS}, is reported as 0.
+     */
+    static Map<String, Double> rates(List<Stat> stats, Map<String, Long> previous, Map<String, Long> current, long elapsedNanos) {
+
+        Map<String, Double> sample = new LinkedHashMap<>();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+
+        for (Stat stat : stats) {
+            Long value = current.get(stat.name);
+            if (value == null) {
+                continue;
+            }
+            if (!stat.counter) {
+                sample.put(stat.label, value.doubleValue());
+                continue;
+            }
+            Long before = previous == null ? null : previous.get(stat.name);
+            if (before != null && seconds > 0) {
+                sample.put(stat.label, Math.max(value - before, 0) / seconds);
+            }
+        }
+
+        return sample;
+    }
+
+    static List<Stat> stats(String databaseType) {
+        return "oracle".equals(databaseType) ? ORACLE_STATS : MYSQL_STATS;
+    }
+
+    private static List<String> queries(String databaseType, List<Stat> stats) {
+
+        if ("oracle".equals(databaseType)) {
+            return Arrays.asList(
+                    "select name, value from v$sysstat where name in ('session logical reads', 'physical reads', "
+                            + "'table scan rows gotten', 'execute count')",
+                    "select 'non-idle waits', count(*) from v$session_wait where wait_class <> 'Idle' "
+                            + "union all select 'row lock waits', count(*) from v$session_wait where event like 'enq: TX - row lock%'"
+            );
+        }
+
+        StringJoiner names = new StringJoiner("', '", "('", "')");
+        stats.forEach(stat -> names.add(stat.name));
+
+        return Collections.singletonList(String.format("SHOW GLOBAL STATUS WHERE Variable_name IN %s", names));
+    }
+}
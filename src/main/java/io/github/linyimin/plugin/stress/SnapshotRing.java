@@ -0,0 +1,70 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The latest per-second snapshots of a stress run, in time order. One thread adds a snapshot per second, any
+ * thread may read.
+ *
+ * @author banzhe
+ * @date 2026/10/19 00:15
+ **/
+public class SnapshotRing {
+
+    private final IntervalSnapshot[] snapshots;
+
+    /**
+     * number of snapshots ever added
+     */
+    private long added;
+
+    public SnapshotRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be greater than 0.");
+        }
+        this.snapshots = new IntervalSnapshot[capacity];
+    }
+
+    /**
+     * @param snapshot a snapshot of a later second than all snapshots added before
+     */
+    public synchronized void add(IntervalSnapshot snapshot) {
+        IntervalSnapshot latest = latest();
+        if (latest != null && snapshot.getSecond() <= latest.getSecond()) {
+            throw new IllegalArgumentException("snapshots should be added in time order.");
+        }
+        snapshots[(int) (added % snapshots.length)] = snapshot;
+        added++;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(added, snapshots.length);
+    }
+
+    /**
+     * @return null if empty
+     */
+    public synchronized IntervalSnapshot latest() {
+        return added == 0 ? null : snapshots[(int) ((added - 1) % snapshots.length)];
+    }
+
+    /**
+     * @return up to count of the latest snapshots, the oldest first
+     */
+    public synchronized List<IntervalSnapshot> latest(int count) {
+        int size = Math.min(count, size());
+        List<IntervalSnapshot> result = new ArrayList<>(size);
+        for (long i = added - size; i < added; i++) {
+            result.add(snapshots[(int) (i % snapshots.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @return all snapshots still in the ring, the oldest first
+     */
+    public List<IntervalSnapshot> toList() {
+        return latest(snapshots.length);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Decides where the warm-up of a stress ends: cold buffer pool, JIT and connection pool filling make the first
+ * seconds slower and less stable than the rest. The warm-up lasts at least the configured time; with a maximum
+ * coefficient of variation it lasts until a window of consecutive seconds whose TPS and average RT both vary
+ * by no more than it.
+ *
+ * @author banzhe
+ * @date 2026/10/19 05:00
+ **/
+public class SteadyStateDetector {
+
+    public static final int WINDOW_SECONDS = 10;
+
+    private final long minimumSecond;
+    private final double maxCv;
+
+    private final Deque<IntervalSnapshot> window = new ArrayDeque<>();
+
+    /**
+     * @param startSecond first second of the run, epoch millis
+     * @param warmupSeconds warm-up lasting at least
+     * @param maxCv coefficient of variation in percent, 0 to end the warm-up after the warm-up seconds
+     */
+    public SteadyStateDetector(long startSecond, long warmupSeconds, double maxCv) {
+        this.minimumSecond = startSecond + warmupSeconds * 1000;
+        this.maxCv = maxCv / 100;
+    }
+
+    /**
+     * @param snapshot the next snapshot of the run, in order of time
+     * @return first second of the steady state, 0 while still warming up
+     */
+    public long offer(IntervalSnapshot snapshot) {
+
+        if (snapshot.getSecond() < minimumSecond) {
+            return 0;
+        }
+        if (maxCv <= 0) {
+            return minimumSecond;
+        }
+
+        window.addLast(snapshot);
+        // seconds without a single request are missing from the snapshots, a window spanning them is not steady
+        while (window.size() > WINDOW_SECONDS
+                || snapshot.getSecond() - window.getFirst().getSecond() >= WINDOW_SECONDS * 1000L) {
+            window.removeFirst();
+        }
+
+        if (window.size() < WINDOW_SECONDS) {
+            return 0;
+        }
+
+        double[] tps = new double[window.size()];
+        double[] rt = new double[window.size()];
+        int i = 0;
+        for (IntervalSnapshot second : window) {
+            tps[i] = second.getSuccess();
+            rt[i] = second.getAverageRt();
+            i++;
+        }
+
+        if (cv(tps) <= maxCv && cv(rt) <= maxCv) {
+            return window.getFirst().getSecond();
+        }
+        return 0;
+    }
+
+    /**
+     * @return standard deviation divided by the mean, infinite for a mean of 0
+     */
+    static double cv(double[] values) {
+
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        double mean = sum / values.length;
+        if (mean <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+
+        return Math.sqrt(squares / values.length) / mean;
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Everything a {@link StressEngine} needs to know about the load to offer, independent of the statement under stress.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public class StressConfig {
+
+    private final TrafficModelEnum trafficModel;
+    private final int concurrency;
+    private final long durationSeconds;
+    private final long rampSeconds;
+    private final ThreadModeEnum threadMode;
+    private final int inFlightLimit;
+    private final ArrivalRate arrivalRate;
+    private final Percentiles percentiles;
+    private final long stepSeconds;
+    private final double sloP99Millis;
+    private final double sloErrorRate;
+    private final long warmupSeconds;
+    private final double steadyStateCv;
+
+    private StressConfig(Builder builder) {
+        this.trafficModel = builder.trafficModel;
+        this.concurrency = builder.concurrency;
+        this.durationSeconds = builder.durationSeconds;
+        this.rampSeconds = builder.rampSeconds;
+        this.threadMode = builder.threadMode;
+        this.inFlightLimit = builder.inFlightLimit <= 0 ? builder.concurrency : Math.min(builder.inFlightLimit, builder.concurrency);
+        this.arrivalRate = builder.arrivalRate;
+        this.percentiles = builder.percentiles;
+        this.stepSeconds = builder.stepSeconds;
+        this.sloP99Millis = builder.sloP99Millis;
+        this.sloErrorRate = builder.sloErrorRate;
+        this.warmupSeconds = builder.warmupSeconds;
+        this.steadyStateCv = builder.steadyStateCv;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public TrafficModelEnum getTrafficModel() {
+        return trafficModel;
+    }
+
+    /**
+     * @return workers of the closed models, the upper bound of the workers of the open model
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return duration of the run after all workers of the closed models have been started
+     */
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return time to start all workers of the {@link TrafficModelEnum#ramp} model
+     */
+    public long getRampSeconds() {
+        return rampSeconds;
+    }
+
+    public ThreadModeEnum getThreadMode() {
+        return threadMode;
+    }
+
+    /**
+     * @return requests executing at the same time at most, also the number of workers of the open model
+     */
+    public int getInFlightLimit() {
+        return inFlightLimit;
+    }
+
+    /**
+     * @return null unless the traffic model is {@link TrafficModelEnum#arrival_rate}
+     */
+    public ArrivalRate getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public Percentiles getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * @return time each concurrency of the {@link TrafficModelEnum#capacity_search} model is measured
+     */
+    public long getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * @return TP99 response time a step of the capacity search may not exceed
+     */
+    public double getSloP99Millis() {
+        return sloP99Millis;
+    }
+
+    /**
+     * @return error rate in percent a step of the capacity search may not exceed
+     */
+    public double getSloErrorRate() {
+        return sloErrorRate;
+    }
+
+    /**
+     * @return time from the start whose requests are left out of the summary at least
+     */
+    public long getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * @return max coefficient of variation(%) of TPS and RT in the steady state, 0 if it is not detected
+     */
+    public double getSteadyStateCv() {
+        return steadyStateCv;
+    }
+
+    public static class Builder {
+
+        private TrafficModelEnum trafficModel = TrafficModelEnum.fixed;
+        private int concurrency = 1;
+        private long durationSeconds = 60;
+        private long rampSeconds = 0;
+        private ThreadModeEnum threadMode = ThreadModeEnum.platform;
+        private int inFlightLimit = 0;
+        private ArrivalRate arrivalRate;
+        private Percentiles percentiles = Percentiles.parse(Percentiles.DEFAULT_PERCENTILES);
+        private long stepSeconds = 30;
+        private double sloP99Millis = 100;
+        private double sloErrorRate = 1;
+        private long warmupSeconds = 0;
+        private double steadyStateCv = 0;
+
+        private Builder() {
+        }
+
+        public Builder trafficModel(TrafficModelEnum trafficModel) {
+            this.trafficModel = trafficModel;
+            return this;
+        }
+
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder durationSeconds(long durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        public Builder rampSeconds(long rampSeconds) {
+            this.rampSeconds = rampSeconds;
+            return this;
+        }
+
+        public Builder threadMode(ThreadModeEnum threadMode) {
+            this.threadMode = threadMode;
+            return this;
+        }
+
+        /**
+         * @param inFlightLimit 0 for no limit beyond the concurrency
+         */
+        public Builder inFlightLimit(int inFlightLimit) {
+            this.inFlightLimit = inFlightLimit;
+            return this;
+        }
+
+        public Builder arrivalRate(ArrivalRate arrivalRate) {
+            this.arrivalRate = arrivalRate;
+            return this;
+        }
+
+        public Builder percentiles(Percentiles percentiles) {
+            this.percentiles = percentiles;
+            return this;
+        }
+
+        public Builder stepSeconds(long stepSeconds) {
+            this.stepSeconds = stepSeconds;
+            return this;
+        }
+
+        public Builder sloP99Millis(double sloP99Millis) {
+            this.sloP99Millis = sloP99Millis;
+            return this;
+        }
+
+        /**
+         * @param sloErrorRate in percent
+         */
+        public Builder sloErrorRate(double sloErrorRate) {
+            this.sloErrorRate = sloErrorRate;
+            return this;
+        }
+
+        public Builder warmupSeconds(long warmupSeconds) {
+            this.warmupSeconds = warmupSeconds;
+            return this;
+        }
+
+        /**
+         * @param steadyStateCv in percent, 0 to not detect the steady state
+         */
+        public Builder steadyStateCv(double steadyStateCv) {
+            this.steadyStateCv = steadyStateCv;
+            return this;
+        }
+
+        public StressConfig build() {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("the number of concurrent threads should be greater than 0.");
+            }
+            if (durationSeconds <= 0) {
+                throw new IllegalArgumentException("the stress duration should be greater than 0.");
+            }
+            if (rampSeconds < 0) {
+                throw new IllegalArgumentException("the ramp duration should not be negative.");
+            }
+            if (warmupSeconds < 0 || steadyStateCv < 0 || steadyStateCv > 100) {
+                throw new IllegalArgumentException("the warm-up should not be negative and the steady state CV should be in range [0, 100].");
+            }
+            if (trafficModel == TrafficModelEnum.arrival_rate && arrivalRate == null) {
+                throw new IllegalArgumentException("the arrival rate is required by the constant arrival rate model.");
+            }
+            if (trafficModel == TrafficModelEnum.capacity_search) {
+                // the first second of a step is not measured
+                if (stepSeconds < 3) {
+                    throw new IllegalArgumentException("the step duration of the capacity search should be at least 3 seconds.");
+                }
+                if (sloP99Millis <= 0 || sloErrorRate < 0 || sloErrorRate > 100) {
+                    throw new IllegalArgumentException("the TP99 SLO should be greater than 0 and the error rate SLO in range [0, 100].");
+                }
+            }
+            return new StressConfig(this);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one stress: offers load according to a {@link StressConfig}, records every request of a {@link StressRequest}
+ * in {@link StressMetrics} and rolls them once per second. It does not depend on the IDE, the tool window and the
+ * command line runner are both clients of it.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public class StressEngine {
+
+    public static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private static final long TICK_MILLIS = 1000;
+
+    /**
+     * how long a worker above the concurrency of the current capacity search step waits before checking again
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final StressConfig config;
+    private final StressRequest request;
+    private final StressListener listener;
+    private final StressMetrics metrics;
+
+    private final CountDownLatch stopLatch = new CountDownLatch(1);
+
+    private volatile boolean stopped = false;
+
+    /**
+     * workers allowed to send requests in the current step of the capacity search
+     */
+    private volatile int activeWorkers = 0;
+
+    public StressEngine(StressConfig config, StressRequest request, StressListener listener) {
+        this.config = config;
+        this.request = request;
+        this.listener = listener;
+        this.metrics = new StressMetrics(config.getPercentiles());
+        this.metrics.setWarmup(config.getWarmupSeconds(), config.getSteadyStateCv());
+    }
+
+    /**
+     * @return metrics of the run, available before {@link #run()} so that e.g. a connection pool can record into them
+     */
+    public StressMetrics getMetrics() {
+        return metrics;
+    }
+
+    public StressConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Run the stress on the calling thread until the duration elapsed or {@link #stop()} is called.
+     *
+     * @return the metrics of the run, rolled up to the last second
+     */
+    public StressMetrics run() {
+
+        int unfinished;
+
+        if (config.getTrafficModel() == TrafficModelEnum.arrival_rate) {
+            unfinished = runArrivalRate();
+        } else if (config.getTrafficModel() == TrafficModelEnum.capacity_search) {
+            unfinished = runCapacitySearch();
+        } else {
+            unfinished = runClosed();
+        }
+
+        metrics.roll(true);
+        listener.onFinish(metrics, unfinished);
+
+        return metrics;
+    }
+
+    /**
+     * Stop offering load, requests completing after it are not recorded. Safe to call from any thread.
+     */
+    public void stop() {
+        this.stopped = true;
+        this.stopLatch.countDown();
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return workers still running after the stop timeout
+     */
+    private int runClosed() {
+
+        LoadGenerator generator = new LoadGenerator(config.getThreadMode(), config.getInFlightLimit());
+        Runnable worker = this::execute;
+
+        try {
+            int concurrency = config.getConcurrency();
+            if (config.getTrafficModel() == TrafficModelEnum.ramp) {
+                long ticksPerWorker = Math.max(config.getRampSeconds() / concurrency, 1);
+                for (int i = 0; i < concurrency && !stopped; i++) {
+                    generator.addWorker(worker);
+                    metrics.setConcurrentNum(i + 1);
+                    for (long j = 0; j < ticksPerWorker && !stopped; j++) {
+                        tick();
+                    }
+                }
+            } else {
+                for (int i = 0; i < concurrency; i++) {
+                    generator.addWorker(worker);
+                    metrics.setConcurrentNum(i + 1);
+                }
+            }
+
+            waitForEnd();
+        } finally {
+            stop();
+        }
+
+        return generator.shutdown(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS) ? 0 : generator.getWorkerCount();
+    }
+
+    /**
+     * @return workers still running after the stop timeout
+     */
+    private int runArrivalRate() {
+
+        ArrivalListener arrivalListener = new ArrivalListener() {
+            @Override
+            public void onDropped(long intendedNanos) {
+                metrics.addDropped();
+            }
+
+            @Override
+            public void onLate(long lagNanos) {
+                metrics.addLate();
+            }
+        };
+
+        ArrivalRateGenerator generator = new ArrivalRateGenerator(config.getThreadMode(), config.getInFlightLimit(), config.getArrivalRate(), arrivalListener);
+
+        try {
+            metrics.setConcurrentNum(config.getInFlightLimit());
+            generator.start(this::executeAt);
+            waitForEnd();
+        } finally {
+            stop();
+        }
+
+        return generator.shutdown(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS) ? 0 : generator.getActiveCount();
+    }
+
+    /**
+     * Measure one concurrency per step, as chosen by a {@link CapacitySearch}, until the search finished or the
+     * duration elapsed. Workers are only added, those above the concurrency of a step idle without a request.
+     *
+     * @return workers still running after the stop timeout
+     */
+    private int runCapacitySearch() {
+
+        int maxConcurrency = config.getInFlightLimit();
+        CapacitySearch search = new CapacitySearch(maxConcurrency,
+                (long) (config.getSloP99Millis() * 1000), config.getSloErrorRate());
+
+        LoadGenerator generator = new LoadGenerator(config.getThreadMode(), maxConcurrency);
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getDurationSeconds());
+
+        try {
+            int concurrency = search.first();
+            int workers = 0;
+
+            while (concurrency > 0 && !stopped && System.currentTimeMillis() < end) {
+
+                while (workers < concurrency) {
+                    int index = workers++;
+                    generator.addWorker(() -> executeIfActive(index));
+                }
+                this.activeWorkers = concurrency;
+                metrics.setConcurrentNum(concurrency);
+
+                IntervalSnapshot latest = metrics.getSnapshots().latest();
+                long from = latest == null ? 0 : latest.getSecond();
+
+                for (long i = 0; i < config.getStepSeconds() && !stopped; i++) {
+                    tick();
+                }
+                if (stopped) {
+                    break;
+                }
+
+                CapacityStep step = measure(search, concurrency, from);
+                metrics.addCapacityStep(step);
+                listener.onStep(metrics, step);
+
+                concurrency = search.next(step);
+            }
+        } finally {
+            stop();
+        }
+
+        return generator.shutdown(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS) ? 0 : generator.getWorkerCount();
+    }
+
+    /**
+     * Aggregate the snapshots of a step, the first second is left out since requests of the previous
+     * concurrency completed in it.
+     *
+     * @param from the latest snapshot before the step started, 0 if none
+     */
+    private CapacityStep measure(CapacitySearch search, int concurrency, long from) {
+
+        List<IntervalSnapshot> snapshots = metrics.getSnapshots().toList();
+
+        long first = Long.MAX_VALUE;
+        for (IntervalSnapshot snapshot : snapshots) {
+            if (snapshot.getSecond() > from) {
+                first = Math.min(first, snapshot.getSecond());
+            }
+        }
+
+        long seconds = 0;
+        long success = 0;
+        long failed = 0;
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (IntervalSnapshot snapshot : snapshots) {
+            if (snapshot.getSecond() <= first) {
+                continue;
+            }
+            seconds++;
+            success += snapshot.getSuccess();
+            failed += snapshot.getFailed();
+            histogram.add(snapshot.getHistogram());
+        }
+
+        return new CapacityStep(concurrency, seconds, success, failed, histogram, search.meetsSlo(success, failed, histogram));
+    }
+
+    private void executeIfActive(int index) {
+        if (index >= activeWorkers) {
+            LockSupport.parkNanos(IDLE_NANOS);
+            return;
+        }
+        execute();
+    }
+
+    private void waitForEnd() {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getDurationSeconds());
+        while (System.currentTimeMillis() < end && !stopped) {
+            tick();
+        }
+    }
+
+    /**
+     * Wait a second, or less when stopped, then roll the metrics.
+     */
+    private void tick() {
+        try {
+            if (stopLatch.await(TICK_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+            return;
+        }
+        metrics.roll(false);
+        listener.onTick(metrics);
+    }
+
+    /**
+     * One request of the closed models, response time equals service time.
+     */
+    private void execute() {
+        if (stopped) {
+            return;
+        }
+        try {
+            long cost = TimeUnit.NANOSECONDS.toMicros(request.execute());
+            recordSuccess(cost, cost);
+        } catch (Exception e) {
+            recordFailed(e);
+        }
+    }
+
+    /**
+     * One request of the open model, response time is measured from the intended send time so that queueing
+     * caused by a slow database is not hidden.
+     */
+    private void executeAt(long intendedNanos) {
+        if (stopped) {
+            return;
+        }
+        try {
+            long serviceCost = TimeUnit.NANOSECONDS.toMicros(request.execute());
+            recordSuccess(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos), serviceCost);
+        } catch (Exception e) {
+            recordFailed(e);
+        }
+    }
+
+    private void recordSuccess(long cost, long serviceCost) {
+        metrics.addSuccess(cost, serviceCost);
+        listener.onSuccess(cost, serviceCost);
+    }
+
+    private void recordFailed(Exception e) {
+        // requests interrupted by stop are not failures of the database
+        if (stopped) {
+            return;
+        }
+        metrics.addFailed(e);
+        listener.onFailed(e);
+    }
+}
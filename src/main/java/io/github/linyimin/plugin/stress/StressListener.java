@@ -0,0 +1,44 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * Callbacks of a {@link StressEngine}. The request callbacks run on the worker which executed the request,
+ * after it has been recorded in the metrics of the run.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public interface StressListener {
+
+    StressListener NONE = new StressListener() {
+    };
+
+    /**
+     * @param cost response time in microseconds
+     * @param serviceCost service time in microseconds
+     */
+    default void onSuccess(long cost, long serviceCost) {
+    }
+
+    default void onFailed(Exception e) {
+    }
+
+    /**
+     * Called once per second by the thread which runs the engine, after the metrics have been rolled.
+     */
+    default void onTick(StressMetrics metrics) {
+    }
+
+    /**
+     * Called by the thread which runs the engine when a step of the capacity search has been measured.
+     */
+    default void onStep(StressMetrics metrics, CapacityStep step) {
+    }
+
+    /**
+     * Called once when the run ended, after the last roll of the metrics.
+     *
+     * @param unfinished workers still waiting for the database after the stop timeout
+     */
+    default void onFinish(StressMetrics metrics, int unfinished) {
+    }
+}
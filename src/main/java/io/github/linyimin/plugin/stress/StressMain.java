@@ -0,0 +1,354 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Headless stress runner on top of {@link StressEngine}, for CI jobs and scripts which run the same stress as the
+ * tool window without an IDE. The template is executed as a prepared statement, every worker keeps its own
+ * connection and statement, parameters are generated per request from the {@code --param} specs.
+ * <pre>
+ * --url jdbc:mysql://127.0.0.1:3306/test --user root --password root
+ * --sql "select * from user where id = ${user.id}"
+ * --param user.id=int:1:100000
+ * --traffic fixed|ramp|arrival_rate|capacity_search --concurrency 8 --duration 60 [--ramp 30] [--qps 500]
+ * [--step 30] [--slo-p99 100] [--slo-error-rate 1] [--warmup 30] [--steady-cv 10]
+ * [--percentiles 50,90,99] [--report build/stress/user-by-id]
+ * </pre>
+ * Parameter specs: {@code int:min:max}, {@code long:min:max}, {@code double:min:max}, {@code string:length},
+ * {@code enum:a|b|c} and {@code const:value}.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public class StressMain {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    public static void main(String[] args) throws Exception {
+        try {
+            StressMetrics metrics = run(args, System.out);
+            System.exit(metrics.getFailed() > 0 ? 1 : 0);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Entrypoint for tests and other JVM callers, blocks until the stress finished.
+     *
+     * @param out receives one progress line per second and the summary
+     */
+    public static StressMetrics run(String[] args, PrintStream out) throws Exception {
+
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> params = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException(String.format("option %s should be followed by a value.", args[i]));
+            }
+            String name = args[i].substring(2);
+            String value = args[++i];
+            if (name.equals("param")) {
+                int index = value.indexOf('=');
+                if (index <= 0) {
+                    throw new IllegalArgumentException(String.format("param %s should be key=spec.", value));
+                }
+                params.put(value.substring(0, index).trim().toLowerCase(), value.substring(index + 1).trim());
+            } else {
+                options.put(name, value);
+            }
+        }
+
+        String url = require(options, "url");
+        String sql = require(options, "sql");
+
+        StressConfig config = createConfig(options);
+        PreparedTemplate template = PreparedTemplate.compile(sql);
+
+        List<Supplier<Object>> generators = new ArrayList<>();
+        for (String key : template.getParameterKeys()) {
+            String spec = params.get(key);
+            if (spec == null && key.contains(".")) {
+                spec = params.get(key.substring(key.lastIndexOf('.') + 1));
+            }
+            if (spec == null) {
+                throw new IllegalArgumentException(String.format("parameter ${%s} is not configured, add --param %s=<spec>.", key, key));
+            }
+            generators.add(generator(spec));
+        }
+
+        try (JdbcRequest request = new JdbcRequest(url, options.get("user"), options.get("password"), template, generators)) {
+
+            StressEngine engine = new StressEngine(config, request, new StressListener() {
+                @Override
+                public void onTick(StressMetrics metrics) {
+                    IntervalSnapshot snapshot = metrics.getSnapshots().latest();
+                    if (snapshot != null) {
+                        out.printf(Locale.ROOT, "concurrency %d, tps %d, failed %d, avg rt %.2fms, max rt %.2fms%n",
+                                metrics.getConcurrentNum(), snapshot.getSuccess(), snapshot.getFailed(),
+                                snapshot.getAverageRt() / 1000, snapshot.getMaxRt() / 1000.0);
+                    }
+                }
+
+                @Override
+                public void onStep(StressMetrics metrics, CapacityStep step) {
+                    out.printf(Locale.ROOT, "step concurrency %d: tps %.1f, tp99 %.2fms, error rate %.2f%%, %s%n",
+                            step.getConcurrency(), step.getTps(), step.getP99() / 1000.0, step.getErrorRate(),
+                            step.isPassed() ? "passed" : "SLO broken");
+                }
+
+                @Override
+                public void onFinish(StressMetrics metrics, int unfinished) {
+                    if (unfinished > 0) {
+                        out.printf("%s stress workers are still waiting for the database after stop.%n", unfinished);
+                    }
+                }
+            });
+
+            Runtime.getRuntime().addShutdownHook(new Thread(engine::stop));
+
+            StressMetrics metrics = engine.run();
+
+            if (metrics.isWarmingUp()) {
+                out.println("steady state not reached, the summary includes the warm-up.");
+            } else if (metrics.getSteadySecond() > 0) {
+                out.printf("warm-up of %ss excluded from the summary%n", (metrics.getSteadySecond() - metrics.getStartMillis()) / 1000);
+            }
+            out.printf("total %s, failed %s, success rate %s%%, tps %s, max tps %s, avg rt %sms, max rt %sms%n",
+                    metrics.total(), metrics.failedCount(), metrics.successRate(), metrics.tps(), metrics.maxTps(),
+                    metrics.averageRt(), metrics.maxRt());
+            List<String> percentileRt = metrics.percentileRt();
+            for (int i = 0; i < percentileRt.size(); i++) {
+                out.printf("%s %sms%n", metrics.getPercentiles().label(i), percentileRt.get(i));
+            }
+            metrics.getErrorStats().totals().forEach((name, count) -> out.printf("%s: %s%n", name, count));
+
+            if (config.getTrafficModel() == TrafficModelEnum.capacity_search) {
+                CapacityStep knee = CapacitySearch.knee(metrics.capacitySteps());
+                if (knee == null) {
+                    out.println("no concurrency met the SLO.");
+                } else {
+                    out.printf(Locale.ROOT, "max sustainable tps %.1f at concurrency %d%n", knee.getTps(), knee.getConcurrency());
+                }
+            }
+
+            String report = options.get("report");
+            if (report != null) {
+                Path prefix = Paths.get(report);
+                new StressReport(config, metrics, sql).write(prefix);
+                out.printf("report written to %s.json and %s.hgrm%n", prefix, prefix);
+            }
+
+            return metrics;
+        }
+    }
+
+    static StressConfig createConfig(Map<String, String> options) {
+
+        TrafficModelEnum trafficModel = TrafficModelEnum.of(options.getOrDefault("traffic", TrafficModelEnum.fixed.name()));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1"));
+
+        StressConfig.Builder builder = StressConfig.builder()
+                .trafficModel(trafficModel)
+                .concurrency(concurrency)
+                .durationSeconds(Long.parseLong(options.getOrDefault("duration", "60")))
+                .rampSeconds(Long.parseLong(options.getOrDefault("ramp", "0")))
+                .threadMode(ThreadModeEnum.valueOf(options.getOrDefault("thread-mode", ThreadModeEnum.platform.name())))
+                .inFlightLimit(Integer.parseInt(options.getOrDefault("in-flight-limit", "0")))
+                .percentiles(Percentiles.parse(options.get("percentiles")))
+                .warmupSeconds(Long.parseLong(options.getOrDefault("warmup", "0")))
+                .steadyStateCv(Double.parseDouble(options.getOrDefault("steady-cv", "0")));
+
+        if (trafficModel == TrafficModelEnum.arrival_rate) {
+            double qps = Double.parseDouble(require(options, "qps"));
+            builder.arrivalRate(ArrivalRate.constant(qps));
+        }
+        if (trafficModel == TrafficModelEnum.capacity_search) {
+            builder.stepSeconds(Long.parseLong(options.getOrDefault("step", "30")))
+                    .sloP99Millis(Double.parseDouble(options.getOrDefault("slo-p99", "100")))
+                    .sloErrorRate(Double.parseDouble(options.getOrDefault("slo-error-rate", "1")));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param spec e.g. {@code int:1:1000}, see the class comment
+     */
+    static Supplier<Object> generator(String spec) {
+
+        String[] parts = spec.split(":", 2);
+        String type = parts[0].trim().toLowerCase();
+        String argument = parts.length > 1 ? parts[1] : "";
+
+        switch (type) {
+            case "int": {
+                long[] range = range(spec, argument);
+                return () -> (int) ThreadLocalRandom.current().nextLong(range[0], range[1] + 1);
+            }
+            case "long": {
+                long[] range = range(spec, argument);
+                return () -> ThreadLocalRandom.current().nextLong(range[0], range[1] + 1);
+            }
+            case "double": {
+                String[] bounds = argument.split(":");
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException(String.format("param spec %s should be double:min:max.", spec));
+                }
+                double min = Double.parseDouble(bounds[0]);
+                double max = Double.parseDouble(bounds[1]);
+                return () -> min + ThreadLocalRandom.current().nextDouble() * (max - min);
+            }
+            case "string": {
+                int length = Integer.parseInt(argument.trim());
+                return () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    char[] chars = new char[length];
+                    for (int i = 0; i < length; i++) {
+                        chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                    }
+                    return new String(chars);
+                };
+            }
+            case "enum": {
+                String[] values = argument.split("\\|");
+                return () -> values[ThreadLocalRandom.current().nextInt(values.length)];
+            }
+            case "const":
+                return () -> argument;
+            default:
+                throw new IllegalArgumentException(String.format("param spec %s is not supported.", spec));
+        }
+    }
+
+    private static long[] range(String spec, String argument) {
+        String[] bounds = argument.split(":");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException(String.format("param spec %s should be type:min:max.", spec));
+        }
+        long min = Long.parseLong(bounds[0].trim());
+        long max = Long.parseLong(bounds[1].trim());
+        if (min > max) {
+            throw new IllegalArgumentException(String.format("min of param spec %s is greater than max.", spec));
+        }
+        return new long[]{min, max};
+    }
+
+    private static String require(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(String.format("option --%s is required.", name));
+        }
+        return value;
+    }
+
+    /**
+     * Prepares the template once per worker on a connection of its own. The connection is kept when a statement
+     * fails, e.g. on a lock wait timeout, and only reconnected when {@link ErrorClassifier#isConnectionError} says
+     * it is broken.
+     */
+    private static class JdbcRequest implements StressRequest, AutoCloseable {
+
+        private final String url;
+        private final String user;
+        private final String password;
+        private final PreparedTemplate template;
+        private final List<Supplier<Object>> generators;
+
+        private final ThreadLocal<PreparedStatement> workerStatement = new ThreadLocal<>();
+        private final Queue<PreparedStatement> statements = new ConcurrentLinkedQueue<>();
+
+        private JdbcRequest(String url, String user, String password, PreparedTemplate template, List<Supplier<Object>> generators) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+            this.template = template;
+            this.generators = generators;
+        }
+
+        @Override
+        public long execute() throws Exception {
+
+            PreparedStatement statement = workerStatement.get();
+            if (statement == null) {
+                Connection connection = DriverManager.getConnection(url, user, password);
+                try {
+                    statement = connection.prepareStatement(template.getSql());
+                } catch (SQLException e) {
+                    connection.close();
+                    throw e;
+                }
+                workerStatement.set(statement);
+                statements.add(statement);
+            }
+
+            try {
+                for (int i = 0; i < generators.size(); i++) {
+                    statement.setObject(i + 1, generators.get(i).get());
+                }
+
+                long start = System.nanoTime();
+                if (statement.execute()) {
+                    try (ResultSet rs = statement.getResultSet()) {
+                        while (rs.next()) {
+                            // drain, the fetch is part of the service time
+                        }
+                    }
+                }
+                return System.nanoTime() - start;
+            } catch (SQLException e) {
+                // statement errors like lock waits keep the connection, only a broken one is connected again
+                if (isBroken(statement, e)) {
+                    workerStatement.remove();
+                    statements.remove(statement);
+                    close(statement);
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            PreparedStatement statement;
+            while ((statement = statements.poll()) != null) {
+                close(statement);
+            }
+        }
+
+        private boolean isBroken(PreparedStatement statement, SQLException e) {
+            try {
+                return ErrorClassifier.isConnectionError(e, statement.getConnection());
+            } catch (SQLException closed) {
+                return true;
+            }
+        }
+
+        private void close(PreparedStatement statement) {
+            try {
+                Connection connection = statement.getConnection();
+                statement.close();
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,639 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Response time is measured from the moment a request should have been sent, service time from the moment it
+ * was actually executed. They only differ for the open traffic model, where requests may queue.
+ * <p>
+ * Stress threads only write counters. {@link #roll(boolean)} reads them once per second into an
+ * {@link IntervalSnapshot} per elapsed second, every figure and chart of the report is read from the snapshots.
+ * <p>
+ * With a warm-up, the summary (success rate, RT, percentiles and TPS) only covers the steady state once it is
+ * reached, the request counts always cover the whole run.
+ *
+ * @author banzhe
+ * @date 2022/12/27 18:08
+ **/
+public class StressMetrics {
+
+    /**
+     * seconds of snapshots kept, longer than the longest stress duration (1 hour)
+     */
+    private static final int SNAPSHOT_CAPACITY = 4096;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final LatencyRecorder serviceRecorder = new LatencyRecorder();
+    private final LatencyRecorder checkoutRecorder = new LatencyRecorder();
+    private final SecondWindow secondWindow = new SecondWindow();
+    private final SnapshotRing snapshots = new SnapshotRing(SNAPSHOT_CAPACITY);
+    private final ErrorStats errorStats = new ErrorStats();
+    private final Percentiles percentiles;
+
+    /**
+     * recorder histograms as of the latest roll
+     */
+    private volatile LatencyHistogram histogram = new LatencyHistogram();
+    private volatile LatencyHistogram serviceHistogram = new LatencyHistogram();
+
+    /**
+     * Sorted by time, so charts only read the points added since their last update.
+     */
+    private final Map<Long, Double> successRateMap = new ConcurrentSkipListMap<>();
+    private final Map<Long, Double> averageRtMap = new ConcurrentSkipListMap<>();
+    private final Map<Long, Double> averageServiceRtMap = new ConcurrentSkipListMap<>();
+    private final Map<Long, Double> tpsMap = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, Long> concurrentNumMap = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<Long, Double>> percentileRtMap = new LinkedHashMap<>();
+    private final Map<String, Map<Long, Double>> poolMap = new LinkedHashMap<>();
+
+    /**
+     * the TP99 series of percentileRtMap if 99 is a configured percentile, recorded on its own otherwise
+     */
+    private final Map<Long, Double> p99RtMap;
+    private final boolean recordP99;
+
+    /**
+     * error class -> (second -> errors), only written by roll
+     */
+    private final Map<String, Map<Long, Double>> errorMap = new LinkedHashMap<>();
+
+    /**
+     * label -> (second -> value) of the server stats, in the order the labels were first sampled
+     */
+    private final Map<String, Map<Long, Double>> serverMap = new LinkedHashMap<>();
+
+    /**
+     * steps of the capacity search in the order they were measured, empty for the other traffic models
+     */
+    private final List<CapacityStep> capacitySteps = new CopyOnWriteArrayList<>();
+
+    private final long startTimeSecond = getTimeSeconds();
+
+    /**
+     * the latest second rolled into a snapshot, 0 before the first roll
+     */
+    private long rolledSecond = 0;
+
+    /**
+     * null without a warm-up
+     */
+    private SteadyStateDetector steadyStateDetector;
+
+    /**
+     * first second of the steady state, 0 without a warm-up or while still warming up
+     */
+    private volatile long steadySecond = 0;
+
+    /**
+     * summary of the steady state, null until it is reached
+     */
+    private volatile Summary steady;
+
+    private volatile long tpsSeconds = 0;
+    private volatile double maxTps = 0;
+
+    private final AtomicLong success = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong late = new AtomicLong(0);
+
+    private final AtomicLong concurrentNum = new AtomicLong(0);
+
+    private volatile long poolWaitNanos = 0;
+
+    public StressMetrics() {
+        this(Percentiles.parse(Percentiles.DEFAULT_PERCENTILES));
+    }
+
+    public StressMetrics(Percentiles percentiles) {
+        this.percentiles = percentiles;
+        for (int i = 0; i < percentiles.size(); i++) {
+            this.percentileRtMap.put(percentiles.label(i), new ConcurrentSkipListMap<>());
+        }
+        Map<Long, Double> p99RtMap = this.percentileRtMap.get(StressRun.P99_RT);
+        this.recordP99 = p99RtMap == null;
+        this.p99RtMap = recordP99 ? new ConcurrentSkipListMap<>() : p99RtMap;
+        this.poolMap.put("活跃连接", new ConcurrentSkipListMap<>());
+        this.poolMap.put("空闲连接", new ConcurrentSkipListMap<>());
+        this.poolMap.put("等待线程", new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Exclude the warm-up from the summary, to be called before the first roll.
+     *
+     * @param warmupSeconds warm-up lasting at least
+     * @param steadyStateCv max coefficient of variation(%) of the steady state, 0 to not detect it
+     */
+    public synchronized void setWarmup(long warmupSeconds, double steadyStateCv) {
+        if (warmupSeconds > 0 || steadyStateCv > 0) {
+            this.steadyStateDetector = new SteadyStateDetector(startTimeSecond, warmupSeconds, steadyStateCv);
+        }
+    }
+
+    /**
+     * @param cost response time in microseconds, equal to the service time in the closed traffic models
+     */
+    public void addSuccess(long cost) {
+        addSuccess(cost, cost);
+    }
+
+    /**
+     * @param cost response time in microseconds, from the intended send time to completion
+     * @param serviceCost service time in microseconds, from execution start to completion
+     */
+    public void addSuccess(long cost, long serviceCost) {
+
+        long timestamp = getTimeSeconds();
+
+        recorder.record(cost);
+        serviceRecorder.record(serviceCost);
+        secondWindow.addSuccess(timestamp, cost, serviceCost);
+
+        success.incrementAndGet();
+    }
+
+    /**
+     * @param error cause of the failure, classified by {@link ErrorClassifier}
+     */
+    public void addFailed(Throwable error) {
+        secondWindow.addFailed(getTimeSeconds());
+        errorStats.record(error);
+        failed.incrementAndGet();
+    }
+
+    /**
+     * a request of the open traffic model which was never sent because the backlog was full
+     */
+    public void addDropped() {
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * a request of the open traffic model which was sent noticeably later than scheduled
+     */
+    public void addLate() {
+        late.incrementAndGet();
+    }
+
+    /**
+     * @param cost time to check a connection out of the pool in microseconds
+     */
+    public void addCheckout(long cost) {
+        checkoutRecorder.record(cost);
+    }
+
+    /**
+     * Gauges of the connection pool, sampled once per second.
+     *
+     * @param waitNanos total time threads waited for a connection since the stress started
+     */
+    public void addPoolSample(int activeCount, int idleCount, int waitThreadCount, long waitNanos) {
+        long timestamp = getTimeSeconds();
+
+        this.poolMap.get("活跃连接").put(timestamp, (double) activeCount);
+        this.poolMap.get("空闲连接").put(timestamp, (double) idleCount);
+        this.poolMap.get("等待线程").put(timestamp, (double) waitThreadCount);
+
+        this.poolWaitNanos = waitNanos;
+    }
+
+    /**
+     * One sample of the {@link ServerStatsSampler}, on the same time axis as the client side figures.
+     */
+    public void addServerSample(Map<String, Double> sample) {
+        long timestamp = getTimeSeconds();
+        synchronized (this.serverMap) {
+            sample.forEach((label, value) -> this.serverMap.computeIfAbsent(label, key -> new ConcurrentSkipListMap<>()).put(timestamp, value));
+        }
+    }
+
+    public synchronized void setConcurrentNum(int count) {
+        this.concurrentNum.set(count);
+    }
+
+    /**
+     * Aggregate every second elapsed since the previous roll into a snapshot, in a single pass over the counters
+     * and one merge of the recorders. Called once per second while the stress runs.
+     * <p>
+     * The histogram of a snapshot holds the requests completed since the previous roll, so its percentiles may
+     * include requests of the current second.
+     *
+     * @param includeCurrent also roll the current second, when the stress is finished
+     */
+    public synchronized void roll(boolean includeCurrent) {
+
+        long currentSecond = getTimeSeconds();
+        long end = includeCurrent ? currentSecond : currentSecond - 1000;
+        long first = rolledSecond == 0 ? startTimeSecond : rolledSecond + 1000;
+
+        if (first > end) {
+            return;
+        }
+
+        long concurrentNum = this.concurrentNum.get();
+
+        long lastActive = 0;
+        for (long second = first; second <= end; second += 1000) {
+            this.concurrentNumMap.put(second, concurrentNum);
+            if (secondWindow.success(second) + secondWindow.failed(second) > 0) {
+                lastActive = second;
+            }
+        }
+
+        // without a second to attribute them to, the histogram and the errors are left for the next roll
+        if (lastActive == 0) {
+            this.rolledSecond = end;
+            return;
+        }
+
+        LatencyHistogram histogram = recorder.snapshot();
+        LatencyHistogram interval = histogram.subtract(this.histogram);
+        this.histogram = histogram;
+        this.serviceHistogram = serviceRecorder.snapshot();
+
+        Map<String, Long> errors = errorStats.drain();
+        List<IntervalSnapshot> added = new ArrayList<>();
+
+        for (long second = first; second <= lastActive; second += 1000) {
+
+            long success = secondWindow.success(second);
+            long failed = secondWindow.failed(second);
+            if (success + failed == 0) {
+                continue;
+            }
+
+            // requests of the seconds rolled together share the interval histogram and errors, they go to the last
+            boolean last = second == lastActive;
+            IntervalSnapshot snapshot = new IntervalSnapshot(second, success, failed,
+                    secondWindow.cost(second), secondWindow.serviceCost(second),
+                    last ? interval : LatencyHistogram.EMPTY, last ? errors : Collections.emptyMap());
+
+            this.snapshots.add(snapshot);
+            addToSeries(snapshot);
+            added.add(snapshot);
+        }
+
+        if (this.steadyStateDetector != null) {
+            addToSteady(added);
+        }
+
+        this.rolledSecond = end;
+    }
+
+    private void addToSteady(List<IntervalSnapshot> added) {
+
+        if (this.steadySecond == 0) {
+            for (IntervalSnapshot snapshot : added) {
+                long second = this.steadyStateDetector.offer(snapshot);
+                if (second > 0) {
+                    this.steadySecond = second;
+                    break;
+                }
+            }
+            if (this.steadySecond == 0) {
+                return;
+            }
+            // the steady state may have started before this roll
+            added = this.snapshots.toList();
+        }
+
+        // readers may hold the previous summary, it is never modified
+        Summary summary = this.steady == null ? new Summary() : this.steady.copy();
+        for (IntervalSnapshot snapshot : added) {
+            if (snapshot.getSecond() >= this.steadySecond) {
+                summary.add(snapshot);
+            }
+        }
+        this.steady = summary;
+    }
+
+    private void addToSeries(IntervalSnapshot snapshot) {
+
+        long second = snapshot.getSecond();
+
+        if (snapshot.getSuccess() > 0) {
+            this.successRateMap.put(second, snapshot.getSuccessRate());
+            this.averageRtMap.put(second, toMillis(snapshot.getAverageRt()));
+            this.averageServiceRtMap.put(second, toMillis(snapshot.getAverageServiceRt()));
+            this.tpsMap.put(second, (double) snapshot.getSuccess());
+            this.tpsSeconds++;
+            this.maxTps = Math.max(this.maxTps, snapshot.getSuccess());
+        }
+
+        if (!snapshot.getErrors().isEmpty()) {
+            synchronized (this.errorMap) {
+                snapshot.getErrors().forEach((name, count) -> this.errorMap.computeIfAbsent(name, key -> new ConcurrentSkipListMap<>()));
+                // every class gets a value, so the stacked bars of a second add up to its errors
+                this.errorMap.forEach((name, series) -> series.put(second, (double) snapshot.getErrors().getOrDefault(name, 0L)));
+            }
+        }
+
+        if (snapshot.getHistogram().getTotalCount() > 0) {
+            long[] values = percentiles.valuesOf(snapshot.getHistogram());
+            for (int i = 0; i < values.length; i++) {
+                this.percentileRtMap.get(percentiles.label(i)).put(second, toMillis(values[i]));
+            }
+            if (recordP99) {
+                this.p99RtMap.put(second, toMillis(snapshot.getHistogram().getValueAtPercentile(99)));
+            }
+        }
+    }
+
+    public SnapshotRing getSnapshots() {
+        return snapshots;
+    }
+
+    public String successRate() {
+
+        Summary steady = this.steady;
+        long success = steady == null ? this.success.get() : steady.success;
+        long failed = steady == null ? this.failed.get() : steady.failed;
+
+        if (success + failed == 0) {
+            return "0.00";
+        }
+
+        return String.format("%.2f", 100.0 * success / (success + failed));
+    }
+
+    public Map<Long, Double> successRateMap() {
+        return this.successRateMap;
+    }
+
+    public String averageRt() {
+        return String.format("%.2f", toMillis(getHistogram().getMean()));
+    }
+
+    public String averageServiceRt() {
+        Summary steady = this.steady;
+        double mean = steady == null ? serviceHistogram.getMean() : steady.getAverageServiceRt();
+        return String.format("%.2f", toMillis(mean));
+    }
+
+    /**
+     * @return average successful requests per second, over the seconds with at least one success
+     */
+    public String tps() {
+
+        Summary steady = this.steady;
+        long size = steady == null ? this.tpsSeconds : steady.seconds;
+
+        if (size == 0) {
+            return "0";
+        }
+
+        return String.valueOf(getHistogram().getTotalCount() / size);
+    }
+
+    public String failedCount() {
+        return String.valueOf(failed.get());
+    }
+
+    public String total() {
+        return String.valueOf(success.get() + failed.get());
+    }
+
+    public String droppedCount() {
+        return String.valueOf(dropped.get());
+    }
+
+    public String lateCount() {
+        return String.valueOf(late.get());
+    }
+
+    public long getSuccess() {
+        return success.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getLate() {
+        return late.get();
+    }
+
+    /**
+     * @return response times of the requests rolled so far, of the steady state once reached, callers must not
+     * modify it
+     */
+    public LatencyHistogram getHistogram() {
+        Summary steady = this.steady;
+        return steady == null ? histogram : steady.histogram;
+    }
+
+    /**
+     * @return first second of the steady state, 0 without a warm-up or while still warming up
+     */
+    public long getSteadySecond() {
+        return steadySecond;
+    }
+
+    /**
+     * @return whether the summary should exclude a warm-up which has not ended yet
+     */
+    public boolean isWarmingUp() {
+        return steadyStateDetector != null && steadySecond == 0;
+    }
+
+    /**
+     * @return service times of the requests rolled so far, the warm-up included, callers must not modify it
+     */
+    public LatencyHistogram getServiceHistogram() {
+        return serviceHistogram;
+    }
+
+    private long getTimeSeconds() {
+        long timestamp = System.currentTimeMillis();
+
+        return timestamp - (timestamp % 1000);
+    }
+
+    public Map<Long, Double> averageRtMap() {
+        return averageRtMap;
+    }
+
+    public Map<Long, Double> averageServiceRtMap() {
+        return averageServiceRtMap;
+    }
+
+    public Map<Long, Double> tpsMap() {
+        return this.tpsMap;
+    }
+
+    public Map<Long, Long> concurrentNumMap() {
+        return Collections.unmodifiableNavigableMap(concurrentNumMap);
+    }
+
+    public long getConcurrentNum() {
+        return this.concurrentNum.get();
+    }
+
+    public String maxRt() {
+        return String.format("%.2f", toMillis(getHistogram().getMax()));
+    }
+
+    public long maxTps() {
+        Summary steady = this.steady;
+        return steady == null ? (long) this.maxTps : steady.maxTps;
+    }
+
+    /**
+     * @return average and max connection checkout latency(ms)
+     */
+    public String checkoutRt() {
+        LatencyHistogram histogram = checkoutRecorder.snapshot();
+        return String.format("%.3f/%.3f", toMillis(histogram.getMean()), toMillis(histogram.getMax()));
+    }
+
+    public String poolWaitTime() {
+        return String.format("%.2f", poolWaitNanos / 1_000_000.0);
+    }
+
+    public Map<String, Map<Long, Double>> poolMap() {
+        return this.poolMap;
+    }
+
+    /**
+     * @param labels series to return, in this order
+     * @return the sampled series among the labels
+     */
+    public Map<String, Map<Long, Double>> serverMap(List<String> labels) {
+        Map<String, Map<Long, Double>> series = new LinkedHashMap<>();
+        synchronized (this.serverMap) {
+            for (String label : labels) {
+                Map<Long, Double> values = this.serverMap.get(label);
+                if (values != null) {
+                    series.put(label, values);
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * @return errors per second of each error class, in the order the classes first occurred
+     */
+    public Map<String, Map<Long, Double>> errorMap() {
+        synchronized (this.errorMap) {
+            return new LinkedHashMap<>(this.errorMap);
+        }
+    }
+
+    public void addCapacityStep(CapacityStep step) {
+        this.capacitySteps.add(step);
+    }
+
+    public List<CapacityStep> capacitySteps() {
+        return Collections.unmodifiableList(capacitySteps);
+    }
+
+    public ErrorStats getErrorStats() {
+        return errorStats;
+    }
+
+    public Percentiles getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * @return response time(ms) of each configured percentile since the stress started
+     */
+    public List<String> percentileRt() {
+
+        long[] values = percentiles.valuesOf(getHistogram());
+
+        List<String> result = new ArrayList<>(values.length);
+        for (long value : values) {
+            result.add(String.format("%.2f", toMillis(value)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Percentiles of each snapshot, keyed by percentile label.
+     */
+    public Map<String, Map<Long, Double>> percentileRtMap() {
+        return this.percentileRtMap;
+    }
+
+    public long getStartMillis() {
+        return startTimeSecond;
+    }
+
+    /**
+     * Totals, histogram and time series of the report, the caller fills in the configuration of the run.
+     */
+    public StressRun toRun() {
+
+        StressRun run = new StressRun();
+
+        run.setStartMillis(startTimeSecond);
+        run.setSuccess(success.get());
+        run.setFailed(failed.get());
+        run.setHistogram(getHistogram().copy());
+
+        run.putSeries(StressRun.SUCCESS_RATE, successRateMap());
+        run.putSeries(StressRun.AVERAGE_RT, averageRtMap());
+        run.putSeries(StressRun.AVERAGE_SERVICE_RT, averageServiceRtMap());
+        run.putSeries(StressRun.TPS, tpsMap());
+        run.putSeries(StressRun.CONCURRENCY, concurrentNumMap());
+        percentileRtMap().forEach(run::putSeries);
+        run.putSeries(StressRun.P99_RT, p99RtMap);
+
+        return run;
+    }
+
+    private double toMillis(double micros) {
+        return micros / 1000;
+    }
+
+    /**
+     * Aggregate of the snapshots of the steady state.
+     */
+    private static class Summary {
+
+        private long success;
+        private long failed;
+        private long serviceCostSum;
+        private long seconds;
+        private long maxTps;
+        private LatencyHistogram histogram = new LatencyHistogram();
+
+        private void add(IntervalSnapshot snapshot) {
+            this.success += snapshot.getSuccess();
+            this.failed += snapshot.getFailed();
+            this.serviceCostSum += snapshot.getServiceCostSum();
+            this.histogram.add(snapshot.getHistogram());
+            if (snapshot.getSuccess() > 0) {
+                this.seconds++;
+                this.maxTps = Math.max(this.maxTps, snapshot.getSuccess());
+            }
+        }
+
+        private double getAverageServiceRt() {
+            return success == 0 ? 0 : (double) serviceCostSum / success;
+        }
+
+        private Summary copy() {
+            Summary summary = new Summary();
+            summary.success = this.success;
+            summary.failed = this.failed;
+            summary.serviceCostSum = this.serviceCostSum;
+            summary.seconds = this.seconds;
+            summary.maxTps = this.maxTps;
+            summary.histogram = this.histogram.copy();
+            return summary;
+        }
+    }
+
+}
@@ -0,0 +1,333 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Machine readable output of a stress run for the command line runner: a JSON report of the configuration, the
+ * totals and every per-second snapshot, and the response time histogram in the percentile distribution format
+ * of HdrHistogram (.hgrm) which its plotter and most latency tooling read.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public class StressReport {
+
+    /**
+     * percentile lines per halving of the distance to 100%, the default of HdrHistogram
+     */
+    private static final int TICKS_PER_HALF_DISTANCE = 5;
+
+    /**
+     * microseconds per millisecond, values of the .hgrm file are milliseconds
+     */
+    private static final double VALUE_UNIT_RATIO = 1000.0;
+
+    private final StressConfig config;
+    private final StressMetrics metrics;
+    private final String statement;
+
+    /**
+     * @param statement sql under stress, written to the report as is
+     */
+    public StressReport(StressConfig config, StressMetrics metrics, String statement) {
+        this.config = config;
+        this.metrics = metrics;
+        this.statement = statement;
+    }
+
+    /**
+     * Write {@code prefix.json} and {@code prefix.hgrm}.
+     */
+    public void write(Path prefix) throws IOException {
+        Path parent = prefix.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(prefix.resolveSibling(prefix.getFileName() + ".json"), StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(prefix.resolveSibling(prefix.getFileName() + ".hgrm"), StandardCharsets.UTF_8)) {
+            writePercentileDistribution(metrics.getHistogram(), writer);
+        }
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+
+        Percentiles percentiles = metrics.getPercentiles();
+        LatencyHistogram histogram = metrics.getHistogram();
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+
+        field(json, 1, "statement", statement).append(",\n");
+        field(json, 1, "startMillis", metrics.getStartMillis()).append(",\n");
+        field(json, 1, "steadyStartMillis", metrics.getSteadySecond()).append(",\n");
+
+        indent(json, 1).append("\"config\": {\n");
+        field(json, 2, "trafficModel", config.getTrafficModel().name()).append(",\n");
+        field(json, 2, "concurrency", config.getConcurrency()).append(",\n");
+        field(json, 2, "inFlightLimit", config.getInFlightLimit()).append(",\n");
+        field(json, 2, "threadMode", config.getThreadMode().name()).append(",\n");
+        field(json, 2, "durationSeconds", config.getDurationSeconds()).append(",\n");
+        field(json, 2, "rampSeconds", config.getRampSeconds()).append(",\n");
+        field(json, 2, "warmupSeconds", config.getWarmupSeconds()).append(",\n");
+        field(json, 2, "steadyStateCv", config.getSteadyStateCv());
+        if (config.getArrivalRate() != null) {
+            json.append(",\n");
+            field(json, 2, "rateProfile", config.getArrivalRate().getProfile().name()).append(",\n");
+            field(json, 2, "targetQps", config.getArrivalRate().getTargetQps());
+        }
+        json.append('\n');
+        indent(json, 1).append("},\n");
+
+        field(json, 1, "total", metrics.getSuccess() + metrics.getFailed()).append(",\n");
+        field(json, 1, "success", metrics.getSuccess()).append(",\n");
+        field(json, 1, "failed", metrics.getFailed()).append(",\n");
+        field(json, 1, "dropped", metrics.getDropped()).append(",\n");
+        field(json, 1, "late", metrics.getLate()).append(",\n");
+        field(json, 1, "successRate", Double.parseDouble(metrics.successRate())).append(",\n");
+
+        indent(json, 1).append("\"rtMillis\": {\n");
+        field(json, 2, "mean", toMillis(histogram.getMean())).append(",\n");
+        field(json, 2, "serviceMean", Double.parseDouble(metrics.averageServiceRt())).append(",\n");
+        field(json, 2, "min", toMillis(histogram.getMin())).append(",\n");
+        field(json, 2, "max", toMillis(histogram.getMax())).append(",\n");
+        percentiles(json, 2, percentiles, histogram).append('\n');
+        indent(json, 1).append("},\n");
+
+        indent(json, 1).append("\"tps\": {\n");
+        field(json, 2, "average", Long.parseLong(metrics.tps())).append(",\n");
+        field(json, 2, "max", metrics.maxTps()).append('\n');
+        indent(json, 1).append("},\n");
+
+        ErrorStats errorStats = metrics.getErrorStats();
+        indent(json, 1).append("\"errors\": [");
+        Iterator<Map.Entry<String, Long>> errors = errorStats.totals().entrySet().iterator();
+        while (errors.hasNext()) {
+            Map.Entry<String, Long> error = errors.next();
+            json.append('\n');
+            indent(json, 2).append("{");
+            json.append(quote("class")).append(": ").append(quote(error.getKey())).append(", ");
+            json.append(quote("count")).append(": ").append(error.getValue()).append(", ");
+            json.append(quote("samples")).append(": [");
+            List<String> samples = errorStats.samples(error.getKey());
+            for (int i = 0; i < samples.size(); i++) {
+                json.append(i == 0 ? "" : ", ").append(quote(samples.get(i)));
+            }
+            json.append("]}").append(errors.hasNext() ? "," : "\n");
+        }
+        if (!errorStats.totals().isEmpty()) {
+            indent(json, 1);
+        }
+        json.append("],\n");
+
+        List<CapacityStep> steps = metrics.capacitySteps();
+        if (!steps.isEmpty()) {
+            CapacityStep knee = CapacitySearch.knee(steps);
+            indent(json, 1).append("\"capacity\": {\n");
+            field(json, 2, "sloP99Millis", config.getSloP99Millis()).append(",\n");
+            field(json, 2, "sloErrorRate", config.getSloErrorRate()).append(",\n");
+            if (knee == null) {
+                indent(json, 2).append("\"kneeConcurrency\": null,\n");
+                indent(json, 2).append("\"maxSustainableTps\": null,\n");
+            } else {
+                field(json, 2, "kneeConcurrency", knee.getConcurrency()).append(",\n");
+                field(json, 2, "maxSustainableTps", knee.getTps()).append(",\n");
+            }
+            indent(json, 2).append("\"steps\": [");
+            for (int i = 0; i < steps.size(); i++) {
+                CapacityStep step = steps.get(i);
+                json.append('\n');
+                indent(json, 3).append("{");
+                json.append(quote("concurrency")).append(": ").append(step.getConcurrency()).append(", ");
+                json.append(quote("tps")).append(": ").append(number(step.getTps())).append(", ");
+                json.append(quote("averageRtMillis")).append(": ").append(number(toMillis(step.getAverageRt()))).append(", ");
+                json.append(quote("p99Millis")).append(": ").append(number(toMillis(step.getP99()))).append(", ");
+                json.append(quote("errorRate")).append(": ").append(number(step.getErrorRate())).append(", ");
+                json.append(quote("passed")).append(": ").append(step.isPassed());
+                json.append('}').append(i < steps.size() - 1 ? "," : "\n");
+            }
+            indent(json, 2).append("]\n");
+            indent(json, 1).append("},\n");
+        }
+
+        indent(json, 1).append("\"intervals\": [");
+        List<IntervalSnapshot> snapshots = metrics.getSnapshots().toList();
+        for (int i = 0; i < snapshots.size(); i++) {
+            IntervalSnapshot snapshot = snapshots.get(i);
+            json.append('\n');
+            indent(json, 2).append("{");
+            json.append(quote("second")).append(": ").append(snapshot.getSecond()).append(", ");
+            json.append(quote("success")).append(": ").append(snapshot.getSuccess()).append(", ");
+            json.append(quote("failed")).append(": ").append(snapshot.getFailed()).append(", ");
+            json.append(quote("averageRtMillis")).append(": ").append(number(toMillis(snapshot.getAverageRt()))).append(", ");
+            json.append(quote("maxRtMillis")).append(": ").append(number(toMillis(snapshot.getMaxRt())));
+            long[] values = percentiles.valuesOf(snapshot.getHistogram());
+            for (int p = 0; p < values.length; p++) {
+                json.append(", ").append(quote(percentiles.label(p))).append(": ").append(number(toMillis(values[p])));
+            }
+            if (!snapshot.getErrors().isEmpty()) {
+                json.append(", ").append(quote("errors")).append(": {");
+                Iterator<Map.Entry<String, Long>> iterator = snapshot.getErrors().entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Long> error = iterator.next();
+                    json.append(quote(error.getKey())).append(": ").append(error.getValue()).append(iterator.hasNext() ? ", " : "");
+                }
+                json.append('}');
+            }
+            json.append('}').append(i < snapshots.size() - 1 ? "," : "\n");
+        }
+        if (!snapshots.isEmpty()) {
+            indent(json, 1);
+        }
+        json.append("]\n");
+
+        json.append("}\n");
+
+        writer.write(json.toString());
+    }
+
+    /**
+     * Percentile distribution in the text format of HdrHistogram's outputPercentileDistribution, values in
+     * milliseconds. The binary HdrHistogram log needs the library itself, this format is read by the same tools.
+     */
+    public static void writePercentileDistribution(LatencyHistogram histogram, Writer writer) throws IOException {
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+
+        long totalCount = histogram.getTotalCount();
+
+        if (totalCount > 0) {
+            double percentile = 0;
+            while (percentile < 100) {
+                long value = histogram.getValueAtPercentile(percentile);
+                if (value >= histogram.getMax()) {
+                    break;
+                }
+                long countAtValue = countAtOrBelow(histogram, value);
+                double fraction = (double) countAtValue / totalCount;
+                out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f%n",
+                        value / VALUE_UNIT_RATIO, fraction, countAtValue, fraction >= 1 ? Double.POSITIVE_INFINITY : 1 / (1 - fraction)));
+
+                // the distance to 100% is halved every ticksPerHalfDistance lines
+                long ticks = TICKS_PER_HALF_DISTANCE * (1L << ((long) (Math.log(100 / (100 - percentile)) / Math.log(2)) + 1));
+                percentile += 100.0 / ticks;
+            }
+            out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d%n", histogram.getMax() / VALUE_UNIT_RATIO, 1.0, totalCount));
+        }
+
+        out.append(String.format(Locale.ROOT, "#[Mean    = %12.3f, StdDeviation   = %12.3f]%n",
+                histogram.getMean() / VALUE_UNIT_RATIO, standardDeviation(histogram) / VALUE_UNIT_RATIO));
+        out.append(String.format(Locale.ROOT, "#[Max     = %12.3f, Total count    = %12d]%n",
+                histogram.getMax() / VALUE_UNIT_RATIO, totalCount));
+        out.append(String.format(Locale.ROOT, "#[Buckets = %12d, SubBuckets     = %12d]%n",
+                LatencyHistogram.BUCKET_COUNT, LatencyHistogram.SUB_BUCKET_COUNT));
+
+        writer.write(out.toString());
+    }
+
+    private static long countAtOrBelow(LatencyHistogram histogram, long value) {
+        long count = 0;
+        int highest = LatencyHistogram.indexOf(LatencyHistogram.clamp(value));
+        for (int i = 0; i <= highest; i++) {
+            count += histogram.countAt(i);
+        }
+        return count;
+    }
+
+    /**
+     * Buckets are represented by their middle value, as HdrHistogram does.
+     */
+    static double standardDeviation(LatencyHistogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return 0;
+        }
+        double mean = histogram.getMean();
+        double squares = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long count = histogram.countAt(i);
+            if (count > 0) {
+                double middle = (LatencyHistogram.lowestEquivalentValue(i) + LatencyHistogram.highestEquivalentValue(i)) / 2.0;
+                squares += (middle - mean) * (middle - mean) * count;
+            }
+        }
+        return Math.sqrt(squares / histogram.getTotalCount());
+    }
+
+    private static StringBuilder percentiles(StringBuilder json, int depth, Percentiles percentiles, LatencyHistogram histogram) {
+        long[] values = percentiles.valuesOf(histogram);
+        indent(json, depth).append("\"percentiles\": {");
+        for (int i = 0; i < values.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(quote(percentiles.label(i))).append(": ").append(number(toMillis(values[i])));
+        }
+        return json.append('}');
+    }
+
+    private static StringBuilder field(StringBuilder json, int depth, String name, String value) {
+        return indent(json, depth).append(quote(name)).append(": ").append(value == null ? "null" : quote(value));
+    }
+
+    private static StringBuilder field(StringBuilder json, int depth, String name, long value) {
+        return indent(json, depth).append(quote(name)).append(": ").append(value);
+    }
+
+    private static StringBuilder field(StringBuilder json, int depth, String name, double value) {
+        return indent(json, depth).append(quote(name)).append(": ").append(number(value));
+    }
+
+    private static StringBuilder indent(StringBuilder json, int depth) {
+        for (int i = 0; i < depth; i++) {
+            json.append("  ");
+        }
+        return json;
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static double toMillis(double micros) {
+        return micros / 1000;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * One request of a stress run, called by the workers of a {@link StressEngine} repeatedly and concurrently.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+@FunctionalInterface
+public interface StressRequest {
+
+    /**
+     * Execute the statement once and drain its result.
+     *
+     * @return service time in nanoseconds, from execution start to completion
+     * @throws Exception counted as a failed request, classified by {@link ErrorClassifier}
+     */
+    long execute() throws Exception;
+}
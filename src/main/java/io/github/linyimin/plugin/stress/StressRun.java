@@ -0,0 +1,280 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of one stress run: configuration, totals, the response time histogram and every time series of the report.
+ *
+ * @author banzhe
+ * @date 2026/10/18 22:10
+ **/
+public class StressRun {
+
+    public static final String SUCCESS_RATE = "请求成功率";
+    public static final String AVERAGE_RT = "平均RT";
+    public static final String AVERAGE_SERVICE_RT = "平均服务时间";
+    public static final String TPS = "TPS";
+    public static final String CONCURRENCY = "并发数";
+    /**
+     * per-second TP99, persisted whatever percentiles the report shows, the comparison of runs relies on it
+     */
+    public static final String P99_RT = "TP99";
+
+    private static final int MAGIC = 0x53515352;
+    private static final int VERSION = 1;
+
+    private long startMillis;
+    private long endMillis;
+
+    /**
+     * identifies the statement under stress, see {@link #hash(String)}
+     */
+    private String statementHash;
+    private String datasource;
+    private String statement;
+
+    private String valueType;
+    private String trafficModel;
+    private int concurrency;
+
+    private long success;
+    private long failed;
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * series name -> (timestamp millis -> value)
+     */
+    private Map<String, Map<Long, Double>> series = new LinkedHashMap<>();
+
+    public static String hash(String statement) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(statement.trim().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public void setStartMillis(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public void setEndMillis(long endMillis) {
+        this.endMillis = endMillis;
+    }
+
+    public String getStatementHash() {
+        return statementHash;
+    }
+
+    public void setStatementHash(String statementHash) {
+        this.statementHash = statementHash;
+    }
+
+    public String getDatasource() {
+        return datasource;
+    }
+
+    public void setDatasource(String datasource) {
+        this.datasource = datasource;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public void setStatement(String statement) {
+        this.statement = statement;
+    }
+
+    public String getValueType() {
+        return valueType;
+    }
+
+    public void setValueType(String valueType) {
+        this.valueType = valueType;
+    }
+
+    public String getTrafficModel() {
+        return trafficModel;
+    }
+
+    public void setTrafficModel(String trafficModel) {
+        this.trafficModel = trafficModel;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getSuccess() {
+        return success;
+    }
+
+    public void setSuccess(long success) {
+        this.success = success;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(LatencyHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    public Map<String, Map<Long, Double>> getSeries() {
+        return series;
+    }
+
+    /**
+     * Store a copy of the points sorted by time, the maps of the live report keep changing.
+     */
+    public void putSeries(String name, Map<Long, ? extends Number> points) {
+        Map<Long, Double> copy = new TreeMap<>();
+        points.forEach((timestamp, value) -> copy.put(timestamp, value.doubleValue()));
+        this.series.put(name, copy);
+    }
+
+    public Map<Long, Double> getSeries(String name) {
+        return series.getOrDefault(name, new TreeMap<>());
+    }
+
+    /**
+     * @return e.g. 2026-10-18 22:10:05 [fixed concurrent number, 20]
+     */
+    public String getLabel() {
+        return String.format("%s [%s, %s]", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(startMillis)), trafficModel, concurrency);
+    }
+
+    public void write(OutputStream stream) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeLong(startMillis);
+        out.writeLong(endMillis);
+        out.writeUTF(statementHash);
+        out.writeUTF(datasource);
+        writeLongString(out, statement);
+        out.writeUTF(valueType);
+        out.writeUTF(trafficModel);
+        out.writeInt(concurrency);
+        out.writeLong(success);
+        out.writeLong(failed);
+
+        histogram.write(out);
+
+        out.writeInt(series.size());
+        for (Map.Entry<String, Map<Long, Double>> entry : series.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Map.Entry<Long, Double> point : entry.getValue().entrySet()) {
+                out.writeLong(point.getKey());
+                out.writeDouble(point.getValue());
+            }
+        }
+
+        out.flush();
+    }
+
+    public static StressRun read(InputStream stream) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a stress run or written by an incompatible version.");
+        }
+
+        StressRun run = new StressRun();
+
+        run.setStartMillis(in.readLong());
+        run.setEndMillis(in.readLong());
+        run.setStatementHash(in.readUTF());
+        run.setDatasource(in.readUTF());
+        run.setStatement(readLongString(in));
+        run.setValueType(in.readUTF());
+        run.setTrafficModel(in.readUTF());
+        run.setConcurrency(in.readInt());
+        run.setSuccess(in.readLong());
+        run.setFailed(in.readLong());
+
+        run.setHistogram(LatencyHistogram.read(in));
+
+        int seriesCount = in.readInt();
+        for (int i = 0; i < seriesCount; i++) {
+            String name = in.readUTF();
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("corrupted stress run.");
+            }
+            Map<Long, Double> points = new TreeMap<>();
+            for (int j = 0; j < size; j++) {
+                points.put(in.readLong(), in.readDouble());
+            }
+            run.series.put(name, points);
+        }
+
+        return run;
+    }
+
+    /**
+     * DataOutput.writeUTF is limited to 64KB, a workload mix may be longer
+     */
+    private static void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("corrupted stress run.");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
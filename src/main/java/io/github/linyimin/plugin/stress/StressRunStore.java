@@ -0,0 +1,170 @@
+package io.github.linyimin.plugin.stress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Stress runs saved in a directory, one binary file per run plus an index of all runs, so listing the runs of a
+ * statement does not read every file.
+ *
+ * @author banzhe
+ * @date 2026/10/18 22:30
+ **/
+public class StressRunStore {
+
+    /**
+     * the oldest runs are deleted beyond this number
+     */
+    public static final int MAX_RUNS = 200;
+
+    private static final String INDEX_FILE = "index";
+    private static final String RUN_FILE_SUFFIX = ".run";
+
+    private static final int MAGIC = 0x53515349;
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    public StressRunStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public synchronized void save(StressRun run) throws IOException {
+
+        Files.createDirectories(directory);
+
+        Path file = runFile(run.getStartMillis());
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            run.write(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Entry> entries = readIndex();
+        entries.removeIf(entry -> entry.getStartMillis() == run.getStartMillis());
+        entries.add(new Entry(run.getStartMillis(), run.getStatementHash(), run.getDatasource(), run.getLabel()));
+        entries.sort(Comparator.comparingLong(Entry::getStartMillis));
+
+        while (entries.size() > MAX_RUNS) {
+            Files.deleteIfExists(runFile(entries.remove(0).getStartMillis()));
+        }
+
+        writeIndex(entries);
+    }
+
+    public synchronized StressRun load(long startMillis) throws IOException {
+        try (InputStream in = Files.newInputStream(runFile(startMillis))) {
+            return StressRun.read(in);
+        }
+    }
+
+    /**
+     * @return all runs, the latest first
+     */
+    public synchronized List<Entry> list() throws IOException {
+        List<Entry> entries = readIndex();
+        entries.sort(Comparator.comparingLong(Entry::getStartMillis).reversed());
+        return entries;
+    }
+
+    /**
+     * @return runs of the statement against the datasource, the latest first
+     */
+    public List<Entry> list(String statementHash, String datasource) throws IOException {
+        return list().stream()
+                .filter(entry -> Objects.equals(entry.getStatementHash(), statementHash) && Objects.equals(entry.getDatasource(), datasource))
+                .collect(Collectors.toList());
+    }
+
+    private Path runFile(long startMillis) {
+        return directory.resolve(startMillis + RUN_FILE_SUFFIX);
+    }
+
+    private List<Entry> readIndex() throws IOException {
+
+        List<Entry> entries = new ArrayList<>();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(INDEX_FILE))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return entries;
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                entries.add(new Entry(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+        } catch (NoSuchFileException e) {
+            return entries;
+        }
+
+        return entries;
+    }
+
+    private void writeIndex(List<Entry> entries) throws IOException {
+
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.getStartMillis());
+                out.writeUTF(entry.getStatementHash());
+                out.writeUTF(entry.getDatasource());
+                out.writeUTF(entry.getLabel());
+            }
+        }
+
+        Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static class Entry {
+
+        private final long startMillis;
+        private final String statementHash;
+        private final String datasource;
+        private final String label;
+
+        private Entry(long startMillis, String statementHash, String datasource, String label) {
+            this.startMillis = startMillis;
+            this.statementHash = statementHash;
+            this.datasource = datasource;
+            this.label = label;
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public String getStatementHash() {
+            return statementHash;
+        }
+
+        public String getDatasource() {
+            return datasource;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.linyimin.plugin.stress;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Kind of threads the {@link LoadGenerator} runs its workers on.
+ *
+ * @author banzhe
+ * @date 2026/10/18 15:40
+ **/
+public enum ThreadModeEnum {
+    /**
+     * one platform thread per worker, the default
+     */
+    platform,
+    /**
+     * one virtual thread per worker, needs a JDK with Thread.ofVirtual (21+).
+     * Drivers that block inside synchronized pin their carrier thread, so the in-flight limit still applies.
+     */
+    virtual;
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    public boolean isSupported() {
+        return this == platform || VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    ThreadFactory virtualThreadFactory() {
+        return VIRTUAL_THREAD_FACTORY;
+    }
+
+    /**
+     * The plugin compiles against Java 17, so Thread.ofVirtual().name(prefix, 0).factory() is looked up reflectively.
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, LoadGenerator.WORKER_NAME_PREFIX, 0L);
+
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
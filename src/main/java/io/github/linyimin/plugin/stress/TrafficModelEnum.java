@@ -0,0 +1,51 @@
+package io.github.linyimin.plugin.stress;
+
+/**
+ * How a {@link StressEngine} offers load to the database.
+ *
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+public enum TrafficModelEnum {
+    /**
+     * closed model, all workers start at once and each sends its next request when the previous one completed
+     */
+    fixed("fixed concurrent threads"),
+    /**
+     * closed model, workers are added one by one within the ramp duration
+     */
+    ramp("increase in a constant rate"),
+    /**
+     * open model, requests are sent at the configured {@link ArrivalRate} whether or not earlier ones completed
+     */
+    arrival_rate("constant arrival rate"),
+    /**
+     * closed model, searches the highest concurrency which meets the TP99 and error rate SLO, see {@link CapacitySearch}
+     */
+    capacity_search("find max sustainable TPS");
+
+    private final String label;
+
+    TrafficModelEnum(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the name shown in the stress configuration of the tool window
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param text label or name of the model
+     */
+    public static TrafficModelEnum of(String text) {
+        for (TrafficModelEnum model : values()) {
+            if (model.label.equals(text) || model.name().equals(text)) {
+                return model;
+            }
+        }
+        throw new IllegalArgumentException(String.format("traffic model %s is not supported.", text));
+    }
+}
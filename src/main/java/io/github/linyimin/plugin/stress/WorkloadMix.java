@@ -0,0 +1,123 @@
+package io.github.linyimin.plugin.stress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A weighted set of statements, every request picks one of them independently with probability weight / total
+ * weight, so statements interleave the way they do in a real mapper workload.
+ *
+ * @author banzhe
+ * @date 2026/10/18 21:05
+ **/
+public class WorkloadMix<T> {
+
+    private final List<Entry<T>> entries;
+
+    /**
+     * cumulative weights, cumulative[i] = weight of entries [0, i]
+     */
+    private final long[] cumulative;
+
+    private WorkloadMix(List<Entry<T>> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.cumulative = new long[entries.size()];
+
+        long total = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            total += entries.get(i).getWeight();
+            this.cumulative[i] = total;
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return a random entry according to the weights, safe to call from any number of threads
+     */
+    public Entry<T> pick() {
+        return entries.get(indexOf(ThreadLocalRandom.current().nextLong(getTotalWeight())));
+    }
+
+    /**
+     * @param point in range [0, total weight)
+     */
+    int indexOf(long point) {
+        int index = Arrays.binarySearch(cumulative, point + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public List<Entry<T>> getEntries() {
+        return entries;
+    }
+
+    public long getTotalWeight() {
+        return cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * @return the expected fraction of requests of the entry
+     */
+    public double share(Entry<T> entry) {
+        return (double) entry.getWeight() / getTotalWeight();
+    }
+
+    public static class Builder<T> {
+
+        private final List<Entry<T>> entries = new ArrayList<>();
+        private final Set<String> names = new HashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String name, int weight, T payload) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException(String.format("weight of %s should be greater than 0.", name));
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException(String.format("statement %s is added more than once.", name));
+            }
+            entries.add(new Entry<>(name, weight, payload));
+            return this;
+        }
+
+        public WorkloadMix<T> build() {
+            if (entries.isEmpty()) {
+                throw new IllegalArgumentException("workload should contain at least one statement.");
+            }
+            return new WorkloadMix<>(new ArrayList<>(entries));
+        }
+    }
+
+    public static class Entry<T> {
+
+        private final String name;
+        private final int weight;
+        private final T payload;
+
+        private Entry(String name, int weight, T payload) {
+            this.name = name;
+            this.weight = weight;
+            this.payload = payload;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.linyimin.plugin.ui;
+
+import com.intellij.ui.JBColor;
+import io.github.linyimin.plugin.stress.CapacityStep;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Capacity curve of a capacity search: latency against throughput, one point per measured concurrency, ordered by
+ * concurrency. The curve bends upwards at the knee, where the database stops gaining throughput.
+ *
+ * @author banzhe
+ * @date 2026/10/19 03:00
+ **/
+public class CapacityChart {
+
+    private final XYSeries p99 = new XYSeries("TP99", false, true);
+    private final XYSeries averageRt = new XYSeries("平均RT", false, true);
+    private final XYPlot plot;
+    private final JFreeChart chart;
+    private final ChartPanel chartPanel;
+
+    private ValueMarker sloMarker;
+
+    public CapacityChart(String title) {
+
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(p99);
+        dataset.addSeries(averageRt);
+
+        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, true);
+        renderer.setSeriesPaint(0, JBColor.RED);
+        renderer.setSeriesPaint(1, JBColor.BLUE);
+
+        this.plot = new XYPlot(dataset, new NumberAxis("TPS"), new NumberAxis("RT(ms)"), renderer);
+
+        plot.setBackgroundPaint(JBColor.WHITE);
+
+        plot.setRangeGridlinesVisible(true);
+        plot.setRangeGridlinePaint(JBColor.BLACK);
+
+        plot.setDomainGridlinesVisible(true);
+        plot.setDomainGridlinePaint(JBColor.BLACK);
+
+        this.chart = new JFreeChart(title, new Font("Serif", Font.BOLD, 13), plot, true);
+        this.chart.getLegend().setFrame(BlockBorder.NONE);
+
+        this.chartPanel = new ChartPanel(chart);
+        this.chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+    }
+
+    public ChartPanel getChartPanel() {
+        return chartPanel;
+    }
+
+    public void clear() {
+        this.p99.clear();
+        this.averageRt.clear();
+    }
+
+    /**
+     * Show all steps measured so far.
+     *
+     * @param sloP99Millis drawn as a horizontal line
+     */
+    public void update(List<CapacityStep> steps, double sloP99Millis) {
+
+        List<CapacityStep> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingInt(CapacityStep::getConcurrency));
+
+        this.chart.setNotify(false);
+
+        try {
+            this.p99.clear();
+            this.averageRt.clear();
+            for (CapacityStep step : sorted) {
+                this.p99.add(step.getTps(), step.getP99() / 1000.0);
+                this.averageRt.add(step.getTps(), step.getAverageRt() / 1000.0);
+            }
+
+            if (this.sloMarker == null || this.sloMarker.getValue() != sloP99Millis) {
+                if (this.sloMarker != null) {
+                    this.plot.removeRangeMarker(this.sloMarker);
+                }
+                this.sloMarker = new ValueMarker(sloP99Millis, JBColor.ORANGE, new BasicStroke(1.5f));
+                this.sloMarker.setLabel("SLO");
+                this.plot.addRangeMarker(this.sloMarker);
+            }
+        } finally {
+            this.chart.setNotify(true);
+        }
+    }
+}
@@ -31,6 +31,9 @@ public class DatasourceDialog extends JDialog {
     private JTextField user;
     private JPasswordField password;
     private JTextField database;
+    private JTextField maxActive;
+    private JTextField minIdle;
+    private JTextField maxWait;
     private JTextField url;
     private JTextArea testResult;
     // 通过addConfiguration button控制显示combo box或text field
@@ -139,6 +142,9 @@ public class DatasourceDialog extends JDialog {
         user.setText(component.getUser());
         password.setText(component.getPassword());
         database.setText(component.getDatabase());
+        maxActive.setText(String.valueOf(component.getMaxActive()));
+        minIdle.setText(String.valueOf(component.getMinIdle(component.getName())));
+        maxWait.setText(String.valueOf(component.getMaxWait(component.getName())));
         typeBox.setSelectedItem(component.getType());
 
         if (StringUtils.isNotBlank(component.getName())) {
@@ -172,10 +178,11 @@ public class DatasourceDialog extends JDialog {
         user.setText(component.getUser());
         password.setText(component.getPassword());
         database.setText(component.getDatabase());
+        maxActive.setText(String.valueOf(component.getMaxActive()));
+        minIdle.setText(String.valueOf(component.getMinIdle(current)));
+        maxWait.setText(String.valueOf(component.getMaxWait(current)));
 
-        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
-        datasourceComponent.updateDatasource();
-
+        // the pool of the chosen datasource stays open, switching back to it doesn't reconnect
         backgroundTaskQueue.run(new Task.Backgroundable(project, Constant.APPLICATION_NAME) {
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
@@ -214,9 +221,13 @@ public class DatasourceDialog extends JDialog {
                 .user(user.getText())
                 .password(String.valueOf(password.getPassword()))
                 .database(database.getText())
+                .maxActive(maxActive.getText())
+                .minIdle(minIdle.getText())
+                .maxWait(maxWait.getText())
                 .type((String) typeBox.getSelectedItem());
 
         datasourceComponent.updateDatasource();
+        datasourceComponent.warmUp(name);
 
     }
 
@@ -277,6 +288,9 @@ public class DatasourceDialog extends JDialog {
         user.setText(StringUtils.EMPTY);
         password.setText(StringUtils.EMPTY);
         database.setText(StringUtils.EMPTY);
+        maxActive.setText(String.valueOf(Constant.DEFAULT_MAX_ACTIVE));
+        minIdle.setText(String.valueOf(Constant.DEFAULT_MIN_IDLE));
+        maxWait.setText(String.valueOf(Constant.DEFAULT_MAX_WAIT));
 
         nameText.setVisible(true);
         nameComboBox.setVisible(false);
@@ -0,0 +1,64 @@
+package io.github.linyimin.plugin.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import io.github.linyimin.plugin.configuration.DatasourceConfigComponent;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
+
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+
+/**
+ * Datasource profile a pane runs against. The profiles are listed again every time the popup opens, since they
+ * are added and removed in the datasource dialog.
+ *
+ * @author banzhe
+ * @date 2026/10/19 08:00
+ **/
+public class DatasourceProfileComboBox extends ComboBox<String> {
+
+    private boolean reloading = false;
+
+    public void bind(Project project, DatasourceComponent.Target target) {
+
+        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+
+        reload(datasourceComponent.getProfile(target));
+
+        addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                reload(datasourceComponent.getProfile(target));
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
+
+        addActionListener(e -> {
+            if (!reloading) {
+                datasourceComponent.setProfile(target, (String) getSelectedItem());
+            }
+        });
+    }
+
+    private void reload(String selected) {
+
+        DatasourceConfigComponent component = ApplicationManager.getApplication().getComponent(DatasourceConfigComponent.class);
+
+        reloading = true;
+        try {
+            removeAllItems();
+            component.getAllDatasourceNames().forEach(this::addItem);
+            setSelectedItem(selected);
+        } finally {
+            reloading = false;
+        }
+    }
+}
@@ -1,24 +1,28 @@
 package io.github.linyimin.plugin.ui;
 
 import com.intellij.ui.JBColor;
+import io.github.linyimin.plugin.stress.DownsampledSeries;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.*;
 import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.plot.IntervalMarker;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.title.TextTitle;
 import org.jfree.data.time.Second;
 import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
-import org.jfree.data.xy.XYDataset;
 
 import javax.swing.*;
 import java.awt.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * @author banzhe
@@ -26,9 +30,18 @@ import java.util.Map;
  **/
 public class LineChart {
 
+    /**
+     * points kept per series, older points are downsampled beyond it
+     */
+    private static final int MAX_POINTS = 600;
 
     private ChartPanel chartPanel;
     private JFreeChart chart;
+    private final TimeSeriesCollection dataset = new TimeSeriesCollection();
+    private final Map<String, Line> lines = new LinkedHashMap<>();
+    private final Line concurrentNum = new Line("并发数");
+    private int tickMultiple = 0;
+    private IntervalMarker warmupMarker;
     private final String title;
     private final String xAxisLabel;
     private final String yAxisLabel;
@@ -41,24 +54,14 @@ public class LineChart {
     }
 
     private void initUI() {
-        XYDataset dataset = createDataset();
-        this.chart = createChart(dataset);
+        this.chart = createChart(this.dataset);
 
         this.chartPanel = new ChartPanel(chart);
         chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
     }
 
-    private XYDataset createDataset() {
-
-        TimeSeries series = new TimeSeries(title);
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
-        dataset.addSeries(series);
-
-        return dataset;
-    }
-
-    private JFreeChart createChart(XYDataset dataset) {
+    private JFreeChart createChart(TimeSeriesCollection dataset) {
         JFreeChart chart = ChartFactory.createTimeSeriesChart(title, xAxisLabel, yAxisLabel, dataset, true, true, false );
 
         XYPlot plot = chart.getXYPlot();
@@ -75,6 +78,15 @@ public class LineChart {
         concurrentNumRender.setBaseShapesVisible(false);
         plot.setRenderer(1, concurrentNumRender);
 
+        NumberAxis concurrentAxis = new NumberAxis("并发数");
+        concurrentAxis.setLabelFont(new Font("黑体", Font.PLAIN, 13));
+        plot.setRangeAxis(1, concurrentAxis);
+
+        TimeSeriesCollection concurrentNumDataset = new TimeSeriesCollection();
+        concurrentNumDataset.addSeries(this.concurrentNum.series);
+        plot.setDataset(1, concurrentNumDataset);
+        plot.mapDatasetToRangeAxis(1, 1);
+
         plot.setBackgroundPaint(JBColor.WHITE);
 
         plot.setRangeGridlinesVisible(true);
@@ -95,42 +107,163 @@ public class LineChart {
         return this.chartPanel;
     }
 
-    public void updateDataset(Map<Long, Double> data, Map<Long, Long> concurrentNumMap) {
+    /**
+     * Remove all points, the next update starts a new run.
+     */
+    public void clear() {
+        this.chart.setNotify(false);
+        try {
+            this.dataset.removeAllSeries();
+            this.lines.clear();
+            this.concurrentNum.clear();
+            this.tickMultiple = 0;
+            if (this.warmupMarker != null) {
+                this.chart.getXYPlot().removeDomainMarker(this.warmupMarker);
+                this.warmupMarker = null;
+            }
+        } finally {
+            this.chart.setNotify(true);
+        }
+    }
 
-        XYPlot xyPlot = chart.getXYPlot();
+    /**
+     * Shade the warm-up, whose requests are left out of the summary.
+     *
+     * @param endMillis first second of the steady state
+     */
+    public void markWarmup(long startMillis, long endMillis) {
 
-        DateAxis dateAxis = (DateAxis) xyPlot.getDomainAxis();
+        if (this.warmupMarker != null && this.warmupMarker.getEndValue() == endMillis) {
+            return;
+        }
 
-        int multiple = Math.max(concurrentNumMap.size() / 5, 1);
-        dateAxis.setTickUnit(new DateTickUnit(DateTickUnitType.SECOND, multiple, new SimpleDateFormat("HH:mm:ss")));
+        XYPlot plot = this.chart.getXYPlot();
+        if (this.warmupMarker != null) {
+            plot.removeDomainMarker(this.warmupMarker);
+        }
 
-        NumberAxis numberAxis = (NumberAxis)xyPlot.getRangeAxis();
-        chart.getXYPlot().setRangeAxis(0, numberAxis);
-        chart.getXYPlot().setDataset(0, mapToDataset(data, title));
-        chart.getXYPlot().mapDatasetToRangeAxis(0, 0);
+        this.warmupMarker = new IntervalMarker(startMillis, endMillis, JBColor.LIGHT_GRAY);
+        this.warmupMarker.setAlpha(0.4f);
+        this.warmupMarker.setLabel("预热");
+        plot.addDomainMarker(this.warmupMarker);
+    }
 
-        NumberAxis concurrentAxis = new NumberAxis("并发数");
-        concurrentAxis.setLabelFont(new Font("黑体", Font.PLAIN, 13));
-        chart.getXYPlot().setRangeAxis(1, concurrentAxis);
-        chart.getXYPlot().setDataset(1, mapToDataset(concurrentNumMap, "并发数"));
-        chart.getXYPlot().mapDatasetToRangeAxis(1, 1);
+    public void updateDataset(Map<Long, Double> data, Map<Long, Long> concurrentNumMap) {
+        Map<String, Map<Long, Double>> series = new LinkedHashMap<>();
+        series.put(title, data);
+        updateSeriesDataset(series, concurrentNumMap);
+    }
 
+    /**
+     * Only points newer than the last update are added, so the cost of an update does not grow with the length of
+     * the run. The chart is redrawn once per update.
+     */
+    public void updateSeriesDataset(Map<String, Map<Long, Double>> data, Map<Long, Long> concurrentNumMap) {
+
+        this.chart.setNotify(false);
+
+        try {
+            if (!this.lines.keySet().equals(data.keySet())) {
+                this.dataset.removeAllSeries();
+                this.lines.clear();
+                for (String name : data.keySet()) {
+                    Line line = new Line(name);
+                    this.lines.put(name, line);
+                    this.dataset.addSeries(line.series);
+                }
+            }
+
+            for (Map.Entry<String, Map<Long, Double>> entry : data.entrySet()) {
+                this.lines.get(entry.getKey()).append(entry.getValue());
+            }
+
+            this.concurrentNum.append(concurrentNumMap);
+
+            updateTickUnit();
+        } finally {
+            this.chart.setNotify(true);
+        }
     }
 
-    private <T> TimeSeriesCollection mapToDataset(Map<Long, T> data, String seriesTitle) {
+    private void updateTickUnit() {
+
+        DownsampledSeries points = this.concurrentNum.points;
+        if (points.size() == 0) {
+            return;
+        }
+
+        long seconds = (points.lastTimestamp() - points.timestamp(0)) / 1000 + 1;
+        int multiple = (int) Math.max(seconds / 5, 1);
+        if (multiple == this.tickMultiple) {
+            return;
+        }
 
-        TimeSeries series = new TimeSeries(seriesTitle);
+        this.tickMultiple = multiple;
+        DateAxis dateAxis = (DateAxis) this.chart.getXYPlot().getDomainAxis();
+        dateAxis.setTickUnit(new DateTickUnit(DateTickUnitType.SECOND, multiple, new SimpleDateFormat("HH:mm:ss")));
+    }
 
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
+    /**
+     * A series of the chart and the bounded points behind it.
+     */
+    private static class Line {
 
-        for (Map.Entry<Long, T> entry : data.entrySet()) {
-            Second second = new Second(new Date(entry.getKey()));
-            series.addOrUpdate(second, (Number) entry.getValue());
+        private final TimeSeries series;
+        private final DownsampledSeries points = new DownsampledSeries(MAX_POINTS);
+
+        private Line(String name) {
+            this.series = new TimeSeries(name);
         }
 
-        dataset.addSeries(series);
+        private void clear() {
+            this.points.clear();
+            this.series.clear();
+        }
 
-        return dataset;
+        private <T extends Number> void append(Map<Long, T> data) {
+
+            long last = this.points.lastTimestamp();
+
+            // the value of the latest second may still change, so it is added again
+            Map<Long, T> newer;
+            if (data instanceof NavigableMap) {
+                newer = last == Long.MIN_VALUE ? data : ((NavigableMap<Long, T>) data).tailMap(last, true);
+            } else {
+                newer = new TreeMap<>();
+                for (Map.Entry<Long, T> entry : data.entrySet()) {
+                    if (entry.getKey() >= last) {
+                        newer.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            if (newer.isEmpty()) {
+                return;
+            }
+
+            this.series.setNotify(false);
+
+            try {
+                boolean compacted = false;
+                for (Map.Entry<Long, T> entry : newer.entrySet()) {
+                    double value = entry.getValue().doubleValue();
+                    if (this.points.append(entry.getKey(), value)) {
+                        compacted = true;
+                    } else if (!compacted) {
+                        this.series.addOrUpdate(new Second(new Date(entry.getKey())), value);
+                    }
+                }
+
+                if (compacted) {
+                    this.series.clear();
+                    for (int i = 0; i < this.points.size(); i++) {
+                        this.series.add(new Second(new Date(this.points.timestamp(i))), this.points.value(i));
+                    }
+                }
+            } finally {
+                this.series.setNotify(true);
+            }
+        }
     }
 
 }
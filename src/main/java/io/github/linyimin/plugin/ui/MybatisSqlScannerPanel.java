@@ -21,12 +21,12 @@ import io.github.linyimin.plugin.component.SqlParamGenerateComponent;
 import io.github.linyimin.plugin.configuration.model.MybatisSqlConfiguration;
 import io.github.linyimin.plugin.constant.Constant;
 import io.github.linyimin.plugin.pojo2json.RandomPOJO2JSONParser;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
 import io.github.linyimin.plugin.sql.checker.Checker;
 import io.github.linyimin.plugin.sql.checker.CheckerHolder;
 import io.github.linyimin.plugin.sql.checker.Report;
 import io.github.linyimin.plugin.sql.checker.enums.CheckScopeEnum;
 import io.github.linyimin.plugin.sql.checker.enums.LevelEnum;
-import io.github.linyimin.plugin.sql.executor.SqlExecutor;
 import io.github.linyimin.plugin.sql.parser.SqlParser;
 import io.github.linyimin.plugin.ui.tree.MethodTreeNode;
 import io.github.linyimin.plugin.ui.tree.NamespaceTreeNode;
@@ -76,6 +76,7 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
     private JPanel sqlPanel;
     private JScrollPane indexScrollPane;
     private JRadioButton errorRadioButton;
+    private DatasourceProfileComboBox datasourceProfileBox;
 
     private final Project project;
     private final InfoPane infoPane;
@@ -93,6 +94,7 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
         this.backgroundTaskQueue = new BackgroundTaskQueue(project, Constant.APPLICATION_NAME);
         initRadioButtonGroup();
         initText();
+        this.datasourceProfileBox.bind(project, DatasourceComponent.Target.scanner);
         this.scanTreeResultPanel.setBorder(Constant.LINE_BORDER);
         this.treeListener = new TreeListener(this);
 
@@ -118,6 +120,20 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
         return this.project;
     }
 
+    /**
+     * @return the datasource profile statements are explained against
+     */
+    public String getProfile() {
+        return project.getService(DatasourceComponent.class).getProfile(DatasourceComponent.Target.scanner);
+    }
+
+    /**
+     * @return whether the datasource could be connected when it was probed last
+     */
+    public boolean isConnected() {
+        return project.getService(DatasourceComponent.class).isConnected(getProfile());
+    }
+
     public JTable getIndexTable() {
         return this.indexTable;
     }
@@ -251,7 +267,7 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
                     createTree(allRoot);
                 } else {
                     allRoot = new RootTreeNode(Constant.ROOT_NAME);
-                    boolean isConnected = StringUtils.equals(SqlExecutor.testConnected(project), Constant.DATASOURCE_CONNECTED);
+                    boolean isConnected = isConnected();
                     scanMybatisSql(allRoot, namespace, isConnected);
                     createTree(allRoot);
                 }
@@ -444,7 +460,11 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
 
         RootTreeNode root = new RootTreeNode(Constant.ROOT_NAME);
 
-        boolean isConnected = StringUtils.equals(SqlExecutor.testConnected(project), Constant.DATASOURCE_CONNECTED);
+        boolean isConnected = isConnected();
+
+        if (isConnected) {
+            prefetchMetadata();
+        }
 
         // mapper 列表节点
         List<String> namespaces = ApplicationManager.getApplication().runReadAction((Computable<List<String>>) () -> MybatisXmlContentCache.acquireByNamespace(project, true));
@@ -455,6 +475,17 @@ public class MybatisSqlScannerPanel implements TabbedChangeListener {
         return root;
     }
 
+    /**
+     * Read the metadata of the whole schema once, the tables of the statements scanned are opened next.
+     */
+    private void prefetchMetadata() {
+        try {
+            project.getService(DatasourceComponent.class).getMetadata(getProfile()).prefetch();
+        } catch (Exception ignored) {
+            // the tables are read one statement at a time instead
+        }
+    }
+
     public InfoPane getInfoPane() {
         return infoPane;
     }
@@ -10,6 +10,7 @@ import com.intellij.ui.content.ContentFactory;
 import com.intellij.util.messages.MessageBus;
 import com.intellij.util.messages.MessageBusConnection;
 import io.github.linyimin.plugin.message.ConfigChangeNotifier;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
@@ -33,6 +34,9 @@ public class MybatisSqlViewerToolWindowFactory implements ToolWindowFactory, Dum
 
         windowMap.put(project, mybatisSqlViewerToolWindow);
 
+        // connect in the background, the first statement executed doesn't wait for the pool
+        project.getService(DatasourceComponent.class).warmUp();
+
         subscribeParamChange(project);
         subscribeScanIconClick(project);
 
@@ -20,6 +20,8 @@ import io.github.linyimin.plugin.mock.enums.MockTypeEnum;
 import io.github.linyimin.plugin.mock.schema.IndexField;
 import io.github.linyimin.plugin.mock.schema.Model2Field;
 import io.github.linyimin.plugin.mock.schema.TableField;
+import io.github.linyimin.plugin.settings.SqlViewerSettingsState;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
 import io.github.linyimin.plugin.sql.builder.SqlBuilder;
 import io.github.linyimin.plugin.sql.checker.Checker;
 import io.github.linyimin.plugin.sql.checker.CheckerHolder;
@@ -27,10 +29,11 @@ import io.github.linyimin.plugin.sql.checker.Report;
 import io.github.linyimin.plugin.sql.checker.enums.CheckScopeEnum;
 import io.github.linyimin.plugin.sql.checker.rule.CheckField;
 import io.github.linyimin.plugin.sql.converter.ResultConverter;
+import io.github.linyimin.plugin.sql.executor.MockDataInserter;
 import io.github.linyimin.plugin.sql.executor.SqlExecutor;
 import io.github.linyimin.plugin.sql.result.BaseResult;
 import io.github.linyimin.plugin.sql.result.InsertResult;
-import io.github.linyimin.plugin.sql.result.SelectResult;
+import io.github.linyimin.plugin.sql.result.TableMetadata;
 import io.github.linyimin.plugin.utils.MockTypeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
@@ -230,44 +233,20 @@ public class SpecifyTableTabbedPane implements TabbedChangeListener {
 
             int rows = acquireMockNum(false);
 
-            int index = 0;
+            String table = parent.getTitleAt(parent.getSelectedIndex());
+            String profile = project.getService(DatasourceComponent.class).getCurrentProfile();
 
-            InsertResult insertResult = new InsertResult();
-            int totalAffectedCount = 0;
+            SqlViewerSettingsState settings = SqlViewerSettingsState.getInstance();
+            MockDataInserter inserter = new MockDataInserter(project, profile, table, fields, settings.mockBatchSize, settings.mockCommitRows);
 
-            MockDataPrimaryId4Save.PrimaryIdInTable primaryIdInTable = new MockDataPrimaryId4Save.PrimaryIdInTable(parent.getTitleAt(parent.getSelectedIndex()), Long.MAX_VALUE, Long.MIN_VALUE);
+            InsertResult insertResult = inserter.insert(rows);
 
-            long start = System.currentTimeMillis();
-
-            while (index < rows) {
-
-                int end = Math.min(index + INSERT_ROWS, rows);
-
-                int insertRows = end - index;
-
-                String sql = acquireBatchInsertSql(fields, insertRows);
-
-                index += INSERT_ROWS;
-
-                boolean needTotalRows = index >= rows;
-
-                insertResult = SqlExecutor.saveMockData(project, sql, needTotalRows);
-
-                if (index == INSERT_ROWS) {
-                    primaryIdInTable.setMinId(insertResult.getLastInsertId() - insertRows + 1);
-                }
-
-                totalAffectedCount += insertResult.getAffectedCount();
-
-            }
+            MockDataPrimaryId4Save.PrimaryIdInTable primaryIdInTable = new MockDataPrimaryId4Save.PrimaryIdInTable(table,
+                    insertResult.getLastInsertId() - insertResult.getAffectedCount() + 1, insertResult.getLastInsertId());
 
             MockDataSaveComponent component = project.getComponent(MockDataSaveComponent.class);
-            primaryIdInTable.setMaxId(insertResult.getLastInsertId());
             component.addPrimaryIdInTable(primaryIdInTable);
 
-            insertResult.setAffectedCount(totalAffectedCount);
-            insertResult.setCost(System.currentTimeMillis() - start);
-
             this.mockConfigResultText.setText(ResultConverter.convert2InsertInfo(insertResult));
 
         } catch (Exception e) {
@@ -353,12 +332,6 @@ public class SpecifyTableTabbedPane implements TabbedChangeListener {
         return ProcessResult.success(null);
     }
 
-    private String acquireBatchInsertSql(List<TableField> fields, int rows) throws Exception {
-        String tableName = parent.getTitleAt(parent.getSelectedIndex());
-
-        return SqlBuilder.buildInsertSqlBatch(project, tableName, fields, rows);
-    }
-
     private int acquireMockNum(boolean isPreview) {
 
         String mockNumStr = this.mockNum.getText();
@@ -497,15 +470,11 @@ public class SpecifyTableTabbedPane implements TabbedChangeListener {
 
         this.resetInfoPane();
 
-        String metaSql = TABLE_META_SQL_TEMPLATE.replace("${table}", table);
-        String indexSql = TABLE_INDEX_SQL_TEMPLATE.replace("${table}", table);
-
         try {
 
-            SelectResult metaResult = (SelectResult) SqlExecutor.executeSql(project, metaSql, false);
-            SelectResult indexResult = (SelectResult) SqlExecutor.executeSql(project, indexSql, false);
+            TableMetadata metadata = project.getService(DatasourceComponent.class).getMetadata().get(table);
 
-            this.setTables(metaResult.getModel(), indexResult.getModel());
+            this.setTables(metadata.getColumns(), metadata.getIndexes());
 
             this.resetContentPane();
 
@@ -6,11 +6,17 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.ui.JBColor;
 import com.intellij.util.ui.JBUI;
 import io.github.linyimin.plugin.ProcessResult;
+import io.github.linyimin.plugin.cache.MybatisXmlContentCache;
 import io.github.linyimin.plugin.component.SqlParamGenerateComponent;
+import io.github.linyimin.plugin.configuration.DatasourceConfigComponent;
 import io.github.linyimin.plugin.configuration.GlobalConfig;
 import io.github.linyimin.plugin.configuration.MybatisSqlStateComponent;
+import io.github.linyimin.plugin.configuration.model.DatasourceConfiguration;
 import io.github.linyimin.plugin.configuration.model.MybatisSqlConfiguration;
 import io.github.linyimin.plugin.constant.Constant;
 import io.github.linyimin.plugin.mock.enums.MockTypeEnum;
@@ -18,11 +24,16 @@ import io.github.linyimin.plugin.mock.generator.DataGenerator;
 import io.github.linyimin.plugin.mock.generator.DataGeneratorFactory;
 import io.github.linyimin.plugin.mock.schema.Model2Field;
 import io.github.linyimin.plugin.mock.schema.TableField;
+import io.github.linyimin.plugin.settings.SqlViewerSettingsState;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
+import io.github.linyimin.plugin.sql.StressConnectionPool;
+import io.github.linyimin.plugin.sql.executor.PreparedStressExecutor;
 import io.github.linyimin.plugin.sql.executor.SqlExecutor;
 import io.github.linyimin.plugin.sql.formatter.SqlFormatter;
 import io.github.linyimin.plugin.sql.parser.SqlParser;
-import io.github.linyimin.plugin.sql.result.BaseResult;
-import io.github.linyimin.plugin.sql.result.SelectResult;
+import io.github.linyimin.plugin.sql.result.ExecutionTiming;
+import io.github.linyimin.plugin.sql.result.TableMetadata;
+import io.github.linyimin.plugin.stress.*;
 import io.github.linyimin.plugin.utils.MockTypeUtils;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.*;
@@ -38,19 +49,27 @@ import net.sf.jsqlparser.statement.select.*;
 import net.sf.jsqlparser.statement.update.Update;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rtextarea.RTextScrollPane;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -81,6 +100,14 @@ public class SqlStressTabbedPane {
     private JPanel sqlStressContentPane;
     private JTextField concurrentNumText;
     private JComboBox trafficModelCombobox;
+    private JComboBox threadModeCombobox;
+    private JTextField inFlightLimitText;
+    private JComboBox rateProfileCombobox;
+    private JTextField targetQpsText;
+    private JTextField startQpsText;
+    private JComboBox connectionModeCombobox;
+    private JComboBox corpusModeCombobox;
+    private JTextField corpusSizeText;
     private JTextField successRateText;
     private JTextField averageRtText;
     private JTextField tpsText;
@@ -101,11 +128,41 @@ public class SqlStressTabbedPane {
     private JPanel maxRtPanel;
     private JTextField maxTpsText;
     private JPanel maxTpsPanel;
-    private JPanel tp90Panel;
-    private JTextField tp90Text;
-    private JPanel tp99Panel;
-    private JTextField tp99Text;
+    private JPanel percentilePanel;
+    private JTextField droppedText;
+    private JPanel droppedPanel;
+    private JTextField lateText;
+    private JPanel latePanel;
+    private JTextField checkoutRtText;
+    private JPanel checkoutRtPanel;
+    private JTextField poolWaitText;
+    private JPanel poolWaitPanel;
+    private JPanel poolChartPanel;
+    private JPanel statementRtChartPanel;
+    private JTable statementTable;
+    private JPanel errorChartPanel;
+    private JTable errorTable;
+    private JPanel capacityChartPanel;
+    private JPanel serverReadChartPanel;
+    private JPanel serverWaitChartPanel;
+    private JTable capacityTable;
+    private JTextField sloP99Text;
+    private JTextField sloErrorRateText;
+    private JTextField warmupText;
+    private JTextField steadyStateCvText;
+    private DatasourceProfileComboBox datasourceProfileBox;
+    private JTable workloadTable;
+    private JButton addStatementButton;
+    private JButton removeStatementButton;
     private JButton stopButton;
+    private JPanel comparePane;
+    private JComboBox<StressRunStore.Entry> candidateRunCombobox;
+    private JComboBox<StressRunStore.Entry> baselineRunCombobox;
+    private JButton compareButton;
+    private JButton refreshRunButton;
+    private JTable comparisonTable;
+    private JPanel compareRtChartPanel;
+    private JPanel compareTpsChartPanel;
     private JPanel sqlAndLabelPanel;
     private JPanel sqlTemplateAndLabelPanel;
 
@@ -118,6 +175,8 @@ public class SqlStressTabbedPane {
     private final Project project;
     private final BackgroundTaskQueue backgroundTaskQueue;
 
+    private static final String[] WORKLOAD_COLUMNS = {"statement", "weight", "params"};
+
     private final Pattern FIELD_NAME_PATTERN = Pattern.compile("\\$\\{([\\w.]+)}");
 
     private final AtomicBoolean isStop = new AtomicBoolean(false);
@@ -125,6 +184,64 @@ public class SqlStressTabbedPane {
     private LineChart successRateLineChart;
     private LineChart averageRtLineChart;
     private LineChart tpsLineChart;
+    private LineChart poolLineChart;
+    private LineChart statementRtLineChart;
+    private StackedBarChart errorChart;
+    private CapacityChart capacityChart;
+    private LineChart serverReadLineChart;
+    private LineChart serverWaitLineChart;
+    private LineChart compareRtLineChart;
+    private LineChart compareTpsLineChart;
+
+    private volatile StressConnectionPool connectionPool;
+
+    /**
+     * type of the database under stress, selects the server stats to chart
+     */
+    private volatile String databaseType;
+
+    /**
+     * datasource profile of the running stress, fixed when it starts
+     */
+    private volatile String profile;
+
+    /**
+     * engine of the running stress, null when no stress is running
+     */
+    private volatile StressEngine engine;
+
+    /**
+     * null unless the value type is prepared statement
+     */
+    private volatile PreparedStressExecutor preparedExecutor;
+
+    /**
+     * statement of the request the worker is executing, for the workload mix value type
+     */
+    private final ThreadLocal<WorkloadMix.Entry<String>> currentStatement = new ThreadLocal<>();
+
+    /**
+     * parameters of a request, resolved when the stress starts, null unless the value type is configure parameters
+     * or prepared statement
+     */
+    private volatile PreparedStressExecutor.ParameterSource parameterSource;
+
+    /**
+     * sql of a request, resolved when the stress starts, null for the prepared statement and workload mix value types
+     */
+    private volatile SqlSource sqlSource;
+
+    /**
+     * statements of the workload mix value type, null for the other value types
+     */
+    private volatile WorkloadMix<String> workload;
+
+    /**
+     * metrics of every statement of the workload mix, keyed by statement name
+     */
+    private volatile Map<String, StressMetrics> statementMetrics = Collections.emptyMap();
+
+    private final List<JTextField> percentileTexts = new ArrayList<>();
 
     SqlStressTabbedPane(Project project) {
 
@@ -144,27 +261,33 @@ public class SqlStressTabbedPane {
 
         this.initMockTypeCombobox();
         this.paramsConfigTable.setRowHeight(TABLE_ROW_HEIGHT);
+        this.initWorkloadTable();
+        this.datasourceProfileBox.bind(project, DatasourceComponent.Target.stress);
 
         this.stressButton.addMouseListener(new MouseCursorAdapter(this.stressButton));
         this.stressButton.addActionListener(e -> stressButtonAction());
 
         this.stopButton.addMouseListener(new MouseCursorAdapter(this.stopButton));
-        this.stopButton.addActionListener(e -> this.isStop.set(true));
+        this.stopButton.addActionListener(e -> stopStress());
 
         this.initReportTextFields();
         this.initChartPanel();
+        this.initComparePane();
 
         this.sqlStressTabbedPane.addMouseListener(new MouseCursorAdapter(this.sqlStressTabbedPane));
+        this.sqlStressTabbedPane.addChangeListener(e -> {
+            if (this.sqlStressTabbedPane.getSelectedComponent() == this.comparePane) {
+                refreshRuns();
+            }
+        });
     }
 
     private void initReportTextFields() {
         this.successRateText.setBorder(JBUI.Borders.empty());
         this.successRatePanel.setBorder(Constant.LINE_BORDER);
 
-        this.tp90Text.setBorder(JBUI.Borders.empty());
-        this.tp90Panel.setBorder(LINE_BORDER);
-        this.tp99Text.setBorder(JBUI.Borders.empty());
-        this.tp99Panel.setBorder(LINE_BORDER);
+        this.percentilePanel.setLayout(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        this.initPercentilePanel(Percentiles.parse(SqlViewerSettingsState.getInstance().stressPercentiles));
 
         this.maxRtText.setBorder(JBUI.Borders.empty());
         this.maxRtPanel.setBorder(LINE_BORDER);
@@ -186,6 +309,44 @@ public class SqlStressTabbedPane {
         this.totalRequestText.setBorder(JBUI.Borders.empty());
         this.totalRequestPanel.setBorder(LINE_BORDER);
 
+        this.droppedText.setBorder(JBUI.Borders.empty());
+        this.droppedPanel.setBorder(LINE_BORDER);
+
+        this.lateText.setBorder(JBUI.Borders.empty());
+        this.latePanel.setBorder(LINE_BORDER);
+
+        this.checkoutRtText.setBorder(JBUI.Borders.empty());
+        this.checkoutRtPanel.setBorder(LINE_BORDER);
+
+        this.poolWaitText.setBorder(JBUI.Borders.empty());
+        this.poolWaitPanel.setBorder(LINE_BORDER);
+
+    }
+
+    private void initPercentilePanel(Percentiles percentiles) {
+
+        this.percentilePanel.removeAll();
+        this.percentileTexts.clear();
+
+        for (int i = 0; i < percentiles.size(); i++) {
+            JTextField text = new JTextField("-");
+            text.setEditable(false);
+            text.setEnabled(false);
+            text.setHorizontalAlignment(JTextField.CENTER);
+            text.setPreferredSize(new Dimension(150, text.getPreferredSize().height));
+            text.setBorder(JBUI.Borders.empty());
+
+            JPanel panel = new JPanel(new BorderLayout());
+            panel.add(new JLabel(String.format("%s(ms)", percentiles.label(i)), SwingConstants.CENTER), BorderLayout.NORTH);
+            panel.add(text, BorderLayout.CENTER);
+            panel.setBorder(LINE_BORDER);
+
+            this.percentilePanel.add(panel);
+            this.percentileTexts.add(text);
+        }
+
+        this.percentilePanel.revalidate();
+        this.percentilePanel.repaint();
     }
 
     private void initChartPanel() {
@@ -201,16 +362,372 @@ public class SqlStressTabbedPane {
         this.successRateLineChart = new LineChart("请求成功率", "时间(s)", "请求成功率(%)");
         this.successRateChartPanel.add(this.successRateLineChart.getChartPanel());
 
-        this.averageRtLineChart = new LineChart("RT", "时间(s)", "平均RT(ms)");
+        this.averageRtLineChart = new LineChart("RT", "时间(s)", "RT(ms)");
         this.averageRtChartPanel.add(this.averageRtLineChart.getChartPanel());
 
         this.tpsLineChart = new LineChart("TPS", "时间(s)", "TPS");
         this.tpsChartPanel.add(this.tpsLineChart.getChartPanel());
 
+        this.poolChartPanel.setLayout(new BorderLayout());
+        this.poolChartPanel.setBorder(LINE_BORDER);
+
+        this.poolLineChart = new LineChart("连接池", "时间(s)", "连接数");
+        this.poolChartPanel.add(this.poolLineChart.getChartPanel());
+
+        this.statementRtChartPanel.setLayout(new BorderLayout());
+        this.statementRtChartPanel.setBorder(LINE_BORDER);
+
+        this.statementRtLineChart = new LineChart("语句平均RT", "时间(s)", "RT(ms)");
+        this.statementRtChartPanel.add(this.statementRtLineChart.getChartPanel());
+
+        this.statementTable.setRowHeight(TABLE_ROW_HEIGHT);
+
+        this.errorChartPanel.setLayout(new BorderLayout());
+        this.errorChartPanel.setBorder(LINE_BORDER);
+
+        this.errorChart = new StackedBarChart("异常分布", "时间(s)", "异常数");
+        this.errorChartPanel.add(this.errorChart.getChartPanel());
+
+        this.errorTable.setRowHeight(TABLE_ROW_HEIGHT);
+
+        this.capacityChartPanel.setLayout(new BorderLayout());
+        this.capacityChartPanel.setBorder(LINE_BORDER);
+
+        this.capacityChart = new CapacityChart("容量曲线");
+        this.capacityChartPanel.add(this.capacityChart.getChartPanel());
+
+        this.capacityTable.setRowHeight(TABLE_ROW_HEIGHT);
+
+        this.serverReadChartPanel.setLayout(new BorderLayout());
+        this.serverReadChartPanel.setBorder(LINE_BORDER);
+
+        this.serverReadLineChart = new LineChart("服务端读取", "时间(s)", "次数/s");
+        this.serverReadChartPanel.add(this.serverReadLineChart.getChartPanel());
+
+        this.serverWaitChartPanel.setLayout(new BorderLayout());
+        this.serverWaitChartPanel.setBorder(LINE_BORDER);
+
+        this.serverWaitLineChart = new LineChart("服务端线程与锁等待", "时间(s)", "数量");
+        this.serverWaitChartPanel.add(this.serverWaitLineChart.getChartPanel());
+
+    }
+
+    /**
+     * Charts only add the points of the current run to the points they already show.
+     */
+    private void clearCharts() {
+        this.successRateLineChart.clear();
+        this.averageRtLineChart.clear();
+        this.tpsLineChart.clear();
+        this.poolLineChart.clear();
+        this.statementRtLineChart.clear();
+        this.errorChart.clear();
+        this.capacityChart.clear();
+        this.capacityTable.setModel(new DefaultTableModel());
+        this.serverReadLineChart.clear();
+        this.serverWaitLineChart.clear();
+    }
+
+    private void initComparePane() {
+
+        this.compareRtChartPanel.setLayout(new BorderLayout());
+        this.compareRtChartPanel.setBorder(LINE_BORDER);
+
+        this.compareRtLineChart = new LineChart("RT", "时间(s)", "RT(ms)");
+        this.compareRtChartPanel.add(this.compareRtLineChart.getChartPanel());
+
+        this.compareTpsChartPanel.setLayout(new BorderLayout());
+        this.compareTpsChartPanel.setBorder(LINE_BORDER);
+
+        this.compareTpsLineChart = new LineChart("TPS", "时间(s)", "TPS");
+        this.compareTpsChartPanel.add(this.compareTpsLineChart.getChartPanel());
+
+        this.comparisonTable.setRowHeight(TABLE_ROW_HEIGHT);
+        this.comparisonTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                if (!isSelected) {
+                    Object verdict = table.getModel().getValueAt(row, table.getModel().getColumnCount() - 1);
+                    component.setForeground(StringUtils.equals(String.valueOf(verdict), "劣化") ? JBColor.RED : table.getForeground());
+                }
+                return component;
+            }
+        });
+
+        this.candidateRunCombobox.addActionListener(e -> refreshBaselineRuns());
+
+        this.compareButton.addMouseListener(new MouseCursorAdapter(this.compareButton));
+        this.compareButton.addActionListener(e -> compareRuns());
+
+        this.refreshRunButton.addMouseListener(new MouseCursorAdapter(this.refreshRunButton));
+        this.refreshRunButton.addActionListener(e -> refreshRuns());
+    }
+
+    private StressRunStore runStore() {
+        return new StressRunStore(stressDirectory().resolve("runs"));
+    }
+
+    private Path stressDirectory() {
+        return Paths.get(Objects.requireNonNull(project.getBasePath()), ".idea", "sql-viewer", "stress");
+    }
+
+    /**
+     * Every finished run is saved with its configuration, so a later run of the same statement against the same
+     * datasource can be compared with it.
+     */
+    private void saveRun(StressMetrics stressMetrics, WorkloadMix<String> mix) {
+
+        String valueType = (String) this.valueTypeCombobox.getSelectedItem();
+
+        String statement;
+        if (StringUtils.equals(valueType, "workload mix")) {
+            statement = mix == null ? "" : mix.getEntries().stream()
+                    .map(entry -> String.format("%s %s%n%s", entry.getName(), entry.getWeight(), entry.getPayload()))
+                    .collect(Collectors.joining("\n"));
+        } else if (StringUtils.equalsAny(valueType, "configure parameters", "prepared statement")) {
+            statement = this.sqlTemplateText.getText();
+        } else {
+            statement = this.sqlText.getText();
+        }
+
+        DatasourceConfiguration datasource = ApplicationManager.getApplication().getComponent(DatasourceConfigComponent.class)
+                .getConfig(this.profile);
+
+        StressRun run = stressMetrics.toRun();
+        run.setEndMillis(System.currentTimeMillis());
+        run.setStatement(statement);
+        run.setStatementHash(StressRun.hash(statement));
+        if (datasource != null) {
+            run.setDatasource(String.format("%s@%s:%s/%s", datasource.getName(), datasource.getHost(), datasource.getPort(), datasource.getDatabase()));
+        }
+        run.setValueType(StringUtils.defaultString(valueType));
+        run.setTrafficModel(StringUtils.defaultString((String) this.trafficModelCombobox.getSelectedItem()));
+        run.setConcurrency(Integer.parseInt(this.concurrentNumText.getText().trim()));
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                runStore().save(run);
+            } catch (IOException e) {
+                Notifier.notifyWarning(project, "sql stress", String.format("The stress run can not be saved: %s", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * The latest run is the default candidate. The run index is read on a pooled thread, the comboboxes are
+     * updated on the event dispatch thread.
+     */
+    private void refreshRuns() {
+
+        StressRunStore.Entry selected = (StressRunStore.Entry) this.candidateRunCombobox.getSelectedItem();
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+
+            List<StressRunStore.Entry> runs;
+            try {
+                runs = runStore().list();
+            } catch (IOException e) {
+                Notifier.notifyWarning(project, "sql stress", String.format("The saved stress runs can not be read: %s", e.getMessage()));
+                return;
+            }
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+                DefaultComboBoxModel<StressRunStore.Entry> model = new DefaultComboBoxModel<>(runs.toArray(new StressRunStore.Entry[0]));
+                runs.stream().filter(run -> selected != null && run.getStartMillis() == selected.getStartMillis()).findFirst().ifPresent(model::setSelectedItem);
+                this.candidateRunCombobox.setModel(model);
+
+                refreshBaselineRuns();
+            });
+        });
+    }
+
+    /**
+     * Only runs of the same statement against the same datasource are comparable.
+     */
+    private void refreshBaselineRuns() {
+
+        StressRunStore.Entry candidate = (StressRunStore.Entry) this.candidateRunCombobox.getSelectedItem();
+        if (candidate == null) {
+            this.baselineRunCombobox.setModel(new DefaultComboBoxModel<>());
+            return;
+        }
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+
+            List<StressRunStore.Entry> runs;
+            try {
+                runs = runStore().list(candidate.getStatementHash(), candidate.getDatasource()).stream()
+                        .filter(run -> run.getStartMillis() != candidate.getStartMillis())
+                        .collect(Collectors.toList());
+            } catch (IOException e) {
+                Notifier.notifyWarning(project, "sql stress", String.format("The saved stress runs can not be read: %s", e.getMessage()));
+                return;
+            }
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+                // another candidate may have been selected meanwhile, its baselines are on the way
+                if (this.candidateRunCombobox.getSelectedItem() == candidate) {
+                    this.baselineRunCombobox.setModel(new DefaultComboBoxModel<>(runs.toArray(new StressRunStore.Entry[0])));
+                }
+            });
+        });
+    }
+
+    /**
+     * Both runs are loaded and compared on a pooled thread, the table and charts are updated on the event dispatch
+     * thread.
+     */
+    private void compareRuns() {
+
+        StressRunStore.Entry baselineEntry = (StressRunStore.Entry) this.baselineRunCombobox.getSelectedItem();
+        StressRunStore.Entry candidateEntry = (StressRunStore.Entry) this.candidateRunCombobox.getSelectedItem();
+
+        if (baselineEntry == null || candidateEntry == null) {
+            Notifier.notifyError(project, "sql stress", "Select a run and a baseline of the same statement and datasource to compare.");
+            return;
+        }
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+
+            StressRun baseline;
+            StressRun candidate;
+            try {
+                StressRunStore store = runStore();
+                baseline = store.load(baselineEntry.getStartMillis());
+                candidate = store.load(candidateEntry.getStartMillis());
+            } catch (IOException e) {
+                Notifier.notifyError(project, "sql stress", String.format("The stress run can not be read: %s", e.getMessage()));
+                return;
+            }
+
+            Vector<Vector<Object>> rows = new Vector<>();
+            for (RunComparison.Item item : RunComparison.compare(baseline, candidate)) {
+                Vector<Object> row = new Vector<>();
+                row.add(item.getMetric());
+                row.add(String.format("%.2f", item.getBaseline()));
+                row.add(String.format("%.2f", item.getCandidate()));
+                row.add(Double.isInfinite(item.getChange()) ? "-" : String.format("%+.2f", 100 * item.getChange()));
+                row.add(Double.isNaN(item.getPValue()) ? "-" : String.format("%.4f", item.getPValue()));
+                row.add(verdictText(item.getVerdict()));
+                rows.add(row);
+            }
+
+            // align the candidate with the start of the baseline so both runs share the time axis
+            long offset = baseline.getStartMillis() - candidate.getStartMillis();
+
+            Map<String, Map<Long, Double>> rtSeries = new LinkedHashMap<>();
+            rtSeries.put("基线 " + StressRun.AVERAGE_RT, baseline.getSeries(StressRun.AVERAGE_RT));
+            rtSeries.put("对比 " + StressRun.AVERAGE_RT, shift(candidate.getSeries(StressRun.AVERAGE_RT), offset));
+            String percentileSeries = RunComparison.percentileSeries(baseline, candidate);
+            if (percentileSeries != null) {
+                rtSeries.put("基线 " + percentileSeries, baseline.getSeries(percentileSeries));
+                rtSeries.put("对比 " + percentileSeries, shift(candidate.getSeries(percentileSeries), offset));
+            }
+
+            Map<String, Map<Long, Double>> tpsSeries = new LinkedHashMap<>();
+            tpsSeries.put("基线 " + StressRun.TPS, baseline.getSeries(StressRun.TPS));
+            tpsSeries.put("对比 " + StressRun.TPS, shift(candidate.getSeries(StressRun.TPS), offset));
+
+            Map<Long, Long> concurrentNumMap = new HashMap<>();
+            baseline.getSeries(StressRun.CONCURRENCY).forEach((timestamp, value) -> concurrentNumMap.put(timestamp, value.longValue()));
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+                this.comparisonTable.setModel(new DefaultTableModel(rows, new Vector<>(Arrays.asList("指标", "基线", "对比", "变化(%)", "p值", "结论"))) {
+                    @Override
+                    public boolean isCellEditable(int row, int column) {
+                        return false;
+                    }
+                });
+
+                this.compareRtLineChart.clear();
+                this.compareTpsLineChart.clear();
+                this.compareRtLineChart.updateSeriesDataset(rtSeries, concurrentNumMap);
+                this.compareTpsLineChart.updateSeriesDataset(tpsSeries, concurrentNumMap);
+            });
+        });
+    }
+
+    private Map<Long, Double> shift(Map<Long, Double> series, long offset) {
+        Map<Long, Double> shifted = new TreeMap<>();
+        series.forEach((timestamp, value) -> shifted.put(timestamp + offset, value));
+        return shifted;
+    }
+
+    private String verdictText(RunComparison.Verdict verdict) {
+        switch (verdict) {
+            case regression:
+                return "劣化";
+            case improvement:
+                return "提升";
+            case insufficient:
+                return "样本不足";
+            default:
+                return "无显著变化";
+        }
+    }
+
+    private void initWorkloadTable() {
+        this.workloadTable.setModel(new DefaultTableModel(WORKLOAD_COLUMNS, 0));
+        this.workloadTable.setRowHeight(TABLE_ROW_HEIGHT);
+
+        this.addStatementButton.addMouseListener(new MouseCursorAdapter(this.addStatementButton));
+        this.addStatementButton.addActionListener(e -> addWorkloadStatement());
+
+        this.removeStatementButton.addMouseListener(new MouseCursorAdapter(this.removeStatementButton));
+        this.removeStatementButton.addActionListener(e -> removeWorkloadStatement());
+    }
+
+    /**
+     * Add the mapper method selected in the tool window with its current parameters, the statement cell can be
+     * changed to any method of the mapper files.
+     */
+    private void addWorkloadStatement() {
+
+        MybatisSqlConfiguration sqlConfig = project.getService(MybatisSqlStateComponent.class).getConfiguration();
+
+        DefaultTableModel model = (DefaultTableModel) this.workloadTable.getModel();
+        model.addRow(new Object[]{StringUtils.defaultString(sqlConfig.getMethod()), 1, StringUtils.defaultIfBlank(sqlConfig.getParams(), "{}")});
+
+        List<String> methods = ApplicationManager.getApplication().runReadAction((Computable<List<String>>) this::acquireMapperMethods);
+        this.workloadTable.getColumnModel().getColumn(0).setCellEditor(new DefaultCellEditor(new ComboBox<>(methods.toArray(new String[0]))));
+    }
+
+    private void removeWorkloadStatement() {
+        int row = this.workloadTable.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        if (this.workloadTable.isEditing()) {
+            this.workloadTable.getCellEditor().cancelCellEditing();
+        }
+        ((DefaultTableModel) this.workloadTable.getModel()).removeRow(row);
+    }
+
+    private List<String> acquireMapperMethods() {
+
+        List<String> methods = new ArrayList<>();
+
+        for (String namespace : MybatisXmlContentCache.acquireByNamespace(project, false)) {
+            for (XmlTag tag : MybatisXmlContentCache.acquireMethodsByNamespace(project, namespace)) {
+                String id = tag.getAttributeValue("id");
+                if (StringUtils.isNotBlank(id)) {
+                    methods.add(namespace + "." + id);
+                }
+            }
+        }
+
+        Collections.sort(methods);
+
+        return methods;
     }
 
     private void stressButtonAction() {
 
+        if (this.workloadTable.isEditing()) {
+            this.workloadTable.getCellEditor().stopCellEditing();
+        }
+
         ProcessResult<Void> checkResult = checkStressConfig();
         if (!checkResult.isSuccess()) {
             Notifier.notifyError(project, "sql stress configuration", checkResult.getErrorMsg());
@@ -223,7 +740,7 @@ public class SqlStressTabbedPane {
             this.sqlStressTabbedPane.setSelectedIndex(1);
         } else {
             this.stressButton.setText("stress");
-            this.isStop.set(true);
+            stopStress();
             return;
         }
 
@@ -249,77 +766,447 @@ public class SqlStressTabbedPane {
         });
     }
 
-    private void doStress() {
-
-        StressMetrics stressMetrics = new StressMetrics();
+    private void doStress() throws Exception {
 
-        int concurrentNum = Integer.parseInt(this.concurrentNumText.getText());
+        Percentiles percentiles = Percentiles.parse(SqlViewerSettingsState.getInstance().stressPercentiles);
+        StressConfig config = createStressConfig(percentiles);
 
-        Thread[] threads = new Thread[concurrentNum];
+        ApplicationManager.getApplication().invokeLater(() -> {
+            initPercentilePanel(percentiles);
+            clearCharts();
+        });
 
-        for (int i = 0; i < concurrentNum; i++) {
-            threads[i] = new Thread(doExecute(stressMetrics));
+        this.profile = project.getService(DatasourceComponent.class).getProfile(DatasourceComponent.Target.stress);
+        // the params table and the template are read once, requests only take values and concatenate sql
+        List<TableField> fields = generateMockConfig();
+        PreparedTemplate template = PreparedTemplate.compile(this.sqlTemplateText.getText());
+        this.parameterSource = createParameterSource(template, fields, createParameterCorpus(fields));
+        this.sqlSource = createSqlSource(template);
+        this.workload = createWorkload();
+
+        Map<String, StressMetrics> metricsMap = new LinkedHashMap<>();
+        if (this.workload != null) {
+            for (WorkloadMix.Entry<String> entry : this.workload.getEntries()) {
+                metricsMap.put(entry.getName(), new StressMetrics(percentiles));
+            }
         }
+        this.statementMetrics = metricsMap;
 
-        String trafficModel = (String) this.trafficModelCombobox.getSelectedItem();
+        StressEngine engine = new StressEngine(config, this::executeStatement, new StressListener() {
+            @Override
+            public void onSuccess(long cost, long serviceCost) {
+                WorkloadMix.Entry<String> statement = currentStatement.get();
+                if (statement != null) {
+                    statementMetrics.get(statement.getName()).addSuccess(cost, serviceCost);
+                }
+            }
 
-        if (StringUtils.equals(trafficModel, "increase in a constant rate")) {
-            int incrementDuration = Integer.parseInt(this.incrementDurationText.getText());
-            int waitTimeMillis = Math.max(incrementDuration / concurrentNum, 1);
-            for (int i = 0; i < concurrentNum; i++) {
-                threads[i].start();
-                stressMetrics.setConcurrentNum(i + 1);
-                for (int j = 0; j < waitTimeMillis && !isStop.get(); j++) {
-                    try {
-                        displayMetrics(stressMetrics);
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ignored) {
-                        isStop.set(true);
-                        return;
-                    }
+            @Override
+            public void onFailed(Exception e) {
+                WorkloadMix.Entry<String> statement = currentStatement.get();
+                if (statement != null) {
+                    statementMetrics.get(statement.getName()).addFailed(e);
                 }
             }
-        } else if (StringUtils.equals(trafficModel, "fixed concurrent threads")) {
-            for (int i = 0; i < concurrentNum; i++) {
-                threads[i].start();
-                stressMetrics.setConcurrentNum(i + 1);
+
+            @Override
+            public void onTick(StressMetrics metrics) {
+                displayMetrics(metrics);
+            }
+
+            @Override
+            public void onStep(StressMetrics metrics, CapacityStep step) {
+                List<CapacityStep> steps = metrics.capacitySteps();
+                ApplicationManager.getApplication().invokeLater(() -> displayCapacity(steps, config));
             }
+
+            @Override
+            public void onFinish(StressMetrics metrics, int unfinished) {
+                finishStress(metrics, unfinished);
+            }
+        });
+
+        // in the pinned mode every worker of the closed models keeps a connection
+        boolean isOpenOrSearch = config.getTrafficModel() == TrafficModelEnum.arrival_rate || config.getTrafficModel() == TrafficModelEnum.capacity_search;
+        int workers = isOpenOrSearch ? config.getInFlightLimit() : config.getConcurrency();
+        this.connectionPool = createConnectionPool(engine.getMetrics(), workers);
+        ServerStatsSampler sampler = createServerStatsSampler(engine.getMetrics());
+
+        try {
+            this.preparedExecutor = createPreparedExecutor(template);
+
+            this.engine = engine;
+            if (isStop.get()) {
+                engine.stop();
+            }
+
+            engine.run();
+        } finally {
+            this.engine = null;
+            if (sampler != null) {
+                sampler.close();
+                if (sampler.getError() != null) {
+                    Notifier.notifyWarning(project, "sql stress", String.format("Server stats are not sampled: %s", sampler.getError().getMessage()));
+                }
+            }
+            if (this.preparedExecutor != null) {
+                this.preparedExecutor.close();
+                this.preparedExecutor = null;
+            }
+            this.connectionPool.close();
+            this.connectionPool = null;
+            // the statements of the workload may have written to any of their tables
+            project.getService(DatasourceComponent.class).getRowCounts(this.profile).clear();
+            this.parameterSource = null;
+            this.sqlSource = null;
+            this.workload = null;
+        }
+
+    }
+
+    private StressConfig createStressConfig(Percentiles percentiles) {
+
+        TrafficModelEnum trafficModel = TrafficModelEnum.of((String) this.trafficModelCombobox.getSelectedItem());
+        String inFlightLimit = this.inFlightLimitText.getText();
+        String steadyStateCv = this.steadyStateCvText.getText();
+
+        StressConfig.Builder builder = StressConfig.builder()
+                .trafficModel(trafficModel)
+                .concurrency(Integer.parseInt(this.concurrentNumText.getText()))
+                .durationSeconds(TimeUnit.MINUTES.toSeconds(Integer.parseInt(this.stressDurationText.getText())))
+                .threadMode(ThreadModeEnum.valueOf((String) this.threadModeCombobox.getSelectedItem()))
+                .inFlightLimit(StringUtils.isBlank(inFlightLimit) ? 0 : Integer.parseInt(inFlightLimit.trim()))
+                .percentiles(percentiles)
+                .warmupSeconds(Long.parseLong(this.warmupText.getText().trim()))
+                .steadyStateCv(StringUtils.isBlank(steadyStateCv) ? 0 : Double.parseDouble(steadyStateCv.trim()));
+
+        if (trafficModel == TrafficModelEnum.ramp) {
+            builder.rampSeconds(Long.parseLong(this.incrementDurationText.getText()));
+        } else if (trafficModel == TrafficModelEnum.arrival_rate) {
+            builder.arrivalRate(acquireArrivalRate());
+        } else if (trafficModel == TrafficModelEnum.capacity_search) {
+            builder.stepSeconds(Long.parseLong(this.incrementDurationText.getText()))
+                    .sloP99Millis(Double.parseDouble(this.sloP99Text.getText().trim()))
+                    .sloErrorRate(Double.parseDouble(this.sloErrorRateText.getText().trim()));
+        }
+
+        return builder.build();
+    }
+
+    private void stopStress() {
+        this.isStop.set(true);
+        StressEngine engine = this.engine;
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Generate the mock values of all configured fields before the run, or load them from the previous run with the
+     * same configuration in the persisted mode.
+     *
+     * @return null if values are generated per request
+     */
+    private ParameterCorpus createParameterCorpus(List<TableField> fields) throws Exception {
+
+        String corpusMode = (String) this.corpusModeCombobox.getSelectedItem();
+        String valueType = (String) this.valueTypeCombobox.getSelectedItem();
+        if (StringUtils.equals(corpusMode, "inline") || !StringUtils.equalsAny(valueType, "configure parameters", "prepared statement")) {
+            return null;
         }
 
-        int stressDuration = Integer.parseInt(this.stressDurationText.getText()) * 60 * 1000;
-        long end = System.currentTimeMillis() + stressDuration;
-        long now = System.currentTimeMillis();
+        int size = Integer.parseInt(this.corpusSizeText.getText().trim());
 
-        while (end > now && !isStop.get()) {
+        List<String> keys = fields.stream().map(field -> String.format("%s.%s", field.getTable(), field.getName())).collect(Collectors.toList());
+
+        Path path = StringUtils.equals(corpusMode, "persisted") ? corpusPath(fields, size) : null;
+        if (path != null && Files.exists(path)) {
             try {
-                displayMetrics(stressMetrics);
-                Thread.sleep(1000);
-                now = System.currentTimeMillis();
-            } catch (InterruptedException ignored) {
-                break;
+                ParameterCorpus corpus = ParameterCorpus.load(path);
+                if (corpus.getKeys().equals(keys) && corpus.size() == size) {
+                    return corpus;
+                }
+            } catch (IOException e) {
+                Notifier.notifyWarning(project, "sql stress", String.format("The parameter corpus %s can not be read and is generated again: %s", path, e.getMessage()));
+            }
+        }
+
+        DataGenerator[] generators = new DataGenerator[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            generators[i] = DataGeneratorFactory.getGenerator(MockTypeEnum.valueOf(fields.get(i).getMockType()));
+        }
+
+        ParameterCorpus corpus = ParameterCorpus.generate(keys, size, column -> generators[column].generate(project, fields.get(column)));
+
+        if (path != null) {
+            corpus.save(path);
+        }
+
+        return corpus;
+    }
+
+    /**
+     * The file name is derived from the mock configuration, changing any of it generates a new corpus.
+     */
+    private Path corpusPath(List<TableField> fields, int size) {
+
+        StringBuilder signature = new StringBuilder().append(size);
+        for (TableField field : fields) {
+            signature.append('|').append(field.getTable()).append('.').append(field.getName())
+                    .append(':').append(field.getType())
+                    .append(':').append(field.getMockType())
+                    .append(':').append(field.getMockParam());
+        }
+
+        String name = UUID.nameUUIDFromBytes(signature.toString().getBytes(StandardCharsets.UTF_8)) + ".corpus";
+
+        return stressDirectory().resolve(name);
+    }
+
+    /**
+     * Render the sql of every statement of the workload once, with the parameters configured for it.
+     *
+     * @return null unless the value type is workload mix
+     */
+    private WorkloadMix<String> createWorkload() {
+
+        if (!StringUtils.equals((String) this.valueTypeCombobox.getSelectedItem(), "workload mix")) {
+            return null;
+        }
+
+        DefaultTableModel model = (DefaultTableModel) this.workloadTable.getModel();
+
+        WorkloadMix.Builder<String> builder = WorkloadMix.builder();
+        Map<String, Integer> occurrences = new HashMap<>();
+
+        for (int row = 0; row < model.getRowCount(); row++) {
+            String method = String.valueOf(model.getValueAt(row, 0)).trim();
+            int weight = Integer.parseInt(String.valueOf(model.getValueAt(row, 1)).trim());
+            String params = String.valueOf(model.getValueAt(row, 2));
+
+            ProcessResult<String> result = SqlParamGenerateComponent.generateSql(project, method, params, false);
+            if (!result.isSuccess()) {
+                throw new IllegalStateException(String.format("Failed to generate sql of %s: %s", method, result.getErrorMsg()));
             }
+
+            // Mapper.method, numbered when the same method is added with different parameters
+            String name = method.substring(method.lastIndexOf('.', method.lastIndexOf('.') - 1) + 1);
+            int occurrence = occurrences.merge(name, 1, Integer::sum);
+            if (occurrence > 1) {
+                name = String.format("%s#%s", name, occurrence);
+            }
+
+            builder.add(name, weight, result.getData());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param workers the number of workers, the size of the pool in the pinned mode
+     */
+    private StressConnectionPool createConnectionPool(StressMetrics stressMetrics, int workers) throws Exception {
+        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+
+        if (StringUtils.equals((String) this.connectionModeCombobox.getSelectedItem(), "pinned")) {
+            return StressConnectionPool.pinned(datasourceComponent, this.profile, workers, stressMetrics::addCheckout);
+        }
+
+        return StressConnectionPool.shared(datasourceComponent, this.profile, stressMetrics::addCheckout);
+    }
+
+    /**
+     * Server stats are sampled on a connection of their own, a stress is not prevented by a failed sampler.
+     *
+     * @return null if the connection could not be created
+     */
+    private ServerStatsSampler createServerStatsSampler(StressMetrics stressMetrics) {
+        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+        this.databaseType = datasourceComponent.getDatabaseType(this.profile);
+
+        try {
+            ServerStatsSampler sampler = new ServerStatsSampler(datasourceComponent.createConnection(this.profile), this.databaseType, stressMetrics::addServerSample);
+            sampler.start();
+            return sampler;
+        } catch (Exception e) {
+            Notifier.notifyWarning(project, "sql stress", String.format("Server stats are not sampled: %s", e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the field, generator and corpus column of every parameter of the template once, a request only takes
+     * the next corpus row or runs the generators. Further occurrences of a field, like the end of a between, are
+     * read from the rows following the request's row.
+     *
+     * @param corpus null if values are generated per request
+     * @return null unless the value type is configure parameters or prepared statement
+     */
+    private PreparedStressExecutor.ParameterSource createParameterSource(PreparedTemplate template, List<TableField> configured, ParameterCorpus corpus) {
+
+        if (!StringUtils.equalsAny((String) this.valueTypeCombobox.getSelectedItem(), "configure parameters", "prepared statement")) {
+            return null;
         }
 
+        Map<String, TableField> fieldMap = new HashMap<>();
+        for (TableField field : configured) {
+            fieldMap.put(String.format("%s.%s", field.getTable(), field.getName()).toLowerCase(), field);
+            fieldMap.putIfAbsent(field.getName().toLowerCase(), field);
+        }
+
+        List<String> keys = template.getParameterKeys();
+        TableField[] fields = new TableField[keys.size()];
+        DataGenerator[] generators = new DataGenerator[keys.size()];
+        int[] columns = new int[keys.size()];
+
+        for (int i = 0; i < keys.size(); i++) {
+            TableField field = fieldMap.get(keys.get(i));
+            if (field == null) {
+                throw new IllegalStateException(String.format("Mock type of parameter ${%s} is not configured.", keys.get(i)));
+            }
+            fields[i] = field;
+            generators[i] = DataGeneratorFactory.getGenerator(MockTypeEnum.valueOf(field.getMockType()));
+        }
+
+        if (corpus != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                columns[i] = corpus.indexOf(String.format("%s.%s", fields[i].getTable(), fields[i].getName()));
+            }
+            int[] offsets = ParameterCorpus.occurrences(columns);
+            return () -> corpus.nextValues(columns, offsets);
+        }
+
+        return () -> {
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = generators[i].generate(project, fields[i]);
+            }
+            return values;
+        };
+    }
+
+    /**
+     * @return null for the prepared statement and workload mix value types
+     */
+    private SqlSource createSqlSource(PreparedTemplate template) {
+
+        String valueType = (String) this.valueTypeCombobox.getSelectedItem();
+
+        if (StringUtils.equals(valueType, "use sql directly")) {
+            String sql = this.sqlText.getText();
+            return () -> sql;
+        }
+
+        PreparedStressExecutor.ParameterSource parameters = this.parameterSource;
+        if (StringUtils.equals(valueType, "configure parameters")) {
+            return () -> template.render(parameters.values());
+        }
+
+        return null;
+    }
+
+    /**
+     * The template is compiled once, every worker prepares it on its own connection and binds fresh mock values per request.
+     *
+     * @return null unless the value type is prepared statement
+     */
+    private PreparedStressExecutor createPreparedExecutor(PreparedTemplate template) {
+
+        if (!StringUtils.equals((String) this.valueTypeCombobox.getSelectedItem(), "prepared statement")) {
+            return null;
+        }
+
+        return new PreparedStressExecutor(this.connectionPool, template, this.parameterSource);
+    }
+
+    private void finishStress(StressMetrics stressMetrics, int unfinished) {
+        if (unfinished > 0) {
+            Notifier.notifyWarning(project, "sql stress", String.format("%s stress workers are still waiting for the database after stop.", unfinished));
+        }
+        if (stressMetrics.isWarmingUp()) {
+            Notifier.notifyWarning(project, "sql stress", "The steady state was not reached, the summary includes the warm-up.");
+        }
+        this.statementMetrics.values().forEach(statementMetrics -> statementMetrics.roll(true));
         displayMetrics(stressMetrics);
+        WorkloadMix<String> mix = this.workload;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            saveRun(stressMetrics, mix);
+            this.stressButton.setText("stress");
+        });
+    }
 
-        isStop.set(true);
-        this.stressButton.setText("stress");
+    private ArrivalRate acquireArrivalRate() {
+        RateProfileEnum profile = RateProfileEnum.valueOf((String) this.rateProfileCombobox.getSelectedItem());
+        double targetQps = Double.parseDouble(this.targetQpsText.getText().trim());
+        double startQps = profile == RateProfileEnum.constant ? targetQps : Double.parseDouble(this.startQpsText.getText().trim());
+        long duration = Long.parseLong(this.incrementDurationText.getText());
 
+        return new ArrivalRate(profile, startQps, targetQps, duration);
+    }
+
+    /**
+     * Capacity curve and one row per measured concurrency, the knee is the highest concurrency meeting the SLO.
+     */
+    private void displayCapacity(List<CapacityStep> steps, StressConfig config) {
+
+        this.capacityChart.update(steps, config.getSloP99Millis());
+
+        List<CapacityStep> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingInt(CapacityStep::getConcurrency));
+        CapacityStep knee = CapacitySearch.knee(steps);
+
+        Vector<String> columns = new Vector<>(Arrays.asList("并发数", "TPS", "平均RT(ms)", "TP99(ms)", "错误率(%)", "结果"));
+
+        Vector<Vector<Object>> rows = new Vector<>();
+        for (CapacityStep step : sorted) {
+            Vector<Object> row = new Vector<>();
+            row.add(step.getConcurrency());
+            row.add(String.format("%.1f", step.getTps()));
+            row.add(String.format("%.2f", step.getAverageRt() / 1000));
+            row.add(String.format("%.2f", step.getP99() / 1000.0));
+            row.add(String.format("%.2f", step.getErrorRate()));
+            row.add(step == knee ? "拐点" : step.isPassed() ? "达标" : "超标");
+            rows.add(row);
+        }
+
+        this.capacityTable.setModel(new DefaultTableModel(rows, columns) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        });
+    }
+
+    private int acquireInFlightLimit(int concurrentNum) {
+        String limit = this.inFlightLimitText.getText();
+        if (StringUtils.isBlank(limit)) {
+            return concurrentNum;
+        }
+        return Math.min(Integer.parseInt(limit.trim()), concurrentNum);
     }
 
     private void displayMetrics(StressMetrics metrics) {
 
-        ApplicationManager.getApplication().invokeLater(() -> {
+        StressConnectionPool pool = this.connectionPool;
+        if (pool != null) {
+            metrics.addPoolSample(pool.getActiveCount(), pool.getIdleCount(), pool.getWaitThreadCount(), pool.getWaitNanos());
+        }
+
+        Map<String, StressMetrics> statements = this.statementMetrics;
 
-            metrics.addConcurrentNum();
+        // the engine rolls the metrics of the run, the statements are rolled here
+        statements.values().forEach(statementMetrics -> statementMetrics.roll(false));
+
+        ApplicationManager.getApplication().invokeLater(() -> {
 
             this.successRateText.setText(metrics.successRate());
 
-            Pair<Long, Long> tp = metrics.tp99And90();
-            this.tp99Text.setText(String.valueOf(tp.getRight()));
-            this.tp90Text.setText(String.valueOf(tp.getLeft()));
+            List<String> percentileRt = metrics.percentileRt();
+            for (int i = 0; i < percentileRt.size() && i < this.percentileTexts.size(); i++) {
+                this.percentileTexts.get(i).setText(percentileRt.get(i));
+            }
 
-            this.maxRtText.setText(String.valueOf(metrics.maxRt()));
+            this.maxRtText.setText(metrics.maxRt());
             this.averageRtText.setText(metrics.averageRt());
 
             this.maxTpsText.setText(String.valueOf(metrics.maxTps()));
@@ -328,51 +1215,173 @@ public class SqlStressTabbedPane {
             this.concurrentNumTextField.setText(String.valueOf(metrics.getConcurrentNum()));
             this.errorNumText.setText(metrics.failedCount());
             this.totalRequestText.setText(metrics.total());
+            this.droppedText.setText(metrics.droppedCount());
+            this.lateText.setText(metrics.lateCount());
+            this.checkoutRtText.setText(metrics.checkoutRt());
+            this.poolWaitText.setText(metrics.poolWaitTime());
 
             Map<Long, Long> concurrentNumMap = metrics.concurrentNumMap();
 
             this.successRateLineChart.updateDataset(metrics.successRateMap(), concurrentNumMap);
-            this.averageRtLineChart.updateDataset(metrics.averageRtMap(), concurrentNumMap);
+            Map<String, Map<Long, Double>> rtSeries = new LinkedHashMap<>();
+            rtSeries.put("平均RT", metrics.averageRtMap());
+            rtSeries.put("平均服务时间", metrics.averageServiceRtMap());
+            rtSeries.putAll(metrics.percentileRtMap());
+            this.averageRtLineChart.updateSeriesDataset(rtSeries, concurrentNumMap);
             this.tpsLineChart.updateDataset(metrics.tpsMap(), concurrentNumMap);
+            this.poolLineChart.updateSeriesDataset(metrics.poolMap(), concurrentNumMap);
+
+            Map<String, Map<Long, Double>> statementRtSeries = new LinkedHashMap<>();
+            statements.forEach((name, statementMetrics) -> statementRtSeries.put(name, statementMetrics.averageRtMap()));
+            this.statementRtLineChart.updateSeriesDataset(statementRtSeries, concurrentNumMap);
+            displayStatementMetrics(statements, metrics);
+
+            if (metrics.getSteadySecond() > 0) {
+                markWarmup(metrics.getStartMillis(), metrics.getSteadySecond());
+            }
+
+            String type = this.databaseType;
+            this.serverReadLineChart.updateSeriesDataset(metrics.serverMap(ServerStatsSampler.labels(type, ServerStatsSampler.Group.reads)), concurrentNumMap);
+            this.serverWaitLineChart.updateSeriesDataset(metrics.serverMap(ServerStatsSampler.labels(type, ServerStatsSampler.Group.waits)), concurrentNumMap);
+
+            this.errorChart.update(metrics.errorMap());
+            displayErrors(metrics);
 
         });
 
     }
 
-    private Runnable doExecute(StressMetrics stressMetrics) {
-        return () -> {
-            while (true) {
-                if (isStop.get()) {
-                    return;
-                }
-                try {
-                    String sql = acquireSql();
-                    BaseResult result = SqlExecutor.executeSql(project, sql, false);
-                    stressMetrics.addSuccess(result.getCost());
-                } catch (Exception e) {
-                    stressMetrics.addFailed();
+    private void markWarmup(long startMillis, long steadyMillis) {
+        for (LineChart chart : Arrays.asList(this.successRateLineChart, this.averageRtLineChart, this.tpsLineChart, this.poolLineChart,
+                this.statementRtLineChart, this.serverReadLineChart, this.serverWaitLineChart)) {
+            chart.markWarmup(startMillis, steadyMillis);
+        }
+    }
+
+    /**
+     * One row per statement of the workload mix, so the statement which degrades first under contention stands out.
+     */
+    private void displayStatementMetrics(Map<String, StressMetrics> statements, StressMetrics metrics) {
+
+        Vector<String> columns = new Vector<>(Arrays.asList("语句", "占比(%)", "请求数", "失败数", "平均RT(ms)"));
+        for (int i = 0; i < metrics.getPercentiles().size(); i++) {
+            columns.add(String.format("%s(ms)", metrics.getPercentiles().label(i)));
+        }
+        columns.addAll(Arrays.asList("最大RT(ms)", "TPS"));
+
+        long total = Math.max(Long.parseLong(metrics.total()), 1);
+
+        Vector<Vector<Object>> rows = new Vector<>();
+        statements.forEach((name, statementMetrics) -> {
+            Vector<Object> row = new Vector<>();
+            row.add(name);
+            row.add(String.format("%.2f", 100.0 * Long.parseLong(statementMetrics.total()) / total));
+            row.add(statementMetrics.total());
+            row.add(statementMetrics.failedCount());
+            row.add(statementMetrics.averageRt());
+            row.addAll(statementMetrics.percentileRt());
+            row.add(statementMetrics.maxRt());
+            row.add(statementMetrics.tps());
+            rows.add(row);
+        });
+
+        DefaultTableModel model = (DefaultTableModel) this.statementTable.getModel();
+        if (model.getColumnCount() == columns.size() && model.getRowCount() == rows.size()) {
+            for (int r = 0; r < rows.size(); r++) {
+                for (int c = 0; c < columns.size(); c++) {
+                    model.setValueAt(rows.get(r).get(c), r, c);
                 }
             }
+            return;
+        }
 
-        };
+        this.statementTable.setModel(new DefaultTableModel(rows, columns) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        });
     }
 
-    private String acquireSql() throws Exception {
-        String sqlType = (String) this.valueTypeCombobox.getSelectedItem();
-        if (StringUtils.equals(sqlType, "use sql directly")) {
-            return this.sqlText.getText();
-        } else if (StringUtils.equals(sqlType, "configure parameters")) {
-            String templateSql = this.sqlTemplateText.getText();
-            List<TableField> fields = generateMockConfig();
-            for (TableField field : fields) {
-                templateSql = mockBetweenData(templateSql, field);
-                templateSql = mockInData(templateSql, field);
-                templateSql = mockOrdinaryData(templateSql, field);
+    /**
+     * One row per error class with a few distinct messages, the most frequent class first.
+     */
+    private void displayErrors(StressMetrics metrics) {
+
+        ErrorStats errorStats = metrics.getErrorStats();
+        long failed = Math.max(Long.parseLong(metrics.failedCount()), 1);
+
+        Vector<Vector<Object>> rows = new Vector<>();
+        errorStats.totals().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> {
+                    Vector<Object> row = new Vector<>();
+                    row.add(entry.getKey());
+                    row.add(entry.getValue());
+                    row.add(String.format("%.2f", 100.0 * entry.getValue() / failed));
+                    row.add(String.join(" | ", errorStats.samples(entry.getKey())));
+                    rows.add(row);
+                });
+
+        Vector<String> columns = new Vector<>(Arrays.asList("异常类型", "异常数", "占比(%)", "示例"));
+
+        DefaultTableModel model = (DefaultTableModel) this.errorTable.getModel();
+        if (model.getColumnCount() == columns.size() && model.getRowCount() == rows.size()) {
+            for (int r = 0; r < rows.size(); r++) {
+                for (int c = 0; c < columns.size(); c++) {
+                    model.setValueAt(rows.get(r).get(c), r, c);
+                }
+            }
+            return;
+        }
+
+        this.errorTable.setModel(new DefaultTableModel(rows, columns) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
             }
-            return templateSql;
+        });
+    }
+
+    /**
+     * One request of the {@link StressEngine}, the statement picked for it is kept for the listener which records
+     * the metrics of the statement on the same worker.
+     *
+     * @return service time in nanoseconds
+     */
+    private long executeStatement() throws Exception {
+        WorkloadMix.Entry<String> statement = pickStatement();
+        this.currentStatement.set(statement);
+        return executeOnce(this.preparedExecutor, statement).getStatementNanos();
+    }
+
+    /**
+     * @return the statement of the next request, null unless the value type is workload mix
+     */
+    private WorkloadMix.Entry<String> pickStatement() {
+        WorkloadMix<String> workload = this.workload;
+        return workload == null ? null : workload.pick();
+    }
+
+    private ExecutionTiming executeOnce(PreparedStressExecutor preparedExecutor, WorkloadMix.Entry<String> statement) throws Exception {
+        if (preparedExecutor != null) {
+            return preparedExecutor.execute();
         }
 
-        return StringUtils.EMPTY;
+        String sql = statement != null ? statement.getPayload() : this.sqlSource.next();
+
+        ExecutionTiming timing = new ExecutionTiming();
+        Connection connection = this.connectionPool.acquire(timing);
+        boolean broken = false;
+        try {
+            SqlExecutor.executeSql(connection, sql, timing);
+            return timing;
+        } catch (SQLException e) {
+            broken = ErrorClassifier.isConnectionError(e, connection);
+            throw e;
+        } finally {
+            this.connectionPool.release(connection, broken);
+        }
     }
 
     private ProcessResult<Void> checkStressConfig() {
@@ -388,8 +1397,62 @@ public class SqlStressTabbedPane {
         }
 
         int number = Integer.parseInt(concurrentNum);
-        if (number > 10) {
-            return ProcessResult.fail("The number of concurrency should be less than or equal to 10");
+        if (number <= 0 || number > LoadGenerator.MAX_WORKERS) {
+            return ProcessResult.fail(String.format("The number of concurrency should be in range [1, %s]", LoadGenerator.MAX_WORKERS));
+        }
+
+        String inFlightLimit = this.inFlightLimitText.getText();
+        if (StringUtils.isNotBlank(inFlightLimit) && (!StringUtils.isNumeric(inFlightLimit.trim()) || Integer.parseInt(inFlightLimit.trim()) <= 0)) {
+            return ProcessResult.fail("in-flight limit should be a positive integer or empty.");
+        }
+
+        DatasourceComponent datasourceComponent = project.getService(DatasourceComponent.class);
+        int maxActive = datasourceComponent.getMaxActive(datasourceComponent.getProfile(DatasourceComponent.Target.stress));
+        int inFlight = acquireInFlightLimit(number);
+        boolean isPinned = StringUtils.equals((String) this.connectionModeCombobox.getSelectedItem(), "pinned");
+        if (!isPinned && inFlight > maxActive) {
+            return ProcessResult.fail(String.format("The in-flight requests(%s) should be less than or equal to the max active connections(%s) of the datasource. " +
+                    "Lower the concurrency or in-flight limit, or raise Max Active in the datasource configuration, or use the pinned connection mode.", inFlight, maxActive));
+        }
+
+        // a prepared statement keeps the connection of every worker for the whole run, whatever the in-flight limit
+        TrafficModelEnum trafficModel = TrafficModelEnum.of((String) this.trafficModelCombobox.getSelectedItem());
+        boolean isOpenOrSearch = trafficModel == TrafficModelEnum.arrival_rate || trafficModel == TrafficModelEnum.capacity_search;
+        int workers = isOpenOrSearch ? inFlight : number;
+        boolean isPrepared = StringUtils.equals((String) this.valueTypeCombobox.getSelectedItem(), "prepared statement");
+        if (isPrepared && !isPinned && workers > maxActive) {
+            return ProcessResult.fail(String.format("A prepared statement keeps a connection per worker, the workers(%s) should be less than or equal to the max active connections(%s) of the datasource. " +
+                    "Lower the concurrency, or raise Max Active in the datasource configuration, or use the pinned connection mode.", workers, maxActive));
+        }
+
+        ThreadModeEnum threadMode = ThreadModeEnum.valueOf((String) this.threadModeCombobox.getSelectedItem());
+        if (!threadMode.isSupported()) {
+            return ProcessResult.fail("virtual threads need the IDE to run on JDK 21 or later.");
+        }
+
+        if (StringUtils.equals((String) this.trafficModelCombobox.getSelectedItem(), "constant arrival rate")) {
+            try {
+                acquireArrivalRate();
+            } catch (NumberFormatException e) {
+                return ProcessResult.fail("target QPS and start QPS should be numbers.");
+            } catch (IllegalArgumentException e) {
+                return ProcessResult.fail(e.getMessage());
+            }
+        }
+
+        if (StringUtils.equals((String) this.valueTypeCombobox.getSelectedItem(), "workload mix")) {
+            ProcessResult<Void> workloadResult = checkWorkload();
+            if (!workloadResult.isSuccess()) {
+                return workloadResult;
+            }
+        }
+
+        if (!StringUtils.equals((String) this.corpusModeCombobox.getSelectedItem(), "inline")) {
+            String corpusSize = this.corpusSizeText.getText().trim();
+            if (!StringUtils.isNumeric(corpusSize) || corpusSize.length() > 7
+                    || Integer.parseInt(corpusSize) <= 0 || Integer.parseInt(corpusSize) > ParameterCorpus.MAX_SIZE) {
+                return ProcessResult.fail(String.format("corpus size should be in range [1, %s].", ParameterCorpus.MAX_SIZE));
+            }
         }
 
         duration = this.stressDurationText.getText();
@@ -402,72 +1465,53 @@ public class SqlStressTabbedPane {
             return ProcessResult.fail("The stress test time should be less than 1 hour");
         }
 
-       return ProcessResult.success(null);
-
-    }
-
-    private String mockOrdinaryData(String templateSql, TableField field) throws Exception {
-        String key = String.format("%s.%s", field.getTable(), field.getName());
-        Object data = mockData(field);
-        if (data instanceof Number) {
-            templateSql = StringUtils.replaceIgnoreCase(templateSql, String.format("'${%s}'", key), data.toString());
-        } else {
-            templateSql = StringUtils.replaceIgnoreCase(templateSql, String.format("${%s}", key), data.toString());
+        String warmup = this.warmupText.getText().trim();
+        if (!StringUtils.isNumeric(warmup) || warmup.isEmpty() || warmup.length() > 5) {
+            return ProcessResult.fail("warm-up duration should be an integer in seconds.");
         }
 
-        return templateSql;
-    }
-
-    private String mockInData(String templateSql, TableField field) throws Exception {
-        String key = String.format("%s.%s", field.getTable(), field.getName());
-        Pattern pattern = Pattern.compile(String.format("__in__\\$\\{(%s)}__(\\d+)__", key), Pattern.CASE_INSENSITIVE);
-
-        Matcher matcher = pattern.matcher(templateSql);
-        if (!matcher.find()) {
-            return templateSql;
+        String steadyStateCv = this.steadyStateCvText.getText().trim();
+        try {
+            if (StringUtils.isNotEmpty(steadyStateCv) && (Double.parseDouble(steadyStateCv) <= 0 || Double.parseDouble(steadyStateCv) > 100)) {
+                return ProcessResult.fail("steady state CV should be in range (0, 100] or empty.");
+            }
+        } catch (NumberFormatException e) {
+            return ProcessResult.fail("steady state CV should be a number or empty.");
         }
 
-        int size = matcher.groupCount();
-
-        for (int i = 0; i < size; i++) {
-            Object data = mockData(field);
-            if (data instanceof Number) {
-                templateSql = StringUtils.replaceIgnoreCase(templateSql, String.format("'__in__${%s}__%s__'", key, i), data.toString());
-            } else {
-                templateSql = StringUtils.replaceIgnoreCase(templateSql, String.format("__in__${%s}__%s__", key, i), data.toString());
+        if (StringUtils.equals((String) this.trafficModelCombobox.getSelectedItem(), "find max sustainable TPS")) {
+            try {
+                createStressConfig(Percentiles.parse(Percentiles.DEFAULT_PERCENTILES));
+            } catch (NumberFormatException e) {
+                return ProcessResult.fail("SLO TP99 and SLO error rate should be numbers.");
+            } catch (IllegalArgumentException e) {
+                return ProcessResult.fail(e.getMessage());
             }
         }
 
-        return templateSql;
+       return ProcessResult.success(null);
+
     }
 
-    private String mockBetweenData(String sql, TableField field) throws Exception {
+    private ProcessResult<Void> checkWorkload() {
 
-        String key = String.format("%s.%s", field.getTable(), field.getName());
-        Pattern between = Pattern.compile(String.format("__between__\\$\\{(%s)}__(start|end)__", key), Pattern.CASE_INSENSITIVE);
-        Matcher matcher = between.matcher(sql);
-        if (matcher.find()) {
-            Object start = mockData(field);
-            Object end = mockData(field);
+        DefaultTableModel model = (DefaultTableModel) this.workloadTable.getModel();
+        if (model.getRowCount() == 0) {
+            return ProcessResult.fail("Please add at least one statement to the workload.");
+        }
 
-            if (start instanceof Number) {
-                sql = StringUtils.replaceIgnoreCase(sql, String.format("'__between__${%s}__start__'", key), start.toString());
-                sql = StringUtils.replaceIgnoreCase(sql, String.format("'__between__${%s}__end__'", key), end.toString());
-            } else {
-                sql = StringUtils.replaceIgnoreCase(sql, String.format("__between__${%s}__start__", key), start.toString());
-                sql = StringUtils.replaceIgnoreCase(sql, String.format("__between__${%s}__end__", key), end.toString());
+        for (int row = 0; row < model.getRowCount(); row++) {
+            String method = String.valueOf(model.getValueAt(row, 0)).trim();
+            if (StringUtils.isBlank(method) || !method.contains(".")) {
+                return ProcessResult.fail(String.format("statement of row %s should be a mapper method.", row + 1));
+            }
+            String weight = String.valueOf(model.getValueAt(row, 1)).trim();
+            if (!StringUtils.isNumeric(weight) || weight.length() > 9 || Integer.parseInt(weight) <= 0) {
+                return ProcessResult.fail(String.format("weight of %s should be a positive integer.", method));
             }
         }
 
-        return sql;
-    }
-
-    private Object mockData(TableField field) throws Exception {
-
-        MockTypeEnum type = MockTypeEnum.valueOf(field.getMockType());
-        DataGenerator generator = DataGeneratorFactory.getGenerator(type);
-
-        return generator.generate(project, field);
+        return ProcessResult.success(null);
     }
 
     private List<TableField> generateMockConfig() {
@@ -590,15 +1634,19 @@ public class SqlStressTabbedPane {
             return;
         }
         List<String> tables = SqlParser.getTableNames(sqlConfig.getSql());
+        String profile = project.getService(DatasourceComponent.class).getProfile(DatasourceComponent.Target.stress);
 
         Vector<Vector<Object>> data = new Vector<>();
         Vector<String> columnNames = getMockTableColumns(false);
 
-        for (String table : tables) {
-            String metaSql = TABLE_META_SQL_TEMPLATE.replace("${table}", table);
-            SelectResult metaResult = (SelectResult) SqlExecutor.executeSql(project, metaSql, false);
+        List<TableMetadata> metadataList = project.getService(DatasourceComponent.class).getMetadata(profile).get(tables);
+
+        for (int i = 0; i < tables.size(); i++) {
+            String table = tables.get(i);
+            TableMetadata metadata = metadataList.get(i);
+            DefaultTableModel columns = metadata.getColumns();
 
-            if (metaResult.getModel().getRowCount() == 0) {
+            if (!metadata.exists()) {
                 this.configTabbedPane.remove(this.sqlStressContentPane);
                 this.configTabbedPane.add(this.infoPane.getInfoPane());
 
@@ -608,10 +1656,10 @@ public class SqlStressTabbedPane {
             }
 
             // 添加表名列
-            for (int r = 0; r < metaResult.getModel().getRowCount(); r++) {
+            for (int r = 0; r < columns.getRowCount(); r++) {
                 Vector rowData = new Vector();
                 rowData.add(table);
-                rowData.addAll((Collection) metaResult.getModel().getDataVector().get(r));
+                rowData.addAll((Collection) columns.getDataVector().get(r));
                 data.add(rowData);
             }
         }
@@ -886,4 +1934,11 @@ public class SqlStressTabbedPane {
 
         return identifiers;
     }
+
+    /**
+     * Supplies the sql of a request, called once per request.
+     */
+    private interface SqlSource {
+        String next() throws Exception;
+    }
 }
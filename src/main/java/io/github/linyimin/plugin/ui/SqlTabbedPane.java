@@ -20,6 +20,7 @@ import io.github.linyimin.plugin.sql.executor.SqlExecutor;
 import io.github.linyimin.plugin.sql.parser.SqlParser;
 import io.github.linyimin.plugin.sql.parser.SqlType;
 import io.github.linyimin.plugin.sql.result.BaseResult;
+import io.github.linyimin.plugin.sql.result.ColumnarTableModel;
 import io.github.linyimin.plugin.sql.result.SelectResult;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -31,6 +32,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -385,19 +387,26 @@ public class SqlTabbedPane implements TabbedChangeListener {
         }
 
         try {
-            BaseResult executeResult = SqlExecutor.executeSql(project, sql, true);
+            BaseResult executeResult = SqlExecutor.executeSqlForDisplay(project, sql);
             SqlType sqlType = SqlParser.getExecuteSqlType(sql);
-            if (sqlType == SqlType.select) {
-                executeResultScroll.setVisible(true);
+            TableModel model = sqlType == SqlType.select ? ((SelectResult) executeResult).getTableModel() : null;
+            String executeInfo = ResultConverter.convert2ExecuteInfo(executeResult);
 
-                executeResultTable.setModel(((SelectResult) executeResult).getModel());
-            } else {
-                executeResultScroll.setVisible(false);
-            }
+            ApplicationManager.getApplication().invokeLater(() -> {
+                // the cursor of the previous result holds a connection until it is read or closed
+                if (executeResultTable.getModel() instanceof ColumnarTableModel) {
+                    ((ColumnarTableModel) executeResultTable.getModel()).close();
+                }
 
-            executeInfoText.setText(ResultConverter.convert2ExecuteInfo(executeResult));
+                if (model != null) {
+                    executeResultScroll.setVisible(true);
+                    executeResultTable.setModel(model);
+                } else {
+                    executeResultScroll.setVisible(false);
+                }
+
+                executeInfoText.setText(executeInfo);
 
-            ApplicationManager.getApplication().invokeLater(() -> {
                 this.resultTabbedPane.remove(this.resultContentPane);
                 this.resultTabbedPane.remove(this.infoPane.getInfoPane());
                 this.resultTabbedPane.add(this.resultContentPane);
@@ -8,6 +8,9 @@ import com.intellij.openapi.ui.MessageDialogBuilder;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.ui.TitledSeparator;
 import io.github.linyimin.plugin.settings.SqlViewerSettingsState;
+import io.github.linyimin.plugin.stress.Percentiles;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
@@ -24,6 +27,9 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
     private JCheckBox fileJumpEnableBox;
     private JPanel myMainPanel;
     private JFormattedTextField maxRowsReturnedField;
+    private JTextField stressPercentilesField;
+    private JFormattedTextField mockBatchSizeField;
+    private JFormattedTextField mockCommitRowsField;
 
     private boolean needRestart = false;
 
@@ -34,6 +40,8 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
     private void init() {
         assert maxRowsReturnedField != null;
         ((AbstractDocument)maxRowsReturnedField.getDocument()).setDocumentFilter(new IntegerInputVerifier());
+        ((AbstractDocument)mockBatchSizeField.getDocument()).setDocumentFilter(new IntegerInputVerifier());
+        ((AbstractDocument)mockCommitRowsField.getDocument()).setDocumentFilter(new IntegerInputVerifier());
     }
 
     @Override
@@ -53,6 +61,13 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
             needRestart = true;
             return true;
         }
+        if (!StringUtils.equals(stressPercentilesField.getText(), state.stressPercentiles)) {
+            return true;
+        }
+        if (!StringUtils.equals(mockBatchSizeField.getText(), String.valueOf(state.mockBatchSize))
+                || !StringUtils.equals(mockCommitRowsField.getText(), String.valueOf(state.mockCommitRows))) {
+            return true;
+        }
         String text = maxRowsReturnedField.getText();
         return !text.isEmpty() && !text.equals(String.valueOf(state.maxRowsReturnedField));
     }
@@ -62,6 +77,9 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
         SqlViewerSettingsState state = SqlViewerSettingsState.getInstance();
         fileJumpEnableBox.setSelected(state.fileJumpEnable);
         maxRowsReturnedField.setText(String.valueOf(state.maxRowsReturnedField));
+        stressPercentilesField.setText(state.stressPercentiles);
+        mockBatchSizeField.setText(String.valueOf(state.mockBatchSize));
+        mockCommitRowsField.setText(String.valueOf(state.mockCommitRows));
     }
 
     @Override
@@ -69,8 +87,20 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
 
         SqlViewerSettingsState state = SqlViewerSettingsState.getInstance();
 
+        try {
+            Percentiles.parse(stressPercentilesField.getText());
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Stress report percentiles should be comma separated numbers in range (0, 100].");
+        }
+
+        int mockBatchSize = parsePositive(mockBatchSizeField.getText(), "Mock data batch size");
+        int mockCommitRows = parsePositive(mockCommitRowsField.getText(), "Mock data rows per commit");
+
         state.fileJumpEnable = fileJumpEnableBox.isSelected();
         state.maxRowsReturnedField = Integer.parseInt(maxRowsReturnedField.getText());
+        state.stressPercentiles = stressPercentilesField.getText();
+        state.mockBatchSize = mockBatchSize;
+        state.mockCommitRows = mockCommitRows;
 
         if (!needRestart) {
             return;
@@ -87,6 +117,14 @@ public class SqlViewerSettingsPanel implements Configurable, Disposable {
 
     }
 
+    private int parsePositive(String text, String name) throws ConfigurationException {
+        int value = NumberUtils.toInt(text, 0);
+        if (value <= 0) {
+            throw new ConfigurationException(String.format("%s should be a positive number.", name));
+        }
+        return value;
+    }
+
     @Override
     public void dispose() {
 
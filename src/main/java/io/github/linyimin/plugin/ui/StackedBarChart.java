@@ -0,0 +1,116 @@
+package io.github.linyimin.plugin.ui;
+
+import com.intellij.ui.JBColor;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.StackedXYBarRenderer;
+import org.jfree.chart.renderer.xy.StandardXYBarPainter;
+import org.jfree.data.time.Second;
+import org.jfree.data.time.TimePeriod;
+import org.jfree.data.time.TimeTableXYDataset;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Per-second bars stacked by series, e.g. the errors of each error class.
+ *
+ * @author banzhe
+ * @date 2026/10/19 01:10
+ **/
+public class StackedBarChart {
+
+    /**
+     * seconds shown, older bars are removed
+     */
+    private static final int MAX_BARS = 600;
+
+    private final TimeTableXYDataset dataset = new TimeTableXYDataset();
+    private final JFreeChart chart;
+    private final ChartPanel chartPanel;
+
+    private long lastSecond = Long.MIN_VALUE;
+
+    public StackedBarChart(String title, String xAxisLabel, String yAxisLabel) {
+
+        DateAxis dateAxis = new DateAxis(xAxisLabel);
+        dateAxis.setDateFormatOverride(new SimpleDateFormat("HH:mm:ss"));
+
+        NumberAxis numberAxis = new NumberAxis(yAxisLabel);
+
+        StackedXYBarRenderer renderer = new StackedXYBarRenderer(0.1);
+        renderer.setBarPainter(new StandardXYBarPainter());
+        renderer.setShadowVisible(false);
+        renderer.setDrawBarOutline(false);
+
+        XYPlot plot = new XYPlot(dataset, dateAxis, numberAxis, renderer);
+
+        plot.setBackgroundPaint(JBColor.WHITE);
+
+        plot.setRangeGridlinesVisible(true);
+        plot.setRangeGridlinePaint(JBColor.BLACK);
+
+        plot.setDomainGridlinesVisible(true);
+        plot.setDomainGridlinePaint(JBColor.BLACK);
+
+        this.chart = new JFreeChart(title, new Font("Serif", Font.BOLD, 13), plot, true);
+        this.chart.getLegend().setFrame(BlockBorder.NONE);
+
+        this.chartPanel = new ChartPanel(chart);
+        this.chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+    }
+
+    public ChartPanel getChartPanel() {
+        return chartPanel;
+    }
+
+    public void clear() {
+        this.dataset.clear();
+        this.lastSecond = Long.MIN_VALUE;
+    }
+
+    /**
+     * Add the seconds newer than the previous update, every series should have a value for each of them.
+     *
+     * @param data series name -> (epoch millis of the second -> value)
+     */
+    public void update(Map<String, Map<Long, Double>> data) {
+
+        this.chart.setNotify(false);
+
+        try {
+            long latest = this.lastSecond;
+
+            for (Map.Entry<String, Map<Long, Double>> series : data.entrySet()) {
+                Map<Long, Double> points = series.getValue();
+                Map<Long, Double> newer = points instanceof NavigableMap && this.lastSecond != Long.MIN_VALUE
+                        ? ((NavigableMap<Long, Double>) points).tailMap(this.lastSecond, false) : points;
+                for (Map.Entry<Long, Double> point : newer.entrySet()) {
+                    if (point.getKey() > this.lastSecond) {
+                        this.dataset.add(new Second(new Date(point.getKey())), point.getValue(), series.getKey());
+                        latest = Math.max(latest, point.getKey());
+                    }
+                }
+            }
+
+            this.lastSecond = latest;
+
+            while (this.dataset.getItemCount() > MAX_BARS) {
+                TimePeriod oldest = this.dataset.getTimePeriod(0);
+                for (int i = this.dataset.getSeriesCount() - 1; i >= 0; i--) {
+                    this.dataset.remove(oldest, this.dataset.getSeriesKey(i));
+                }
+            }
+        } finally {
+            this.chart.setNotify(true);
+        }
+    }
+}
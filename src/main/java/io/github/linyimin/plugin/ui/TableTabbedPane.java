@@ -10,6 +10,7 @@ import io.github.linyimin.plugin.component.SqlParamGenerateComponent;
 import io.github.linyimin.plugin.configuration.MybatisSqlStateComponent;
 import io.github.linyimin.plugin.configuration.model.MybatisSqlConfiguration;
 import io.github.linyimin.plugin.constant.Constant;
+import io.github.linyimin.plugin.sql.DatasourceComponent;
 import io.github.linyimin.plugin.sql.parser.SqlParser;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -69,6 +70,13 @@ public class TableTabbedPane implements TabbedChangeListener {
                     tableTabbedPanel.removeAll();
                 });
 
+                // read the metadata of all tables in one round trip, the tabs below take it from the cache
+                try {
+                    project.getService(DatasourceComponent.class).getMetadata().get(tables);
+                } catch (Exception ignored) {
+                    // each tab reports the error for its table
+                }
+
                 for (String table : tables) {
                     SpecifyTableTabbedPane tabbedPanel = new SpecifyTableTabbedPane(project, tableTabbedPanel);
 
@@ -24,7 +24,6 @@ import io.github.linyimin.plugin.sql.parser.SqlParser;
 import io.github.linyimin.plugin.sql.result.SelectResult;
 import io.github.linyimin.plugin.ui.MouseCursorAdapter;
 import io.github.linyimin.plugin.ui.MybatisSqlScannerPanel;
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -119,7 +118,7 @@ public class TreeListener extends MouseAdapter {
 
                 List<Checker> checkers;
 
-                boolean isConnected = StringUtils.equals(SqlExecutor.testConnected(mybatisSqlScannerPanel.getProject()), Constant.DATASOURCE_CONNECTED);
+                boolean isConnected = mybatisSqlScannerPanel.isConnected();
                 if (isConnected) {
                     checkers = CheckerHolder.getCheckers(scope, CheckScopeEnum.index_hit);
                 } else {
@@ -165,7 +164,7 @@ public class TreeListener extends MouseAdapter {
         try {
             //TODO
             String explainSql = String.format("explain %s", sqlResult.getData());
-            SelectResult executeResult = (SelectResult) SqlExecutor.executeSql(this.mybatisSqlScannerPanel.getProject(), explainSql, false);
+            SelectResult executeResult = (SelectResult) SqlExecutor.executeSql(this.mybatisSqlScannerPanel.getProject(), this.mybatisSqlScannerPanel.getProfile(), explainSql, false);
 
             ApplicationManager.getApplication().invokeLater(() -> {
                 mybatisSqlScannerPanel.getIndexPanel().setLayout(new BorderLayout());
@@ -0,0 +1,88 @@
+package io.github.linyimin.plugin.sql.result;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 06:00
+ **/
+class ColumnarBufferTest {
+
+    @Test
+    public void testTypedColumns() {
+
+        ColumnarBuffer buffer = new ColumnarBuffer(Arrays.asList("id", "amount", "rate", "name", "price"));
+
+        for (int i = 0; i < 1000; i++) {
+            buffer.append(new Object[]{i, (long) i * 10, i / 2.0, "name" + (i % 3), new BigDecimal(i)});
+        }
+
+        Assertions.assertEquals(1000L, buffer.getRowCount());
+        Assertions.assertEquals("rate", buffer.getColumnName(2));
+
+        Assertions.assertEquals(Integer.class, buffer.getColumnClass(0));
+        Assertions.assertEquals(Long.class, buffer.getColumnClass(1));
+        Assertions.assertEquals(Double.class, buffer.getColumnClass(2));
+        Assertions.assertEquals(String.class, buffer.getColumnClass(3));
+        Assertions.assertEquals(Object.class, buffer.getColumnClass(4));
+
+        Assertions.assertEquals(999, buffer.getValue(999, 0));
+        Assertions.assertEquals(9990L, buffer.getValue(999, 1));
+        Assertions.assertEquals(499.5, buffer.getValue(999, 2));
+        Assertions.assertEquals("name0", buffer.getValue(999, 3));
+        Assertions.assertEquals(new BigDecimal(999), buffer.getValue(999, 4));
+    }
+
+    @Test
+    public void testNulls() {
+
+        ColumnarBuffer buffer = new ColumnarBuffer(Arrays.asList("id", "name"));
+
+        for (int i = 0; i < 200; i++) {
+            buffer.append(new Object[]{i % 7 == 0 ? null : i, i < 100 ? null : "name"});
+        }
+
+        // a column only typed by its first non-null value keeps the nulls before it
+        Assertions.assertEquals(String.class, buffer.getColumnClass(1));
+        Assertions.assertNull(buffer.getValue(99, 1));
+        Assertions.assertEquals("name", buffer.getValue(100, 1));
+
+        Assertions.assertNull(buffer.getValue(0, 0));
+        Assertions.assertNull(buffer.getValue(126, 0));
+        Assertions.assertEquals(127, buffer.getValue(127, 0));
+    }
+
+    @Test
+    public void testMixedColumn() {
+
+        ColumnarBuffer buffer = new ColumnarBuffer(Arrays.asList("value"));
+
+        buffer.append(new Object[]{1});
+        buffer.append(new Object[]{null});
+        buffer.append(new Object[]{"two"});
+
+        Assertions.assertEquals(Object.class, buffer.getColumnClass(0));
+        Assertions.assertEquals(1, buffer.getValue(0, 0));
+        Assertions.assertNull(buffer.getValue(1, 0));
+        Assertions.assertEquals("two", buffer.getValue(2, 0));
+    }
+
+    @Test
+    public void testDictionaryLimit() {
+
+        ColumnarBuffer buffer = new ColumnarBuffer(Arrays.asList("uuid"));
+
+        for (int i = 0; i <= ColumnarBuffer.MAX_DICTIONARY_SIZE; i++) {
+            buffer.append(new Object[]{"uuid-" + i});
+        }
+
+        // unique strings are not worth a dictionary
+        Assertions.assertEquals(Object.class, buffer.getColumnClass(0));
+        Assertions.assertEquals("uuid-" + ColumnarBuffer.MAX_DICTIONARY_SIZE, buffer.getValue(ColumnarBuffer.MAX_DICTIONARY_SIZE, 0));
+        Assertions.assertEquals("uuid-0", buffer.getValue(0, 0));
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.linyimin.plugin.sql.result;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 10:00
+ **/
+class TableMetadataTest {
+
+    private static final Object[] COLUMN_NAMES = {"Name", "Type", "Nullable", "Default", "Key", "Extra", "Comment"};
+
+    @Test
+    public void testPrimaryKey() {
+
+        DefaultTableModel columns = new DefaultTableModel(new Object[][]{
+                {"name", "varchar(64)", "TRUE", null, "", "", ""},
+                {"city_id", "bigint", "FALSE", null, "PRI", "auto_increment", ""},
+                {"country_id", "bigint", "FALSE", null, "PRI", "", ""}
+        }, COLUMN_NAMES);
+
+        TableMetadata metadata = new TableMetadata("city", columns, new DefaultTableModel());
+
+        Assertions.assertTrue(metadata.exists());
+        Assertions.assertEquals("city_id", metadata.getPrimaryKey());
+    }
+
+    @Test
+    public void testMissingTable() {
+
+        TableMetadata metadata = new TableMetadata("city", new DefaultTableModel(new Object[0][], COLUMN_NAMES), new DefaultTableModel());
+
+        Assertions.assertFalse(metadata.exists());
+        Assertions.assertNull(metadata.getPrimaryKey());
+    }
+
+    @Test
+    public void testModelsAreCopied() {
+
+        DefaultTableModel columns = new DefaultTableModel(new Object[][]{
+                {"city_id", "bigint", "FALSE", null, "PRI", "", ""}
+        }, COLUMN_NAMES);
+
+        TableMetadata metadata = new TableMetadata("city", columns, new DefaultTableModel());
+
+        DefaultTableModel copy = metadata.getColumns();
+        copy.setValueAt("id", 0, 0);
+        copy.addRow(new Object[]{"name", "varchar(64)", "TRUE", null, "", "", ""});
+
+        Assertions.assertEquals("Key", copy.getColumnName(4));
+        Assertions.assertEquals(1, metadata.getColumns().getRowCount());
+        Assertions.assertEquals("city_id", metadata.getColumns().getValueAt(0, 0));
+    }
+
+    @Test
+    public void testGroupByTable() {
+
+        DefaultTableModel columns = new DefaultTableModel(new Object[][]{
+                {"city", "city_id", "bigint"},
+                {"city", "name", "varchar(64)"},
+                {"country", "country_id", "bigint"}
+        }, new Object[]{"Table", "Name", "Type"});
+
+        Map<String, DefaultTableModel> byTable = TableMetadata.groupByTable(columns, false);
+
+        Assertions.assertEquals(Arrays.asList("city", "country"), Arrays.asList(byTable.keySet().toArray()));
+        Assertions.assertEquals(2, byTable.get("city").getRowCount());
+        Assertions.assertEquals(2, byTable.get("city").getColumnCount());
+        Assertions.assertEquals("Name", byTable.get("city").getColumnName(0));
+        Assertions.assertEquals("name", byTable.get("city").getValueAt(1, 0));
+        Assertions.assertEquals("country_id", byTable.get("country").getValueAt(0, 0));
+
+        DefaultTableModel kept = TableMetadata.groupByTable(columns, true).get("country");
+        Assertions.assertEquals(3, kept.getColumnCount());
+        Assertions.assertEquals("country", kept.getValueAt(0, 0));
+
+        DefaultTableModel empty = TableMetadata.emptyLike(columns, false);
+        Assertions.assertEquals(0, empty.getRowCount());
+        Assertions.assertEquals("Type", empty.getColumnName(1));
+    }
+}
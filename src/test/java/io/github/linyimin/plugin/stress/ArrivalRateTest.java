@@ -0,0 +1,76 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 17:10
+ **/
+class ArrivalRateTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testRateAt() {
+        ArrivalRate constant = ArrivalRate.constant(200);
+        Assertions.assertEquals(200, constant.rateAt(0), 0.001);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(5), constant.intervalAt(10 * SECOND));
+
+        ArrivalRate step = new ArrivalRate(RateProfileEnum.step, 10, 35, 5);
+        Assertions.assertEquals(10, step.rateAt(0), 0.001);
+        Assertions.assertEquals(20, step.rateAt(5 * SECOND), 0.001);
+        Assertions.assertEquals(30, step.rateAt(14 * SECOND), 0.001);
+        Assertions.assertEquals(35, step.rateAt(100 * SECOND), 0.001);
+
+        ArrivalRate ramp = new ArrivalRate(RateProfileEnum.ramp, 10, 110, 10);
+        Assertions.assertEquals(10, ramp.rateAt(0), 0.001);
+        Assertions.assertEquals(60, ramp.rateAt(5 * SECOND), 0.001);
+        Assertions.assertEquals(110, ramp.rateAt(20 * SECOND), 0.001);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ArrivalRate(RateProfileEnum.ramp, 0, 10, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ArrivalRate.constant(0));
+    }
+
+    @Test
+    public void testDroppedAndLate() throws InterruptedException {
+        AtomicLong dropped = new AtomicLong(0);
+        AtomicLong late = new AtomicLong(0);
+        ArrivalListener listener = new ArrivalListener() {
+            @Override
+            public void onDropped(long intendedNanos) {
+                dropped.incrementAndGet();
+            }
+
+            @Override
+            public void onLate(long lagNanos) {
+                late.incrementAndGet();
+            }
+        };
+
+        // one worker which needs 20ms per request against 1000 requests per second
+        ArrivalRateGenerator generator = new ArrivalRateGenerator(ThreadModeEnum.platform, 1, ArrivalRate.constant(1000), listener);
+        AtomicLong maxResponse = new AtomicLong(0);
+        generator.start(intended -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maxResponse.accumulateAndGet(System.nanoTime() - intended, Math::max);
+        });
+
+        Thread.sleep(300);
+        Assertions.assertTrue(generator.shutdown(5, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(generator.getScheduled() > 100);
+        Assertions.assertEquals(generator.getDropped(), dropped.get());
+        Assertions.assertTrue(dropped.get() > 0);
+        Assertions.assertTrue(late.get() > 0);
+        // queueing behind the slow worker is part of the response time
+        Assertions.assertTrue(maxResponse.get() > TimeUnit.MILLISECONDS.toNanos(40));
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 03:00
+ **/
+class CapacitySearchTest {
+
+    /**
+     * the database saturates at 300 tps, beyond 30 concurrent requests the latency grows linearly with the queue
+     */
+    private CapacityStep measure(CapacitySearch search, int concurrency) {
+        double tps = Math.min(concurrency * 10.0, 300);
+        long rt = (long) (concurrency / tps * 1_000_000);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(rt, (long) tps * 10);
+
+        return new CapacityStep(concurrency, 10, (long) tps * 10, 0, histogram, search.meetsSlo((long) tps * 10, 0, histogram));
+    }
+
+    @Test
+    public void testBisectToKnee() {
+
+        // 200ms is reached at 60 concurrent requests
+        CapacitySearch search = new CapacitySearch(1000, TimeUnit.MILLISECONDS.toMicros(200), 1);
+
+        List<Integer> measured = new ArrayList<>();
+        int concurrency = search.first();
+        while (concurrency > 0) {
+            measured.add(concurrency);
+            concurrency = search.next(measure(search, concurrency));
+            Assertions.assertTrue(measured.size() < 30);
+        }
+
+        Assertions.assertEquals(Integer.valueOf(64), measured.get(6));
+        Assertions.assertFalse(search.getSteps().get(6).isPassed());
+
+        CapacityStep knee = search.getKnee();
+        Assertions.assertTrue(knee.getConcurrency() <= 60);
+        Assertions.assertTrue(knee.getConcurrency() >= 57);
+        Assertions.assertEquals(300.0, knee.getTps());
+    }
+
+    @Test
+    public void testUpperBound() {
+
+        CapacitySearch search = new CapacitySearch(20, TimeUnit.SECONDS.toMicros(10), 1);
+
+        int concurrency = search.first();
+        int last = 0;
+        while (concurrency > 0) {
+            last = concurrency;
+            concurrency = search.next(measure(search, concurrency));
+        }
+
+        Assertions.assertEquals(20, last);
+        Assertions.assertEquals(20, search.getKnee().getConcurrency());
+    }
+
+    @Test
+    public void testNothingPasses() {
+
+        CapacitySearch search = new CapacitySearch(100, 1, 1);
+
+        Assertions.assertEquals(0, search.next(measure(search, search.first())));
+        Assertions.assertNull(search.getKnee());
+    }
+
+    @Test
+    public void testErrorRate() {
+
+        CapacitySearch search = new CapacitySearch(100, TimeUnit.SECONDS.toMicros(1), 1);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(1000, 98);
+
+        Assertions.assertFalse(search.meetsSlo(98, 2, histogram));
+        Assertions.assertTrue(search.meetsSlo(98, 0, histogram));
+        Assertions.assertFalse(search.meetsSlo(0, 0, new LatencyHistogram()));
+    }
+}
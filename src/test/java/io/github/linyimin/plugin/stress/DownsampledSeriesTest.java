@@ -0,0 +1,70 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 23:30
+ **/
+class DownsampledSeriesTest {
+
+    @Test
+    public void testDownsampleKeepsPeak() {
+
+        long[] x = new long[100];
+        double[] y = new double[100];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i * 1000L;
+            y[i] = 10;
+        }
+        y[42] = 500;
+
+        int[] kept = DownsampledSeries.downsample(x, y, x.length, 10);
+
+        Assertions.assertEquals(10, kept.length);
+        Assertions.assertEquals(0, kept[0]);
+        Assertions.assertEquals(99, kept[kept.length - 1]);
+
+        boolean peak = false;
+        for (int i = 1; i < kept.length; i++) {
+            Assertions.assertTrue(kept[i] > kept[i - 1]);
+            peak |= kept[i] == 42;
+        }
+        Assertions.assertTrue(peak);
+    }
+
+    @Test
+    public void testAppend() {
+
+        DownsampledSeries series = new DownsampledSeries(16);
+
+        int compactions = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (series.append(i * 1000L, i)) {
+                compactions++;
+            }
+            Assertions.assertTrue(series.size() <= 16);
+        }
+
+        Assertions.assertTrue(compactions > 0);
+        Assertions.assertEquals(0L, series.timestamp(0));
+        Assertions.assertEquals(999_000L, series.lastTimestamp());
+
+        // the newest half of the buffer keeps every point
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(999.0 - i, series.value(series.size() - 1 - i));
+        }
+
+        for (int i = 1; i < series.size(); i++) {
+            Assertions.assertTrue(series.timestamp(i) > series.timestamp(i - 1));
+        }
+
+        // the value of the latest second is updated in place, older points are ignored
+        Assertions.assertFalse(series.append(999_000, 5));
+        Assertions.assertEquals(5.0, series.value(series.size() - 1));
+        int size = series.size();
+        series.append(1000, 1);
+        Assertions.assertEquals(size, series.size());
+    }
+}
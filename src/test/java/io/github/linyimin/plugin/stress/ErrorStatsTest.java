@@ -0,0 +1,72 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Map;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 00:50
+ **/
+class ErrorStatsTest {
+
+    @Test
+    public void testClassify() {
+        Assertions.assertEquals(ErrorClassifier.LOCK_WAIT_TIMEOUT, ErrorClassifier.classify(new SQLException("Lock wait timeout exceeded", "HY000", 1205)));
+        Assertions.assertEquals(ErrorClassifier.DEADLOCK, ErrorClassifier.classify(new SQLTransactionRollbackException("Deadlock found", "40001", 1213)));
+        Assertions.assertEquals(ErrorClassifier.DEADLOCK, ErrorClassifier.classify(new SQLException("ORA-00060", "61000", 60)));
+        Assertions.assertEquals(ErrorClassifier.QUERY_TIMEOUT, ErrorClassifier.classify(new SQLTimeoutException("timeout")));
+        Assertions.assertEquals(ErrorClassifier.CONNECTION, ErrorClassifier.classify(new SQLException("Communications link failure", "08S01", 0)));
+        Assertions.assertEquals(ErrorClassifier.CONSTRAINT, ErrorClassifier.classify(new SQLException("Duplicate entry", "23000", 1062)));
+        Assertions.assertEquals(ErrorClassifier.SYNTAX_OR_ACCESS, ErrorClassifier.classify(new SQLException("syntax error", "42000", 1064)));
+        Assertions.assertEquals("SQLState HY000(1234)", ErrorClassifier.classify(new SQLException("other", "HY000", 1234)));
+
+        // the sql exception may be wrapped by the executor
+        Assertions.assertEquals(ErrorClassifier.DEADLOCK, ErrorClassifier.classify(new RuntimeException(new SQLException("Deadlock found", "40001", 1213))));
+        Assertions.assertEquals("IllegalStateException", ErrorClassifier.classify(new IllegalStateException("closed")));
+    }
+
+    @Test
+    public void testConnectionError() {
+        Assertions.assertTrue(ErrorClassifier.isConnectionError(new SQLException("Communications link failure", "08S01", 0)));
+        Assertions.assertTrue(ErrorClassifier.isConnectionError(new SQLNonTransientConnectionException("No operations allowed after connection closed")));
+        Assertions.assertTrue(ErrorClassifier.isConnectionError(new RuntimeException(new SQLException("Connection reset", "08006", 0))));
+
+        Assertions.assertFalse(ErrorClassifier.isConnectionError(new SQLException("Lock wait timeout exceeded", "HY000", 1205)));
+        Assertions.assertFalse(ErrorClassifier.isConnectionError(new SQLTransactionRollbackException("Deadlock found", "40001", 1213)));
+        Assertions.assertFalse(ErrorClassifier.isConnectionError(new SQLException("Duplicate entry", "23000", 1062)));
+        Assertions.assertFalse(ErrorClassifier.isConnectionError(new SQLTimeoutException("timeout")));
+        Assertions.assertFalse(ErrorClassifier.isConnectionError(new SQLException("unknown")));
+    }
+
+    @Test
+    public void testRecord() {
+
+        ErrorStats stats = new ErrorStats();
+
+        for (int i = 0; i < 10; i++) {
+            stats.record(new SQLException("Lock wait timeout exceeded " + i, "HY000", 1205));
+        }
+        stats.record(new SQLException("Deadlock found", "40001", 1213));
+
+        Map<String, Long> drained = stats.drain();
+        Assertions.assertEquals(Long.valueOf(10), drained.get(ErrorClassifier.LOCK_WAIT_TIMEOUT));
+        Assertions.assertEquals(Long.valueOf(1), drained.get(ErrorClassifier.DEADLOCK));
+        Assertions.assertEquals(ErrorClassifier.LOCK_WAIT_TIMEOUT, drained.keySet().iterator().next());
+
+        stats.record(new SQLException("Deadlock found", "40001", 1213));
+
+        drained = stats.drain();
+        Assertions.assertEquals(1, drained.size());
+        Assertions.assertEquals(Long.valueOf(1), drained.get(ErrorClassifier.DEADLOCK));
+
+        Assertions.assertEquals(Long.valueOf(2), stats.totals().get(ErrorClassifier.DEADLOCK));
+        Assertions.assertEquals(ErrorStats.MAX_SAMPLES, stats.samples(ErrorClassifier.LOCK_WAIT_TIMEOUT).size());
+        Assertions.assertEquals(1, stats.samples(ErrorClassifier.DEADLOCK).size());
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 11:30
+ **/
+class LatencyHistogramTest {
+
+    @Test
+    public void testBucketIndex() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            Assertions.assertTrue(LatencyHistogram.lowestEquivalentValue(index) <= value);
+            Assertions.assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+        }
+
+        Assertions.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(LatencyHistogram.HIGHEST_TRACKABLE_VALUE));
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordValue(value);
+        }
+
+        Assertions.assertEquals(100_000, histogram.getTotalCount());
+        Assertions.assertEquals(1, histogram.getMin());
+        Assertions.assertEquals(100_000, histogram.getMax());
+        Assertions.assertEquals(50_000.5, histogram.getMean(), 0.001);
+
+        Assertions.assertEquals(50_000, histogram.getValueAtPercentile(50), 50_000 / 128.0);
+        Assertions.assertEquals(99_000, histogram.getValueAtPercentile(99), 99_000 / 128.0);
+        Assertions.assertEquals(100_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testRecorderMerge() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    recorder.record(j % 100);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyHistogram histogram = recorder.snapshot();
+        Assertions.assertEquals(80_000, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getMin());
+        Assertions.assertEquals(99, histogram.getMax());
+        Assertions.assertEquals(49, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value += 7) {
+            histogram.recordValue(value);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        histogram.write(new DataOutputStream(out));
+
+        LatencyHistogram copy = LatencyHistogram.read(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+        Assertions.assertEquals(histogram.getTotalCount(), copy.getTotalCount());
+        Assertions.assertEquals(histogram.getSum(), copy.getSum());
+        Assertions.assertEquals(histogram.getMin(), copy.getMin());
+        Assertions.assertEquals(histogram.getMax(), copy.getMax());
+        Assertions.assertEquals(histogram.getValueAtPercentile(99), copy.getValueAtPercentile(99));
+
+        LatencyHistogram empty = LatencyHistogram.read(new DataInputStream(new ByteArrayInputStream(writeEmpty())));
+        Assertions.assertEquals(0, empty.getTotalCount());
+    }
+
+    @Test
+    public void testCompact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value += 13) {
+            histogram.recordValue(value);
+        }
+
+        LatencyHistogram compact = histogram.compact();
+
+        Assertions.assertTrue(compact.isCompact());
+        Assertions.assertSame(compact, compact.compact());
+        Assertions.assertTrue(compact.slots() < LatencyHistogram.BUCKET_COUNT);
+        Assertions.assertEquals(histogram.getTotalCount(), compact.getTotalCount());
+        Assertions.assertEquals(histogram.getMean(), compact.getMean(), 0.001);
+        Assertions.assertEquals(histogram.getMin(), compact.getMin());
+        Assertions.assertEquals(histogram.getMax(), compact.getMax());
+        for (double percentile : new double[]{0, 50, 90, 99, 99.9, 100}) {
+            Assertions.assertEquals(histogram.getValueAtPercentile(percentile), compact.getValueAtPercentile(percentile));
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(compact);
+        merged.add(LatencyHistogram.EMPTY);
+        Assertions.assertEquals(histogram.getValueAtPercentile(99), merged.getValueAtPercentile(99));
+        Assertions.assertEquals(histogram.countAt(LatencyHistogram.indexOf(99_997)), compact.countAt(LatencyHistogram.indexOf(99_997)));
+
+        Assertions.assertSame(LatencyHistogram.EMPTY, new LatencyHistogram().compact());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compact.recordValue(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> LatencyHistogram.EMPTY.add(histogram));
+    }
+
+    private byte[] writeEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LatencyHistogram().write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+}
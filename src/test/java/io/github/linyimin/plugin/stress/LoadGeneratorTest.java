@@ -0,0 +1,54 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 16:05
+ **/
+class LoadGeneratorTest {
+
+    @Test
+    public void testInFlightLimit() throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(ThreadModeEnum.platform, 3);
+
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger peak = new AtomicInteger(0);
+        AtomicInteger requests = new AtomicInteger(0);
+
+        Runnable request = () -> {
+            int current = running.incrementAndGet();
+            peak.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                requests.incrementAndGet();
+            }
+        };
+
+        for (int i = 0; i < 20; i++) {
+            generator.addWorker(request);
+        }
+
+        Thread.sleep(200);
+
+        Assertions.assertTrue(generator.shutdown(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(requests.get() > 0);
+        Assertions.assertTrue(peak.get() <= 3);
+        Assertions.assertEquals(0, generator.getWorkerCount());
+        Assertions.assertThrows(IllegalStateException.class, () -> generator.addWorker(request));
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(ThreadModeEnum.platform, 0));
+        Assertions.assertTrue(ThreadModeEnum.platform.isSupported());
+    }
+}
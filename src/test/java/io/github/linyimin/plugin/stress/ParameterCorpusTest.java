@@ -0,0 +1,137 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 20:40
+ **/
+class ParameterCorpusTest {
+
+    @Test
+    public void testGenerate() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+
+        ParameterCorpus corpus = ParameterCorpus.generate(Arrays.asList("user.id", "user.score", "user.name"), 4, column -> {
+            int i = counter.getAndIncrement();
+            if (column == 0) {
+                return (long) i;
+            }
+            if (column == 1) {
+                return i + 0.5f;
+            }
+            return i % 2 == 0 ? "even" : null;
+        });
+
+        Assertions.assertEquals(4, corpus.size());
+        Assertions.assertEquals(2, corpus.indexOf("USER.NAME"));
+        Assertions.assertEquals(-1, corpus.indexOf("user.age"));
+
+        Assertions.assertEquals(0L, corpus.value(0, 0));
+        Assertions.assertEquals(4.5, corpus.value(1, 0));
+        Assertions.assertEquals("even", corpus.value(2, 0));
+        Assertions.assertNull(corpus.value(2, 1));
+    }
+
+    @Test
+    public void testCursorWraps() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+        ParameterCorpus corpus = ParameterCorpus.generate(Arrays.asList("user.id"), 3, column -> counter.getAndIncrement());
+
+        for (int i = 0; i < 7; i++) {
+            Assertions.assertEquals(String.valueOf(i % 3), corpus.nextValues(new int[]{0}, new int[]{0})[0].toString());
+        }
+    }
+
+    @Test
+    public void testValuesOfRequestShareRow() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+        ParameterCorpus corpus = ParameterCorpus.generate(Arrays.asList("user.id", "user.name", "user.age"), 5,
+                column -> (long) counter.getAndIncrement());
+
+        int[] columns = {0, 1, 2};
+        for (int request = 0; request < 12; request++) {
+            Object[] values = corpus.nextValues(columns, ParameterCorpus.occurrences(columns));
+            int row = request % 5;
+            for (int column = 0; column < columns.length; column++) {
+                Assertions.assertEquals(corpus.value(column, row), values[column]);
+            }
+        }
+
+        // a column read on its own sees the same sequence, whatever the number of parameters
+        ParameterCorpus single = ParameterCorpus.read(copyOf(corpus));
+        for (int request = 0; request < 12; request++) {
+            Assertions.assertEquals(corpus.value(1, request % 5), single.nextValues(new int[]{1}, new int[]{0})[0]);
+        }
+    }
+
+    @Test
+    public void testBetweenAndInReadFollowingRows() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+        ParameterCorpus corpus = ParameterCorpus.generate(Arrays.asList("user.id", "user.age"), 4,
+                column -> (long) counter.getAndIncrement());
+
+        PreparedTemplate template = PreparedTemplate.compile("SELECT * FROM user WHERE age BETWEEN '__between__${user.age}__start__' " +
+                "AND '__between__${user.age}__end__' AND id IN ('__in__${user.id}__0__', '__in__${user.id}__1__', '__in__${user.id}__2__')");
+
+        int[] columns = new int[template.getParameterCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = corpus.indexOf(template.getParameterKeys().get(i));
+        }
+        int[] offsets = ParameterCorpus.occurrences(columns);
+
+        Assertions.assertArrayEquals(new int[]{0, 1, 0, 1, 2}, offsets);
+
+        for (int request = 0; request < 6; request++) {
+            Object[] values = corpus.nextValues(columns, offsets);
+            int row = request % 4;
+            Assertions.assertEquals(corpus.value(1, row), values[0]);
+            Assertions.assertEquals(corpus.value(1, (row + 1) % 4), values[1]);
+            Assertions.assertEquals(corpus.value(0, row), values[2]);
+            Assertions.assertEquals(corpus.value(0, (row + 1) % 4), values[3]);
+            Assertions.assertEquals(corpus.value(0, (row + 2) % 4), values[4]);
+            Assertions.assertNotEquals(values[0], values[1]);
+            Assertions.assertNotEquals(values[2], values[3]);
+        }
+    }
+
+    private static ByteArrayInputStream copyOf(ParameterCorpus corpus) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        corpus.write(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Test
+    public void testReadWrite() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+        ParameterCorpus corpus = ParameterCorpus.generate(Arrays.asList("user.id", "user.name"), 5,
+                column -> column == 0 ? (Object) (long) counter.getAndIncrement() : "名字" + counter.getAndIncrement() % 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        corpus.write(out);
+
+        ParameterCorpus copy = ParameterCorpus.read(new ByteArrayInputStream(out.toByteArray()));
+
+        Assertions.assertEquals(corpus.getKeys(), copy.getKeys());
+        Assertions.assertEquals(corpus.size(), copy.size());
+        for (int column = 0; column < 2; column++) {
+            for (int row = 0; row < 5; row++) {
+                Assertions.assertEquals(corpus.value(column, row), copy.value(column, row));
+            }
+        }
+
+        Assertions.assertThrows(IOException.class, () -> ParameterCorpus.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+
+    @Test
+    public void testInvalidSize() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ParameterCorpus.generate(Arrays.asList("user.id"), 0, column -> 1L));
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 13:52
+ **/
+class PercentilesTest {
+
+    @Test
+    public void testParse() {
+        Percentiles percentiles = Percentiles.parse("99.9, 50,90,99");
+
+        Assertions.assertEquals(4, percentiles.size());
+        Assertions.assertEquals("TP50", percentiles.label(0));
+        Assertions.assertEquals("TP99.9", percentiles.label(3));
+
+        Assertions.assertEquals(5, Percentiles.parse("").size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Percentiles.parse("0,50"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Percentiles.parse("50,101"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Percentiles.parse("p99"));
+    }
+
+    @Test
+    public void testValuesOf() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.recordValue(value);
+        }
+
+        Percentiles percentiles = Percentiles.parse(Percentiles.DEFAULT_PERCENTILES);
+        double[] expected = percentiles.getPercentiles();
+        long[] values = percentiles.valuesOf(histogram);
+
+        for (int i = 0; i < values.length; i++) {
+            double exact = expected[i] * 10_000;
+            Assertions.assertEquals(exact, values[i], exact * Percentiles.RELATIVE_ERROR);
+            Assertions.assertEquals(histogram.getValueAtPercentile(expected[i]), values[i]);
+        }
+    }
+
+    @Test
+    public void testIntervalSubtract() {
+        LatencyHistogram first = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            first.recordValue(value);
+        }
+
+        LatencyHistogram second = first.copy();
+        for (int i = 0; i < 1000; i++) {
+            second.recordValue(5000);
+        }
+
+        LatencyHistogram interval = second.subtract(first);
+        Assertions.assertEquals(1000, interval.getTotalCount());
+        Assertions.assertEquals(5000, interval.getMax());
+        Assertions.assertEquals(5000, interval.getValueAtPercentile(50), 5000 * Percentiles.RELATIVE_ERROR);
+        Assertions.assertEquals(5000.0, interval.getMean(), 0.001);
+    }
+}
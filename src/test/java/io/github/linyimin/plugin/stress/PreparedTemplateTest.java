@@ -0,0 +1,44 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 17:55
+ **/
+class PreparedTemplateTest {
+
+    @Test
+    public void testCompile() {
+        String template = "SELECT * FROM user WHERE name = '${user.name}' AND age BETWEEN '__between__${user.age}__start__' " +
+                "AND '__between__${user.age}__end__' AND id IN ('__in__${user.id}__0__', '__in__${user.id}__1__') AND type = ${TYPE}";
+
+        PreparedTemplate prepared = PreparedTemplate.compile(template);
+
+        Assertions.assertEquals("SELECT * FROM user WHERE name = ? AND age BETWEEN ? AND ? AND id IN (?, ?) AND type = ?", prepared.getSql());
+        Assertions.assertEquals(Arrays.asList("user.name", "user.age", "user.age", "user.id", "user.id", "type"), prepared.getParameterKeys());
+    }
+
+    @Test
+    public void testRender() {
+        String template = "SELECT * FROM user WHERE name = '${user.name}' AND age BETWEEN '__between__${user.age}__start__' " +
+                "AND __between__${user.age}__end__ AND id IN ('__in__${user.id}__0__') AND type = ${TYPE} AND memo = '${user.memo}'";
+
+        PreparedTemplate prepared = PreparedTemplate.compile(template);
+
+        Assertions.assertEquals("SELECT * FROM user WHERE name = 'tom' AND age BETWEEN 18 AND 30 AND id IN (7) AND type = a AND memo = NULL",
+                prepared.render(new Object[]{"tom", 18, 30L, 7L, "a", null}));
+    }
+
+    @Test
+    public void testWithoutPlaceholder() {
+        PreparedTemplate prepared = PreparedTemplate.compile("SELECT '$1' FROM dual");
+
+        Assertions.assertEquals("SELECT '$1' FROM dual", prepared.getSql());
+        Assertions.assertEquals("SELECT '$1' FROM dual", prepared.render(new Object[0]));
+        Assertions.assertEquals(0, prepared.getParameterCount());
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 23:10
+ **/
+class RunComparisonTest {
+
+    @Test
+    public void testMannWhitney() {
+        double[] x = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        double[] y = {11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+
+        Assertions.assertEquals(0.00018, RunComparison.mannWhitneyPValue(x, y), 0.00002);
+        Assertions.assertEquals(1.0, RunComparison.mannWhitneyPValue(x, x.clone()));
+
+        double[] same = {5, 5, 5, 5, 5};
+        Assertions.assertEquals(1.0, RunComparison.mannWhitneyPValue(same, same.clone()));
+    }
+
+    @Test
+    public void testNormalCdf() {
+        Assertions.assertEquals(0.5, RunComparison.normalCdf(0), 1e-7);
+        Assertions.assertEquals(0.975, RunComparison.normalCdf(1.959964), 1e-6);
+        Assertions.assertEquals(0.025, RunComparison.normalCdf(-1.959964), 1e-6);
+    }
+
+    @Test
+    public void testPercentileSeries() {
+        StressRun baseline = new StressRun();
+        StressRun candidate = new StressRun();
+        for (String name : Arrays.asList("TP50", "TP95", "TP99.9", StressRun.AVERAGE_RT)) {
+            baseline.putSeries(name, series(10));
+        }
+        for (String name : Arrays.asList("TP50", "TP95", StressRun.AVERAGE_RT)) {
+            candidate.putSeries(name, series(12));
+        }
+        baseline.getHistogram().recordValue(10_000);
+        candidate.getHistogram().recordValue(12_000);
+
+        // runs persisted before TP99 was always recorded fall back to the highest common percentile
+        Assertions.assertEquals("TP95", RunComparison.percentileSeries(baseline, candidate));
+        RunComparison.Item item = RunComparison.compare(baseline, candidate).get(1);
+        Assertions.assertTrue(item.getMetric().startsWith("TP95"));
+        Assertions.assertEquals(RunComparison.Verdict.regression, item.getVerdict());
+
+        baseline.putSeries(StressRun.P99_RT, series(10));
+        candidate.putSeries(StressRun.P99_RT, series(12));
+        Assertions.assertEquals(StressRun.P99_RT, RunComparison.percentileSeries(baseline, candidate));
+        Assertions.assertEquals("TP99(ms)", RunComparison.compare(baseline, candidate).get(1).getMetric());
+
+        Assertions.assertNull(RunComparison.percentileSeries(new StressRun(), candidate));
+    }
+
+    @Test
+    public void testP99AlwaysRecorded() {
+        StressMetrics metrics = new StressMetrics(Percentiles.parse("50,90"));
+        for (int i = 1; i <= 100; i++) {
+            metrics.addSuccess(i * 1000L);
+        }
+        metrics.roll(true);
+
+        StressRun run = metrics.toRun();
+        Assertions.assertTrue(run.getSeries().containsKey("TP50"));
+        Assertions.assertEquals(1, run.getSeries(StressRun.P99_RT).size());
+        Assertions.assertEquals(99.0, run.getSeries(StressRun.P99_RT).values().iterator().next(), 99 * Percentiles.RELATIVE_ERROR);
+    }
+
+    private static Map<Long, Double> series(double base) {
+        Map<Long, Double> points = new TreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            points.put(i * 1000L, base + (i % 3) * 0.1);
+        }
+        return points;
+    }
+
+    @Test
+    public void testVerdict() {
+        List<Double> baseline = Arrays.asList(0.0, 10.0, 11.0, 10.5, 10.2, 9.8, 10.1, 10.4, 9.9, 0.0);
+        List<Double> slower = Arrays.asList(0.0, 15.0, 16.0, 15.5, 15.2, 14.8, 15.1, 15.4, 14.9, 0.0);
+
+        Assertions.assertEquals(RunComparison.Verdict.regression,
+                RunComparison.compare("rt", 10, 15, baseline, slower, true).getVerdict());
+        Assertions.assertEquals(RunComparison.Verdict.improvement,
+                RunComparison.compare("rt", 15, 10, slower, baseline, true).getVerdict());
+        Assertions.assertEquals(RunComparison.Verdict.regression,
+                RunComparison.compare("tps", 15, 10, slower, baseline, false).getVerdict());
+        Assertions.assertEquals(RunComparison.Verdict.unchanged,
+                RunComparison.compare("rt", 10, 10.1, baseline, baseline, true).getVerdict());
+        Assertions.assertEquals(RunComparison.Verdict.insufficient,
+                RunComparison.compare("rt", 10, 15, Collections.emptyList(), slower, true).getVerdict());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 04:00
+ **/
+class ServerStatsSamplerTest {
+
+    @Test
+    public void testRates() {
+
+        List<ServerStatsSampler.Stat> stats = ServerStatsSampler.stats("mysql");
+
+        Map<String, Long> first = new HashMap<>();
+        first.put("Innodb_rows_read", 1000L);
+        first.put("Threads_running", 3L);
+
+        // counters need a previous sample
+        Map<String, Double> sample = ServerStatsSampler.rates(stats, null, first, 0);
+        Assertions.assertEquals(Collections.singleton("运行线程"), sample.keySet());
+        Assertions.assertEquals(3.0, sample.get("运行线程"), 0.001);
+
+        Map<String, Long> second = new HashMap<>();
+        second.put("Innodb_rows_read", 5000L);
+        second.put("Threads_running", 7L);
+
+        sample = ServerStatsSampler.rates(stats, first, second, TimeUnit.SECONDS.toNanos(2));
+        Assertions.assertEquals(2000.0, sample.get("InnoDB读取行/s"), 0.001);
+        Assertions.assertEquals(7.0, sample.get("运行线程"), 0.001);
+
+        // reset by FLUSH STATUS
+        Map<String, Long> third = new HashMap<>();
+        third.put("Innodb_rows_read", 10L);
+
+        sample = ServerStatsSampler.rates(stats, second, third, TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertEquals(0.0, sample.get("InnoDB读取行/s"), 0.001);
+        Assertions.assertFalse(sample.containsKey("运行线程"));
+    }
+
+    @Test
+    public void testLabels() {
+
+        List<String> mysqlReads = ServerStatsSampler.labels("mysql", ServerStatsSampler.Group.reads);
+        List<String> mysqlWaits = ServerStatsSampler.labels("mysql", ServerStatsSampler.Group.waits);
+        Assertions.assertTrue(mysqlReads.contains("InnoDB读取行/s"));
+        Assertions.assertTrue(mysqlWaits.contains("行锁等待/s"));
+        Assertions.assertEquals(Integer.valueOf(ServerStatsSampler.stats("mysql").size()), Integer.valueOf(mysqlReads.size() + mysqlWaits.size()));
+
+        Assertions.assertTrue(ServerStatsSampler.labels("oracle", ServerStatsSampler.Group.reads).contains("逻辑读/s"));
+        Assertions.assertTrue(ServerStatsSampler.labels("oracle", ServerStatsSampler.Group.waits).contains("行锁等待会话"));
+    }
+
+    @Test
+    public void testServerMap() {
+
+        StressMetrics metrics = new StressMetrics();
+
+        Map<String, Double> sample = new LinkedHashMap<>();
+        sample.put("运行线程", 4.0);
+        sample.put("InnoDB读取行/s", 100.0);
+        metrics.addServerSample(sample);
+
+        Map<String, Map<Long, Double>> waits = metrics.serverMap(Arrays.asList("运行线程", "行锁等待/s"));
+        Assertions.assertEquals(Collections.singleton("运行线程"), waits.keySet());
+        Assertions.assertEquals(4.0, waits.get("运行线程").values().iterator().next(), 0.001);
+    }
+}
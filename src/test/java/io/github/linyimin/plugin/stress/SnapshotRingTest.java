@@ -0,0 +1,59 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 00:15
+ **/
+class SnapshotRingTest {
+
+    @Test
+    public void testRing() {
+
+        SnapshotRing ring = new SnapshotRing(3);
+        Assertions.assertNull(ring.latest());
+
+        for (int i = 1; i <= 5; i++) {
+            ring.add(snapshot(i * 1000L, i));
+        }
+
+        Assertions.assertEquals(3, ring.size());
+        Assertions.assertEquals(5000L, ring.latest().getSecond());
+
+        List<IntervalSnapshot> snapshots = ring.toList();
+        Assertions.assertEquals(3, snapshots.size());
+        Assertions.assertEquals(3000L, snapshots.get(0).getSecond());
+        Assertions.assertEquals(5000L, snapshots.get(2).getSecond());
+
+        Assertions.assertEquals(2, ring.latest(2).size());
+        Assertions.assertEquals(4000L, ring.latest(2).get(0).getSecond());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ring.add(snapshot(5000L, 1)));
+    }
+
+    @Test
+    public void testSnapshot() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(1000);
+        histogram.recordValue(3000);
+
+        IntervalSnapshot snapshot = new IntervalSnapshot(1000L, 2, 2, 4000, 3000, histogram, Collections.singletonMap(ErrorClassifier.DEADLOCK, 2L));
+
+        Assertions.assertEquals(4, snapshot.getTotal());
+        Assertions.assertEquals(50.0, snapshot.getSuccessRate());
+        Assertions.assertEquals(2000.0, snapshot.getAverageRt());
+        Assertions.assertEquals(1500.0, snapshot.getAverageServiceRt());
+        Assertions.assertEquals(1000L, snapshot.getMinRt());
+        Assertions.assertEquals(Long.valueOf(2), snapshot.getErrors().get(ErrorClassifier.DEADLOCK));
+    }
+
+    private IntervalSnapshot snapshot(long second, long success) {
+        return new IntervalSnapshot(second, success, 0, success * 1000, success * 1000, new LatencyHistogram(), Collections.emptyMap());
+    }
+}
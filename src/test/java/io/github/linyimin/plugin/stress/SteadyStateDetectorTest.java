@@ -0,0 +1,90 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 05:00
+ **/
+class SteadyStateDetectorTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private IntervalSnapshot snapshot(int second, long success, long averageRt) {
+        return new IntervalSnapshot(START + second * 1000L, success, 0, success * averageRt, success * averageRt,
+                new LatencyHistogram(), Collections.emptyMap());
+    }
+
+    @Test
+    public void testFixedWarmup() {
+
+        SteadyStateDetector detector = new SteadyStateDetector(START, 5, 0);
+
+        for (int second = 0; second < 5; second++) {
+            Assertions.assertEquals(0L, detector.offer(snapshot(second, 10, 1000)));
+        }
+        Assertions.assertEquals(START + 5000, detector.offer(snapshot(5, 10, 1000)));
+    }
+
+    @Test
+    public void testDetectSteadyState() {
+
+        SteadyStateDetector detector = new SteadyStateDetector(START, 2, 10);
+
+        long steady = 0;
+        int second = 0;
+        // the buffer pool warms up, TPS rises from 100 to 500 and RT falls
+        for (; second < 8 && steady == 0; second++) {
+            steady = detector.offer(snapshot(second, 100 + second * 50L, 10_000 - second * 1000L));
+        }
+        Assertions.assertEquals(0L, steady);
+
+        for (; second < 60 && steady == 0; second++) {
+            steady = detector.offer(snapshot(second, 500 + (second % 2) * 20, 2000 + (second % 3) * 50));
+        }
+
+        Assertions.assertEquals(START + 8000, steady);
+        Assertions.assertEquals(Integer.valueOf(18), Integer.valueOf(second));
+    }
+
+    @Test
+    public void testGapIsNotSteady() {
+
+        SteadyStateDetector detector = new SteadyStateDetector(START, 0, 10);
+
+        long steady = 0;
+        for (int second = 0; second < 20 && steady == 0; second++) {
+            // no request completed in the 5th second
+            if (second != 5) {
+                steady = detector.offer(snapshot(second, 100, 1000));
+            }
+        }
+
+        Assertions.assertEquals(START + 6000, steady);
+    }
+
+    @Test
+    public void testCv() {
+        Assertions.assertEquals(0.0, SteadyStateDetector.cv(new double[]{5, 5, 5}), 0.0001);
+        Assertions.assertEquals(0.5, SteadyStateDetector.cv(new double[]{1, 3}), 0.0001);
+        Assertions.assertTrue(Double.isInfinite(SteadyStateDetector.cv(new double[]{0, 0})));
+    }
+
+    @Test
+    public void testSummaryWithoutSteadyState() {
+
+        StressMetrics metrics = new StressMetrics();
+        metrics.setWarmup(60, 0);
+
+        metrics.addSuccess(2000);
+        metrics.roll(true);
+
+        // the summary falls back to the whole run until the steady state is reached
+        Assertions.assertTrue(metrics.isWarmingUp());
+        Assertions.assertEquals(0L, metrics.getSteadySecond());
+        Assertions.assertEquals("2.00", metrics.averageRt());
+    }
+}
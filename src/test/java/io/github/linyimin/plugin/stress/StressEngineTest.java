@@ -0,0 +1,147 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+class StressEngineTest {
+
+    @Test
+    public void testFixedConcurrency() {
+
+        StressConfig config = StressConfig.builder().concurrency(4).inFlightLimit(2).durationSeconds(1).build();
+        Assertions.assertEquals(2, config.getInFlightLimit());
+
+        AtomicInteger requests = new AtomicInteger(0);
+        AtomicLong ticks = new AtomicLong(0);
+        AtomicInteger finished = new AtomicInteger(0);
+
+        StressEngine engine = new StressEngine(config, () -> {
+            // every fifth request fails with a deadlock
+            if (requests.incrementAndGet() % 5 == 0) {
+                throw new SQLException("Deadlock found", "40001", 1213);
+            }
+            Thread.sleep(1);
+            return TimeUnit.MILLISECONDS.toNanos(1);
+        }, new StressListener() {
+            @Override
+            public void onTick(StressMetrics metrics) {
+                ticks.incrementAndGet();
+            }
+
+            @Override
+            public void onFinish(StressMetrics metrics, int unfinished) {
+                finished.set(unfinished + 1);
+            }
+        });
+
+        StressMetrics metrics = engine.run();
+
+        Assertions.assertTrue(engine.isStopped());
+        Assertions.assertEquals(1, finished.get());
+        Assertions.assertEquals(4L, metrics.getConcurrentNum());
+        Assertions.assertTrue(metrics.getSuccess() > 0);
+        Assertions.assertTrue(metrics.getFailed() > 0);
+        Assertions.assertEquals(Long.valueOf(metrics.getFailed()), metrics.getErrorStats().totals().get(ErrorClassifier.DEADLOCK));
+        Assertions.assertEquals(metrics.getSuccess(), metrics.getHistogram().getTotalCount());
+        Assertions.assertTrue(metrics.getSnapshots().size() > 0);
+    }
+
+    @Test
+    public void testWarmup() {
+
+        StressConfig config = StressConfig.builder().concurrency(2).durationSeconds(3).warmupSeconds(1).build();
+
+        StressEngine engine = new StressEngine(config, () -> {
+            Thread.sleep(1);
+            return TimeUnit.MILLISECONDS.toNanos(1);
+        }, StressListener.NONE);
+
+        StressMetrics metrics = engine.run();
+
+        Assertions.assertFalse(metrics.isWarmingUp());
+        Assertions.assertEquals(metrics.getStartMillis() + 1000, metrics.getSteadySecond());
+        // requests of the first second are counted but left out of the summary
+        Assertions.assertTrue(metrics.getHistogram().getTotalCount() > 0);
+        Assertions.assertTrue(metrics.getHistogram().getTotalCount() < metrics.getSuccess());
+    }
+
+    @Test
+    public void testStop() throws InterruptedException {
+
+        StressConfig config = StressConfig.builder().concurrency(2).durationSeconds(600).build();
+        StressEngine engine = new StressEngine(config, () -> {
+            Thread.sleep(1);
+            return TimeUnit.MILLISECONDS.toNanos(1);
+        }, StressListener.NONE);
+
+        Thread runner = new Thread(engine::run);
+        runner.start();
+
+        Thread.sleep(200);
+        engine.stop();
+        runner.join(TimeUnit.SECONDS.toMillis(5));
+
+        Assertions.assertFalse(runner.isAlive());
+        Assertions.assertTrue(engine.getMetrics().getSuccess() > 0);
+    }
+
+    @Test
+    public void testArrivalRate() {
+
+        StressConfig config = StressConfig.builder()
+                .trafficModel(TrafficModelEnum.arrival_rate)
+                .arrivalRate(ArrivalRate.constant(200))
+                .concurrency(4)
+                .durationSeconds(1)
+                .build();
+
+        StressMetrics metrics = new StressEngine(config, () -> TimeUnit.MICROSECONDS.toNanos(100), StressListener.NONE).run();
+
+        Assertions.assertEquals(4L, metrics.getConcurrentNum());
+        Assertions.assertTrue(metrics.getSuccess() > 100);
+        Assertions.assertEquals(0L, metrics.getFailed());
+    }
+
+    @Test
+    public void testCapacitySearch() {
+
+        StressConfig config = StressConfig.builder()
+                .trafficModel(TrafficModelEnum.capacity_search)
+                .concurrency(1)
+                .stepSeconds(3)
+                .sloP99Millis(1000)
+                .durationSeconds(60)
+                .build();
+
+        StressMetrics metrics = new StressEngine(config, () -> {
+            Thread.sleep(1);
+            return TimeUnit.MILLISECONDS.toNanos(1);
+        }, StressListener.NONE).run();
+
+        Assertions.assertEquals(1, metrics.capacitySteps().size());
+        CapacityStep step = metrics.capacitySteps().get(0);
+        Assertions.assertTrue(step.isPassed());
+        Assertions.assertTrue(step.getSeconds() >= 1);
+        Assertions.assertTrue(step.getTps() > 0);
+    }
+
+    @Test
+    public void testConfig() {
+        Assertions.assertEquals(TrafficModelEnum.ramp, TrafficModelEnum.of("increase in a constant rate"));
+        Assertions.assertEquals(TrafficModelEnum.arrival_rate, TrafficModelEnum.of("arrival_rate"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TrafficModelEnum.of("burst"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StressConfig.builder().trafficModel(TrafficModelEnum.arrival_rate).build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StressConfig.builder().concurrency(0).build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StressConfig.builder().trafficModel(TrafficModelEnum.capacity_search).stepSeconds(1).build());
+        Assertions.assertEquals(8, StressConfig.builder().concurrency(8).build().getInFlightLimit());
+    }
+}
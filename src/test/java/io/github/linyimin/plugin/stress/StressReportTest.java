@@ -0,0 +1,63 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
+
+/**
+ * @author banzhe
+ * @date 2026/10/19 02:00
+ **/
+class StressReportTest {
+
+    @Test
+    public void testPercentileDistribution() throws IOException {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i * 10L);
+        }
+
+        StringWriter writer = new StringWriter();
+        StressReport.writePercentileDistribution(histogram, writer);
+
+        String[] lines = writer.toString().split("\\R");
+        Assertions.assertTrue(lines[0].trim().startsWith("Value"));
+        Assertions.assertEquals("", lines[1]);
+        Assertions.assertTrue(lines[2].trim().startsWith("0.010 0.001000000000"));
+
+        String last = lines[lines.length - 4].trim();
+        Assertions.assertTrue(last.startsWith("10.000 1.000000000000"));
+        Assertions.assertTrue(last.endsWith("1000"));
+
+        Assertions.assertTrue(lines[lines.length - 3].startsWith("#[Mean    ="));
+        Assertions.assertTrue(lines[lines.length - 2].contains("Total count    =         1000"));
+    }
+
+    @Test
+    public void testJson() throws IOException {
+
+        StressMetrics metrics = new StressMetrics();
+        metrics.addSuccess(1000);
+        metrics.addSuccess(3000);
+        metrics.addFailed(new SQLException("Deadlock \"found\"", "40001", 1213));
+        metrics.roll(true);
+
+        StressConfig config = StressConfig.builder().concurrency(2).durationSeconds(1).build();
+
+        StringWriter writer = new StringWriter();
+        new StressReport(config, metrics, "select * from user where id = ?").writeJson(writer);
+        String json = writer.toString();
+
+        Assertions.assertTrue(json.contains("\"statement\": \"select * from user where id = ?\""));
+        Assertions.assertTrue(json.contains("\"trafficModel\": \"fixed\""));
+        Assertions.assertTrue(json.contains("\"total\": 3"));
+        Assertions.assertTrue(json.contains("\"mean\": 2.000"));
+        Assertions.assertTrue(json.contains("Deadlock \\\"found\\\""));
+        Assertions.assertTrue(json.contains("\"second\": " + metrics.getSnapshots().latest().getSecond()));
+        Assertions.assertTrue(json.trim().endsWith("}"));
+    }
+}
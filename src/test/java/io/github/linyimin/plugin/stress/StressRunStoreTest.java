@@ -0,0 +1,62 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 23:20
+ **/
+class StressRunStoreTest {
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path directory = Files.createTempDirectory("stress-runs");
+        StressRunStore store = new StressRunStore(directory);
+
+        store.save(createRun(1000, "SELECT * FROM user", "mysql@localhost"));
+        store.save(createRun(2000, "SELECT * FROM user", "mysql@localhost"));
+        store.save(createRun(3000, "SELECT * FROM role", "mysql@localhost"));
+
+        List<StressRunStore.Entry> entries = store.list(StressRun.hash("SELECT * FROM user"), "mysql@localhost");
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals(2000, entries.get(0).getStartMillis());
+        Assertions.assertEquals(3, store.list().size());
+
+        StressRun run = store.load(1000);
+        Assertions.assertEquals("SELECT * FROM user", run.getStatement());
+        Assertions.assertEquals(10, run.getSuccess());
+        Assertions.assertEquals(10, run.getHistogram().getTotalCount());
+        Assertions.assertEquals(12.5, run.getSeries(StressRun.TPS).get(1000L));
+    }
+
+    private StressRun createRun(long startMillis, String statement, String datasource) {
+        StressRun run = new StressRun();
+        run.setStartMillis(startMillis);
+        run.setEndMillis(startMillis + 1000);
+        run.setStatement(statement);
+        run.setStatementHash(StressRun.hash(statement));
+        run.setDatasource(datasource);
+        run.setValueType("use sql directly");
+        run.setTrafficModel("fixed concurrent number");
+        run.setConcurrency(4);
+        run.setSuccess(10);
+
+        for (int i = 1; i <= 10; i++) {
+            run.getHistogram().recordValue(i * 1000L);
+        }
+
+        Map<Long, Double> tps = new HashMap<>();
+        tps.put(1000L, 12.5);
+        run.putSeries(StressRun.TPS, tps);
+
+        return run;
+    }
+}
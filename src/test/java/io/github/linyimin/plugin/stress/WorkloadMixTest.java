@@ -0,0 +1,53 @@
+package io.github.linyimin.plugin.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author banzhe
+ * @date 2026/10/18 21:20
+ **/
+class WorkloadMixTest {
+
+    @Test
+    public void testIndexOf() {
+        WorkloadMix<String> mix = WorkloadMix.<String>builder()
+                .add("selectById", 3, "a")
+                .add("updateName", 1, "b")
+                .add("deleteById", 2, "c")
+                .build();
+
+        Assertions.assertEquals(6, mix.getTotalWeight());
+
+        int[] expected = {0, 0, 0, 1, 2, 2};
+        for (int point = 0; point < expected.length; point++) {
+            Assertions.assertEquals(expected[point], mix.indexOf(point));
+        }
+
+        Assertions.assertEquals(0.5, mix.share(mix.getEntries().get(0)));
+    }
+
+    @Test
+    public void testPick() {
+        WorkloadMix<String> mix = WorkloadMix.<String>builder()
+                .add("selectById", 9, "a")
+                .add("updateName", 1, "b")
+                .build();
+
+        int selects = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (mix.pick().getName().equals("selectById")) {
+                selects++;
+            }
+        }
+
+        Assertions.assertTrue(selects > 8500 && selects < 9500);
+    }
+
+    @Test
+    public void testInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.builder().build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.builder().add("selectById", 0, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.builder().add("selectById", 1, null).add("selectById", 1, null));
+    }
+}